@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.client;
+
+import org.eclipse.scout.rt.platform.config.AbstractPositiveIntegerConfigProperty;
+
+public final class ConfigProperties {
+
+  private ConfigProperties() {
+  }
+
+  public static class ChatHistoryWindowSizeProperty extends AbstractPositiveIntegerConfigProperty {
+
+    @Override
+    public Integer getDefaultValue() {
+      return 200;
+    }
+
+    @Override
+    public String getKey() {
+      return "bahbah.chat.historyWindowSize";
+    }
+
+    @Override
+    public String description() {
+      return "Maximum number of messages kept in a chat window. Older messages are removed and loaded again on demand. The default value is 200.";
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.client;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.scout.rt.client.context.ClientRunContexts;
+import org.eclipse.scout.rt.client.job.ModelJobs;
+import org.eclipse.scout.rt.shared.notification.INotificationHandler;
+import org.eclipsescout.demo.bahbah.client.ui.desktop.Desktop;
+import org.eclipsescout.demo.bahbah.client.ui.desktop.outlines.pages.UserNodePage;
+import org.eclipsescout.demo.bahbah.client.ui.forms.ChatForm;
+import org.eclipsescout.demo.bahbah.shared.notification.MessageBatchNotification;
+import org.eclipsescout.demo.bahbah.shared.services.process.ChatMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Adds all messages of a {@link MessageBatchNotification} to the chat forms in one model job.
+ */
+//tag::notificationHandler[]
+public class MessageBatchNotificationHandler implements INotificationHandler<MessageBatchNotification> {
+  // end::notificationHandler[]
+  private static final Logger LOG = LoggerFactory.getLogger(MessageBatchNotificationHandler.class);
+
+  private final AtomicLong m_batchCount = new AtomicLong();
+  private final AtomicLong m_messageCount = new AtomicLong();
+  private final AtomicLong m_applyNanos = new AtomicLong();
+  private final AtomicLong m_deliveryMillis = new AtomicLong();
+
+  // tag::notificationHandler[]
+  // tag::handleNotification[]
+  @Override
+  public void handleNotification(final MessageBatchNotification notification) {
+    // end::notificationHandler[]
+    long receivedNanos = System.nanoTime();
+    ModelJobs.schedule(() -> {
+      UserNodePage userPage = getUserNodePage();
+      if (userPage == null) {
+        return;
+      }
+
+      // one table update per chat
+      Map<String, List<ChatMessage>> messagesBySender = new LinkedHashMap<>();
+      for (ChatMessage message : notification.getMessages()) {
+        messagesBySender.computeIfAbsent(message.getSenderName(), k -> new ArrayList<>()).add(message);
+      }
+      for (Entry<String, List<ChatMessage>> entry : messagesBySender.entrySet()) {
+        ChatForm form = userPage.getChatForm(entry.getKey());
+        if (form != null) {
+          form.getHistoryField().addMessages(entry.getValue());
+        }
+      }
+
+      updateMetrics(notification, receivedNanos);
+    }, ModelJobs.newInput(ClientRunContexts.copyCurrent()));
+  }
+  // end::handleNotification[]
+
+  protected void updateMetrics(MessageBatchNotification notification, long receivedNanos) {
+    long now = System.currentTimeMillis();
+    long applyNanos = System.nanoTime() - receivedNanos;
+    long deliveryMillis = 0;
+    for (ChatMessage message : notification.getMessages()) {
+      // includes the clock offset between server and client
+      deliveryMillis += Math.max(0, now - message.getDate().getTime());
+    }
+
+    m_batchCount.incrementAndGet();
+    m_messageCount.addAndGet(notification.getMessages().size());
+    m_applyNanos.addAndGet(applyNanos);
+    m_deliveryMillis.addAndGet(deliveryMillis);
+    LOG.debug("Applied {} messages {} ms after receiving them", notification.getMessages().size(), applyNanos / 1000000);
+  }
+
+  public long getBatchCount() {
+    return m_batchCount.get();
+  }
+
+  public long getMessageCount() {
+    return m_messageCount.get();
+  }
+
+  public double getAverageBatchSize() {
+    long batches = m_batchCount.get();
+    return batches == 0 ? 0 : m_messageCount.get() / (double) batches;
+  }
+
+  /**
+   * @return average time in milliseconds from receiving a batch until its messages are shown
+   */
+  public double getAverageApplyMillis() {
+    long batches = m_batchCount.get();
+    return batches == 0 ? 0 : m_applyNanos.get() / 1e6 / batches;
+  }
+
+  /**
+   * @return average time in milliseconds from sending a message until it is shown, measured against the server clock
+   */
+  public double getAverageDeliveryMillis() {
+    long messages = m_messageCount.get();
+    return messages == 0 ? 0 : m_deliveryMillis.get() / (double) messages;
+  }
+
+  private UserNodePage getUserNodePage() {
+    if (Desktop.get() == null) {
+      return null;
+    }
+    else {
+      return Desktop.get().getUserNodePage();
+    }
+  }
+}
@@ -15,21 +15,21 @@ import org.eclipse.scout.rt.client.job.ModelJobs;
 import org.eclipse.scout.rt.shared.notification.INotificationHandler;
 import org.eclipsescout.demo.bahbah.client.ui.desktop.Desktop;
 import org.eclipsescout.demo.bahbah.client.ui.desktop.outlines.pages.UserNodePage;
-import org.eclipsescout.demo.bahbah.shared.notification.RefreshBuddiesNotification;
+import org.eclipsescout.demo.bahbah.shared.notification.PresenceDeltaNotification;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class RefreshBuddiesNotificationHandler implements INotificationHandler<RefreshBuddiesNotification> {
-  private static final Logger LOG = LoggerFactory.getLogger(RefreshBuddiesNotificationHandler.class);
+public class PresenceDeltaNotificationHandler implements INotificationHandler<PresenceDeltaNotification> {
+  private static final Logger LOG = LoggerFactory.getLogger(PresenceDeltaNotificationHandler.class);
 
   @Override
-  public void handleNotification(RefreshBuddiesNotification notification) {
+  public void handleNotification(PresenceDeltaNotification notification) {
     ModelJobs.schedule(() -> {
       UserNodePage userPage = getUserNodePage();
 
       if (userPage != null) {
-        LOG.info("refreshing buddies on client");
-        userPage.updateBuddyPages();
+        LOG.debug("applying {} on client", notification);
+        userPage.applyPresenceDelta(notification);
       }
     }, ModelJobs.newInput(ClientRunContexts.copyCurrent()));
   }
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.client.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.scout.rt.platform.ApplicationScoped;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipsescout.demo.bahbah.shared.services.process.BuddyIcon;
+import org.eclipsescout.demo.bahbah.shared.services.process.IIconProcessService;
+
+/**
+ * Bounded LRU cache of buddy avatars, shared by all client sessions. An entry stays valid until a newer version of the
+ * avatar is announced by a {@link org.eclipsescout.demo.bahbah.shared.notification.BuddyIconChangedNotification}.
+ * <p>
+ * Users without avatar are cached with an empty {@link BuddyIcon}, unknown users with a sentinel entry, so neither is
+ * requested from the server again on every access.
+ */
+@ApplicationScoped
+public class BuddyAvatarCache {
+
+  public static final int MAX_ENTRIES = 1000;
+
+  /**
+   * Cached for user names the server does not know. Older than any announced version, so every invalidation clears it.
+   */
+  private static final BuddyIcon UNKNOWN_USER = new BuddyIcon(null, -1, null);
+
+  private final Map<String, BuddyIcon> m_icons = new LinkedHashMap<String, BuddyIcon>(16, 0.75f, true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Entry<String, BuddyIcon> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+
+  /**
+   * @return the avatar of the given user, loaded from the server if not cached. <code>null</code> if the user does not
+   *         exist.
+   */
+  public BuddyIcon get(String userName) {
+    synchronized (m_icons) {
+      BuddyIcon icon = m_icons.get(userName);
+      if (icon != null) {
+        return icon == UNKNOWN_USER ? null : icon;
+      }
+    }
+    prefetch(Collections.singleton(userName));
+    synchronized (m_icons) {
+      BuddyIcon icon = m_icons.get(userName);
+      return icon == UNKNOWN_USER ? null : icon;
+    }
+  }
+
+  /**
+   * Loads the avatars of the given users that are not cached yet with one server call.
+   */
+  public void prefetch(Collection<String> userNames) {
+    List<String> missing = new ArrayList<>();
+    synchronized (m_icons) {
+      for (String userName : userNames) {
+        if (!m_icons.containsKey(userName)) {
+          missing.add(userName);
+        }
+      }
+    }
+    if (missing.isEmpty()) {
+      return;
+    }
+
+    Map<String, BuddyIcon> icons = BEANS.get(IIconProcessService.class).loadIcons(missing);
+    synchronized (m_icons) {
+      for (String userName : missing) {
+        BuddyIcon icon = icons.get(userName);
+        if (icon != null) {
+          putIfNewer(icon);
+        }
+        else if (!m_icons.containsKey(userName)) {
+          m_icons.put(userName, UNKNOWN_USER);
+        }
+      }
+    }
+  }
+
+  /**
+   * Drops the cached avatar of the given user if it is older than the given version. A cached unknown user is always
+   * dropped.
+   */
+  public void invalidate(String userName, long version) {
+    synchronized (m_icons) {
+      BuddyIcon icon = m_icons.get(userName);
+      if (icon != null && icon.getVersion() < version) {
+        m_icons.remove(userName);
+      }
+    }
+  }
+
+  /**
+   * Drops the cached unknown user entries of the given users, e.g. because they are online and thus exist.
+   */
+  public void forgetUnknown(Collection<String> userNames) {
+    synchronized (m_icons) {
+      for (String userName : userNames) {
+        m_icons.remove(userName, UNKNOWN_USER);
+      }
+    }
+  }
+
+  private void putIfNewer(BuddyIcon icon) {
+    BuddyIcon cached = m_icons.get(icon.getUserName());
+    if (cached == null || cached.getVersion() < icon.getVersion()) {
+      m_icons.put(icon.getUserName(), icon);
+    }
+  }
+}
@@ -16,7 +16,7 @@ import org.eclipse.scout.rt.client.services.common.icon.IconSpec;
 import org.eclipse.scout.rt.platform.BEANS;
 import org.eclipse.scout.rt.platform.Order;
 import org.eclipsescout.demo.bahbah.client.ClientSession;
-import org.eclipsescout.demo.bahbah.shared.services.process.IIconProcessService;
+import org.eclipsescout.demo.bahbah.shared.services.process.BuddyIcon;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,8 +61,8 @@ public class BuddyAvatarIconProviderService implements IIconProviderService {
   protected IconSpec loadBuddyAvatarIconSpec(String m_iconName) {
     try {
       if (ClientSession.get() != null) {
-        byte[] data = BEANS.get(IIconProcessService.class).loadIcon(m_iconName);
-        return new IconSpec(m_iconName, data);
+        BuddyIcon icon = BEANS.get(BuddyAvatarCache.class).get(m_iconName);
+        return new IconSpec(m_iconName, icon == null ? null : icon.getContent());
       }
     }
     catch (RuntimeException e) {
@@ -12,29 +12,40 @@ package org.eclipsescout.demo.bahbah.client.ui.desktop.outlines.pages;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.scout.rt.client.ui.action.menu.AbstractMenu;
 import org.eclipse.scout.rt.client.ui.basic.cell.Cell;
-import org.eclipse.scout.rt.client.ui.basic.tree.ITreeNode;
 import org.eclipse.scout.rt.client.ui.desktop.outline.pages.AbstractPageWithNodes;
 import org.eclipse.scout.rt.client.ui.desktop.outline.pages.IPage;
 import org.eclipse.scout.rt.platform.BEANS;
 import org.eclipse.scout.rt.platform.Order;
 import org.eclipse.scout.rt.platform.text.TEXTS;
+import org.eclipse.scout.rt.platform.util.ObjectUtility;
 import org.eclipse.scout.rt.platform.util.StringUtility;
 import org.eclipse.scout.rt.shared.services.common.security.ACCESS;
 import org.eclipse.scout.rt.shared.ui.UserAgentUtility;
 import org.eclipsescout.demo.bahbah.client.ClientSession;
+import org.eclipsescout.demo.bahbah.client.services.BuddyAvatarCache;
 import org.eclipsescout.demo.bahbah.client.services.BuddyAvatarIconProviderService;
 import org.eclipsescout.demo.bahbah.client.ui.forms.ChatForm;
 import org.eclipsescout.demo.bahbah.client.ui.forms.IconChooserForm;
+import org.eclipsescout.demo.bahbah.shared.notification.PresenceDeltaNotification;
 import org.eclipsescout.demo.bahbah.shared.security.UpdateIconPermission;
 import org.eclipsescout.demo.bahbah.shared.services.outline.IStandardOutlineService;
+import org.eclipsescout.demo.bahbah.shared.services.outline.PresenceSnapshot;
 
 public class UserNodePage extends AbstractPageWithNodes {
 
+  private final Map<String, BuddyNodePage> m_buddyPages = new HashMap<>();
+  private String m_presenceNodeId;
+  private long m_presenceSequence;
+
   @Override
   protected boolean getConfiguredExpanded() {
     return true;
@@ -61,57 +72,129 @@ public class UserNodePage extends AbstractPageWithNodes {
   }
 
   public ChatForm getChatForm(String buddy) {
+    BuddyNodePage buddyPage = getBuddyPage(buddy);
+    return buddyPage == null ? null : buddyPage.getChatForm();
+  }
+
+  /**
+   * @return the page of the given online buddy or <code>null</code>
+   */
+  public BuddyNodePage getBuddyPage(String buddy) {
     if (StringUtility.isNullOrEmpty(buddy)) {
       return null;
     }
-
-    for (ITreeNode node : getChildNodes()) {
-      BuddyNodePage buddyNode = (BuddyNodePage) node;
-      if (buddyNode.getName().equals(buddy)) {
-        return buddyNode.getChatForm();
-      }
-    }
-    return null;
+    return m_buddyPages.get(buddy);
   }
 
   @Override
   protected void execCreateChildPages(List<IPage<?>> pageList) {
-    String[] buddies = BEANS.get(IStandardOutlineService.class).getOnlineUsers();
-    for (String buddy : buddies) {
-      BuddyNodePage buddyPage = new BuddyNodePage();
-      buddyPage.setName(buddy);
-      pageList.add(buddyPage);
+    PresenceSnapshot presence = BEANS.get(IStandardOutlineService.class).getOnlinePresence();
+    m_presenceNodeId = presence.getNodeId();
+    m_presenceSequence = presence.getSequence();
+    m_buddyPages.clear();
+    for (String buddy : presence.getUserIds()) {
+      pageList.add(registerBuddyPage(buddy));
     }
+    BuddyAvatarCache avatarCache = BEANS.get(BuddyAvatarCache.class);
+    avatarCache.forgetUnknown(m_buddyPages.keySet());
+    avatarCache.prefetch(m_buddyPages.keySet());
   }
 
+  /**
+   * Reloads the complete list of online buddies from the server.
+   */
   public void updateBuddyPages() {
-    HashSet<String> newBuddy = new HashSet<>();
-    ArrayList<String> updatedList = new ArrayList<>();
-    String[] buddies = BEANS.get(IStandardOutlineService.class).getOnlineUsers();
-
-    newBuddy.addAll(Arrays.asList(buddies));
+    PresenceSnapshot presence = BEANS.get(IStandardOutlineService.class).getOnlinePresence();
+    m_presenceNodeId = presence.getNodeId();
+    m_presenceSequence = presence.getSequence();
+
+    Set<String> buddies = new HashSet<>(Arrays.asList(presence.getUserIds()));
+    Set<String> leftBuddies = new HashSet<>(m_buddyPages.keySet());
+    leftBuddies.removeAll(buddies);
+    updateBuddyPages(buddies, leftBuddies);
+  }
 
-    // keep track of known buddies and remove buddies that are no longer here
-    List<IPage<?>> childPages = getChildPages();
-    for (IPage<?> page : childPages) {
-      BuddyNodePage buddyPage = (BuddyNodePage) page;
+  /**
+   * Applies the users that went online or offline. Falls back to a full reload if a notification was missed or the
+   * notification was numbered by another server node.
+   */
+  public void applyPresenceDelta(PresenceDeltaNotification delta) {
+    if (!ObjectUtility.equals(delta.getNodeId(), m_presenceNodeId)) {
+      updateBuddyPages();
+      return;
+    }
+    if (delta.getSequence() <= m_presenceSequence) {
+      // already contained in the loaded buddies
+      return;
+    }
+    if (delta.getSequence() > m_presenceSequence + 1) {
+      updateBuddyPages();
+      return;
+    }
+    m_presenceSequence = delta.getSequence();
+    updateBuddyPages(delta.getJoinedUserIds(), delta.getLeftUserIds());
+  }
 
-      if (newBuddy.contains(buddyPage.getName())) {
-        updatedList.add(buddyPage.getName());
+  /**
+   * Adds and removes the pages of the given buddies with one tree change each. The cost depends on the number of
+   * given buddies only, not on the number of buddies online.
+   */
+  protected void updateBuddyPages(Collection<String> joinedBuddies, Collection<String> leftBuddies) {
+    String myself = ClientSession.get().getUserId();
+
+    List<BuddyNodePage> removedPages = new ArrayList<>();
+    for (String buddy : leftBuddies) {
+      BuddyNodePage buddyPage = m_buddyPages.remove(buddy);
+      if (buddyPage != null) {
+        removedPages.add(buddyPage);
       }
-      else {
-        getTree().removeChildNode(this, buddyPage);
+    }
+
+    List<BuddyNodePage> addedPages = new ArrayList<>();
+    for (String buddy : joinedBuddies) {
+      if (!buddy.equals(myself) && !m_buddyPages.containsKey(buddy)) {
+        addedPages.add(registerBuddyPage(buddy));
       }
     }
 
-    // add new buddies
-    for (String buddy : newBuddy) {
-      if (!updatedList.contains(buddy)) {
-        BuddyNodePage buddyPage = new BuddyNodePage();
-        buddyPage.setName(buddy);
-        getTree().addChildNode(this, buddyPage);
+    if (removedPages.isEmpty() && addedPages.isEmpty()) {
+      return;
+    }
+    if (!addedPages.isEmpty()) {
+      prefetchAvatars(addedPages);
+    }
+    getTree().setTreeChanging(true);
+    try {
+      if (!removedPages.isEmpty()) {
+        getTree().removeChildNodes(this, removedPages);
+      }
+      if (!addedPages.isEmpty()) {
+        getTree().addChildNodes(this, addedPages);
       }
     }
+    finally {
+      getTree().setTreeChanging(false);
+    }
+  }
+
+  /**
+   * Loads the avatars of the given pages with one server call, before the tree asks for each icon.
+   */
+  protected void prefetchAvatars(List<BuddyNodePage> buddyPages) {
+    List<String> buddies = new ArrayList<>(buddyPages.size());
+    for (BuddyNodePage buddyPage : buddyPages) {
+      buddies.add(buddyPage.getName());
+    }
+    BuddyAvatarCache avatarCache = BEANS.get(BuddyAvatarCache.class);
+    avatarCache.forgetUnknown(buddies);
+    avatarCache.prefetch(buddies);
+  }
+
+  protected BuddyNodePage registerBuddyPage(String buddy) {
+    BuddyNodePage buddyPage = new BuddyNodePage();
+    buddyPage.setName(buddy);
+    m_buddyPages.put(buddy, buddyPage);
+    return buddyPage;
   }
 
   @Order(10)
@@ -10,15 +10,27 @@
  ******************************************************************************/
 package org.eclipsescout.demo.bahbah.client.ui.forms;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.eclipse.scout.rt.client.context.ClientRunContexts;
 import org.eclipse.scout.rt.client.dto.FormData;
 import org.eclipse.scout.rt.client.dto.FormData.SdkCommand;
+import org.eclipse.scout.rt.client.job.ModelJobs;
 import org.eclipse.scout.rt.client.ui.action.keystroke.AbstractKeyStroke;
+import org.eclipse.scout.rt.client.ui.action.menu.AbstractMenu;
+import org.eclipse.scout.rt.client.ui.action.menu.IMenuType;
+import org.eclipse.scout.rt.client.ui.action.menu.TableMenuType;
 import org.eclipse.scout.rt.client.ui.basic.cell.Cell;
 import org.eclipse.scout.rt.client.ui.basic.table.AbstractTable;
 import org.eclipse.scout.rt.client.ui.basic.table.ITableRow;
 import org.eclipse.scout.rt.client.ui.basic.table.columns.AbstractIntegerColumn;
+import org.eclipse.scout.rt.client.ui.basic.table.columns.AbstractLongColumn;
 import org.eclipse.scout.rt.client.ui.basic.table.columns.AbstractStringColumn;
 import org.eclipse.scout.rt.client.ui.basic.table.columns.AbstractTimeColumn;
 import org.eclipse.scout.rt.client.ui.basic.table.columns.IColumn;
@@ -29,18 +41,27 @@ import org.eclipse.scout.rt.client.ui.form.fields.stringfield.AbstractStringFiel
 import org.eclipse.scout.rt.client.ui.form.fields.tablefield.AbstractTableField;
 import org.eclipse.scout.rt.platform.BEANS;
 import org.eclipse.scout.rt.platform.Order;
+import org.eclipse.scout.rt.platform.config.CONFIG;
 import org.eclipse.scout.rt.platform.text.TEXTS;
+import org.eclipse.scout.rt.platform.util.CollectionUtility;
 import org.eclipse.scout.rt.platform.util.StringUtility;
 import org.eclipse.scout.rt.shared.data.basic.FontSpec;
+import org.eclipsescout.demo.bahbah.client.ConfigProperties.ChatHistoryWindowSizeProperty;
 import org.eclipsescout.demo.bahbah.client.services.BuddyAvatarIconProviderService;
 import org.eclipsescout.demo.bahbah.client.ui.forms.ChatForm.MainBox.HistoryField;
 import org.eclipsescout.demo.bahbah.client.ui.forms.ChatForm.MainBox.HistoryField.Table;
 import org.eclipsescout.demo.bahbah.client.ui.forms.ChatForm.MainBox.MessageField;
+import org.eclipsescout.demo.bahbah.shared.services.process.ChatMessage;
 import org.eclipsescout.demo.bahbah.shared.services.process.INotificationProcessService;
 
 @FormData(sdkCommand = SdkCommand.IGNORE)
 public class ChatForm extends AbstractForm {
 
+  /**
+   * Number of messages loaded at once when the chat is opened or older messages are requested.
+   */
+  public static final int HISTORY_PAGE_SIZE = 50;
+
   private String m_buddyName;
   private String m_userName;
 
@@ -118,8 +139,118 @@ public class ChatForm extends AbstractForm {
       private final Integer MESSAGE_TYPE_LOCAL = 1;
       private final Integer MESSAGE_TYPE_REMOTE = 2;
 
-      public void addMessage(boolean local, String sender, String receiver, Date date, String message) {
-        getTable().addRowByArray(new Object[]{(local ? MESSAGE_TYPE_LOCAL : MESSAGE_TYPE_REMOTE), sender, receiver, message, date});
+      private ChatHistoryWindow m_window;
+      private final List<ChatMessage> m_pendingMessages = new ArrayList<>();
+
+      @Override
+      protected void execInitField() {
+        m_window = new ChatHistoryWindow(CONFIG.getPropertyValue(ChatHistoryWindowSizeProperty.class));
+      }
+
+      public void addMessage(long offset, String sender, String receiver, Date date, String message) {
+        addMessage(new ChatMessage(offset, sender, receiver, date, message));
+      }
+
+      /**
+       * Queues the message. All messages queued until the next model job runs are added to the table at once.
+       */
+      public void addMessage(ChatMessage message) {
+        m_pendingMessages.add(message);
+        if (m_pendingMessages.size() == 1) {
+          ModelJobs.schedule(this::flushPendingMessages, ModelJobs.newInput(ClientRunContexts.copyCurrent()));
+        }
+      }
+
+      /**
+       * Replaces the shown messages with the latest page of the conversation.
+       */
+      public void reloadLatestMessages() {
+        List<ChatMessage> latest = BEANS.get(INotificationProcessService.class).loadHistory(getBuddyName(), INotificationProcessService.HISTORY_LATEST, HISTORY_PAGE_SIZE);
+        getTable().setTableChanging(true);
+        try {
+          m_window.clear();
+          getTable().deleteAllRows();
+          addMessages(latest, true);
+        }
+        finally {
+          getTable().setTableChanging(false);
+        }
+      }
+
+      /**
+       * Adds the page of messages before the oldest shown one. If the window is full, the newest messages are removed.
+       */
+      public void loadOlderMessages() {
+        long beforeOffset = m_window.isEmpty() ? INotificationProcessService.HISTORY_LATEST : m_window.getOldestOffset();
+        List<ChatMessage> older = new ArrayList<>(BEANS.get(INotificationProcessService.class).loadHistory(getBuddyName(), beforeOffset, HISTORY_PAGE_SIZE));
+        Collections.reverse(older);
+        addMessages(older, false);
+      }
+
+      /**
+       * Adds sent or received messages to the table at once.
+       */
+      public void addMessages(List<ChatMessage> messages) {
+        if (m_window.isLatestEvicted()) {
+          // the user went back in the history, the latest page contains the new messages
+          reloadLatestMessages();
+        }
+        else {
+          addMessages(messages, true);
+        }
+      }
+
+      protected void flushPendingMessages() {
+        List<ChatMessage> messages = new ArrayList<>(m_pendingMessages);
+        m_pendingMessages.clear();
+        addMessages(messages);
+      }
+
+      /**
+       * Adds the messages not shown yet with one row insertion and removes the rows of the messages evicted from the
+       * window.
+       *
+       * @param newer
+       *          <code>true</code> to evict the oldest messages (the messages are expected in ascending order),
+       *          <code>false</code> to evict the newest ones (descending order)
+       */
+      protected void addMessages(List<ChatMessage> messages, boolean newer) {
+        Map<Long, Object[]> newRows = new LinkedHashMap<>();
+        List<Long> evictedOffsets = new ArrayList<>();
+        for (ChatMessage message : messages) {
+          long offset = message.getOffset();
+          if (m_window.contains(offset)) {
+            continue;
+          }
+
+          long evicted = newer ? m_window.addNewer(offset) : m_window.addOlder(offset);
+          if (evicted == offset) {
+            // does not fit into the full window
+            continue;
+          }
+          if (evicted != ChatHistoryWindow.NONE && newRows.remove(evicted) == null) {
+            evictedOffsets.add(evicted);
+          }
+          newRows.put(offset, toRow(message));
+        }
+        if (newRows.isEmpty() && evictedOffsets.isEmpty()) {
+          return;
+        }
+
+        Table table = getTable();
+        table.setTableChanging(true);
+        try {
+          table.deleteRows(table.getOffsetColumn().findRows(evictedOffsets));
+          table.addRowsByMatrix(newRows.values().toArray(new Object[newRows.size()][]));
+        }
+        finally {
+          table.setTableChanging(false);
+        }
+      }
+
+      protected Object[] toRow(ChatMessage message) {
+        boolean local = StringUtility.equalsIgnoreCase(getUserName(), message.getSenderName());
+        return new Object[]{(local ? MESSAGE_TYPE_LOCAL : MESSAGE_TYPE_REMOTE), message.getSenderName(), message.getReceiverName(), message.getMessage(), message.getDate(), message.getOffset()};
       }
 
       @Override
@@ -129,6 +260,25 @@ public class ChatForm extends AbstractForm {
 
       public class Table extends AbstractTable {
 
+        @Order(10)
+        public class LoadOlderMessagesMenu extends AbstractMenu {
+
+          @Override
+          protected String getConfiguredText() {
+            return TEXTS.get("LoadOlderMessages");
+          }
+
+          @Override
+          protected Set<? extends IMenuType> getConfiguredMenuTypes() {
+            return CollectionUtility.hashSet(TableMenuType.EmptySpace);
+          }
+
+          @Override
+          protected void execAction() {
+            loadOlderMessages();
+          }
+        }
+
         @Override
         protected boolean getConfiguredMultilineText() {
           return true;
@@ -150,6 +300,10 @@ public class ChatForm extends AbstractForm {
           }
         }
 
+        public OffsetColumn getOffsetColumn() {
+          return getColumnSet().getColumnByClass(OffsetColumn.class);
+        }
+
         public TimeColumn getTimeColumn() {
           return getColumnSet().getColumnByClass(TimeColumn.class);
         }
@@ -254,6 +408,20 @@ public class ChatForm extends AbstractForm {
             return 0;
           }
         }
+
+        @Order(60)
+        public class OffsetColumn extends AbstractLongColumn {
+
+          @Override
+          protected boolean getConfiguredDisplayable() {
+            return false;
+          }
+
+          @Override
+          protected boolean getConfiguredVisible() {
+            return false;
+          }
+        }
       }
     }
 
@@ -271,10 +439,10 @@ public class ChatForm extends AbstractForm {
 
         if (!StringUtility.isNullOrEmpty(message)) {
           // send message to server
-          BEANS.get(INotificationProcessService.class).sendMessage(getBuddyName(), message);
+          ChatMessage sent = BEANS.get(INotificationProcessService.class).sendMessage(getBuddyName(), message);
           // update local chat history
 
-          getHistoryField().addMessage(true, getUserName(), getBuddyName(), new Date(), message);
+          getHistoryField().addMessage(sent);
         }
         getMessageField().setValue(null);
       }
@@ -282,5 +450,11 @@ public class ChatForm extends AbstractForm {
   }
 
   public class NewHandler extends AbstractFormHandler {
+
+    @Override
+    protected void execLoad() {
+      // show the latest messages of earlier sessions
+      getHistoryField().reloadLatestMessages();
+    }
   }
 }
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.client.ui.forms;
+
+/**
+ * Ring buffer of the chat log offsets of the messages shown in a {@link ChatForm}, in ascending order.
+ * <p>
+ * The window holds at most <code>capacity</code> offsets. Adding a newer message to a full window evicts the oldest
+ * one, adding an older message evicts the newest one. Not thread safe, it is only used by the model thread.
+ */
+public class ChatHistoryWindow {
+
+  public static final long NONE = -1;
+
+  private final long[] m_offsets;
+  private int m_head;
+  private int m_size;
+  private boolean m_latestEvicted;
+
+  public ChatHistoryWindow(int capacity) {
+    m_offsets = new long[capacity];
+  }
+
+  public int getCapacity() {
+    return m_offsets.length;
+  }
+
+  public int size() {
+    return m_size;
+  }
+
+  public boolean isEmpty() {
+    return m_size == 0;
+  }
+
+  /**
+   * @return {@link #NONE} if the window is empty
+   */
+  public long getOldestOffset() {
+    return isEmpty() ? NONE : get(0);
+  }
+
+  /**
+   * @return {@link #NONE} if the window is empty
+   */
+  public long getNewestOffset() {
+    return isEmpty() ? NONE : get(m_size - 1);
+  }
+
+  /**
+   * @return <code>true</code> if newer messages were evicted to make room for older ones, i.e. the window no longer
+   *         ends with the latest message
+   */
+  public boolean isLatestEvicted() {
+    return m_latestEvicted;
+  }
+
+  public boolean contains(long offset) {
+    return indexOf(offset) >= 0;
+  }
+
+  /**
+   * Adds a message, evicting the oldest one if the window is full.
+   *
+   * @return the evicted offset, the given offset if it is older than all messages of a full window (and therefore not
+   *         added) or {@link #NONE}
+   */
+  public long addNewer(long offset) {
+    int pos = indexOf(offset);
+    if (pos >= 0) {
+      return NONE;
+    }
+    pos = -pos - 1;
+
+    long evicted = NONE;
+    if (m_size == m_offsets.length) {
+      if (pos == 0) {
+        return offset;
+      }
+      evicted = get(0);
+      m_head = (m_head + 1) % m_offsets.length;
+      m_size--;
+      pos--;
+    }
+    insert(pos, offset);
+    return evicted;
+  }
+
+  /**
+   * Adds a message, evicting the newest one if the window is full.
+   *
+   * @return the evicted offset, the given offset if it is newer than all messages of a full window (and therefore not
+   *         added) or {@link #NONE}
+   */
+  public long addOlder(long offset) {
+    int pos = indexOf(offset);
+    if (pos >= 0) {
+      return NONE;
+    }
+    pos = -pos - 1;
+
+    long evicted = NONE;
+    if (m_size == m_offsets.length) {
+      if (pos == m_size) {
+        return offset;
+      }
+      evicted = get(m_size - 1);
+      m_size--;
+      m_latestEvicted = true;
+    }
+    insert(pos, offset);
+    return evicted;
+  }
+
+  public void clear() {
+    m_head = 0;
+    m_size = 0;
+    m_latestEvicted = false;
+  }
+
+  /**
+   * @return the position of the offset, or <code>-(insertion point) - 1</code> if not contained
+   */
+  protected int indexOf(long offset) {
+    int low = 0;
+    int high = m_size - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      long midOffset = get(mid);
+      if (midOffset < offset) {
+        low = mid + 1;
+      }
+      else if (midOffset > offset) {
+        high = mid - 1;
+      }
+      else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  private void insert(int pos, long offset) {
+    // move the shorter part: messages usually arrive at one of the ends
+    if (pos < m_size / 2) {
+      m_head = (m_head - 1 + m_offsets.length) % m_offsets.length;
+      for (int i = 0; i < pos; i++) {
+        set(i, get(i + 1));
+      }
+    }
+    else {
+      for (int i = m_size; i > pos; i--) {
+        set(i, get(i - 1));
+      }
+    }
+    set(pos, offset);
+    m_size++;
+  }
+
+  private long get(int index) {
+    return m_offsets[(m_head + index) % m_offsets.length];
+  }
+
+  private void set(int index, long offset) {
+    m_offsets[(m_head + index) % m_offsets.length] = offset;
+  }
+}
@@ -35,6 +35,7 @@ public class MySqlDbSetupService implements IDbSetupService {
           + " pass VARCHAR(1024) NOT NULL, "
           + " salt VARCHAR(64) NOT NULL, "
           + " permission_id INT NOT NULL, "
+          + " icon_version BIGINT DEFAULT 0 NOT NULL, "
           + " icon BLOB, "
           + " PRIMARY KEY (u_id)"
           + ")");
@@ -47,7 +48,22 @@ public class MySqlDbSetupService implements IDbSetupService {
       UserUtility.createNewUser("admin", "admin".toCharArray(), AdministratorCode.ID);
       SQL.commit();
     }
+    else if (!getExistingColumns("TABUSERS").contains("icon_version")) {
+      // schema created by an older version
+      SQL.insert(" ALTER TABLE TABUSERS ADD COLUMN icon_version BIGINT DEFAULT 0 NOT NULL ");
+      SQL.commit();
+    }
 
+    if (!existingTables.contains("tabusericons")) {
+      // renditions of the user icons, see IconRenditionProcessor
+      SQL.insert(" CREATE TABLE TABUSERICONS ("
+          + " username VARCHAR(32) NOT NULL, "
+          + " icon_size INT NOT NULL, "
+          + " icon BLOB NOT NULL, "
+          + " CONSTRAINT USERICONS_PK PRIMARY KEY (username, icon_size) "
+          + ")");
+      SQL.commit();
+    }
   }
 
   private Set<String> getExistingTables() {
@@ -58,4 +74,13 @@ public class MySqlDbSetupService implements IDbSetupService {
     }
     return result;
   }
+
+  private Set<String> getExistingColumns(String table) {
+    Object[][] existingColumns = SQL.select("SHOW COLUMNS FROM " + table);
+    HashSet<String> result = new HashSet<>(existingColumns.length);
+    for (Object[] row : existingColumns) {
+      result.add(row[0] + "");
+    }
+    return result;
+  }
 }
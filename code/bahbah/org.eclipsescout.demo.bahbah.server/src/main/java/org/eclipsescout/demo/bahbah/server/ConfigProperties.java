@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.server;
+
+import java.io.File;
+
+import org.eclipse.scout.rt.platform.config.AbstractPositiveIntegerConfigProperty;
+import org.eclipse.scout.rt.platform.config.AbstractPositiveLongConfigProperty;
+import org.eclipse.scout.rt.platform.config.AbstractStringConfigProperty;
+
+public final class ConfigProperties {
+
+  private ConfigProperties() {
+  }
+
+  public static class ChatLogDirectoryProperty extends AbstractStringConfigProperty {
+
+    @Override
+    public String getDefaultValue() {
+      return new File(System.getProperty("java.io.tmpdir"), "bahbah-chat-log").getAbsolutePath();
+    }
+
+    @Override
+    public String getKey() {
+      return "bahbah.chatLog.directory";
+    }
+
+    @Override
+    public String description() {
+      return "Directory of the chat log segments and conversation indexes. The chat log supports a single server node only. The default value is the folder 'bahbah-chat-log' in the temp directory.";
+    }
+  }
+
+  public static class ChatLogSegmentSizeProperty extends AbstractPositiveLongConfigProperty {
+
+    @Override
+    public Long getDefaultValue() {
+      return 64L * 1024 * 1024;
+    }
+
+    @Override
+    public String getKey() {
+      return "bahbah.chatLog.segmentSize";
+    }
+
+    @Override
+    public String description() {
+      return "Size in bytes after which a new chat log segment file is started. The default value is 64 MB.";
+    }
+  }
+
+  public static class MessageBatchWindowProperty extends AbstractPositiveLongConfigProperty {
+
+    @Override
+    public Long getDefaultValue() {
+      return 50L;
+    }
+
+    @Override
+    public String getKey() {
+      return "bahbah.chat.messageBatchWindow";
+    }
+
+    @Override
+    public String description() {
+      return "Time in milliseconds chat messages are collected before they are sent to their recipients as one notification. The default value is 50.";
+    }
+  }
+
+  public static class MessageBatchMaxSizeProperty extends AbstractPositiveIntegerConfigProperty {
+
+    @Override
+    public Integer getDefaultValue() {
+      return 100;
+    }
+
+    @Override
+    public String getKey() {
+      return "bahbah.chat.messageBatchMaxSize";
+    }
+
+    @Override
+    public String description() {
+      return "Number of chat messages to a recipient after which they are sent without waiting for the end of the batch window. The default value is 100.";
+    }
+  }
+
+  public static class PasswordHashThreadsProperty extends AbstractPositiveIntegerConfigProperty {
+
+    @Override
+    public Integer getDefaultValue() {
+      return Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public String getKey() {
+      return "bahbah.auth.hashThreads";
+    }
+
+    @Override
+    public String description() {
+      return "Maximum number of passwords hashed in parallel. The default value is the number of processors.";
+    }
+  }
+
+  public static class PasswordHashQueueSizeProperty extends AbstractPositiveIntegerConfigProperty {
+
+    @Override
+    public Integer getDefaultValue() {
+      return 50;
+    }
+
+    @Override
+    public String getKey() {
+      return "bahbah.auth.hashQueueSize";
+    }
+
+    @Override
+    public String description() {
+      return "Maximum number of password hashes waiting or running. Further logins are rejected until the queue drained. The default value is 50.";
+    }
+  }
+
+  public static class AuthTokenTtlProperty extends AbstractPositiveLongConfigProperty {
+
+    @Override
+    public Long getDefaultValue() {
+      return 300L;
+    }
+
+    @Override
+    public String getKey() {
+      return "bahbah.auth.tokenTtl";
+    }
+
+    @Override
+    public String description() {
+      return "Time in seconds an auth token issued after a successful login is accepted instead of the password. The default value is 300.";
+    }
+  }
+
+  public static class PresenceHeartbeatIntervalProperty extends AbstractPositiveLongConfigProperty {
+
+    @Override
+    public Long getDefaultValue() {
+      return 5000L;
+    }
+
+    @Override
+    public String getKey() {
+      return "bahbah.presence.heartbeatInterval";
+    }
+
+    @Override
+    public String description() {
+      return "Interval in milliseconds in which each cluster node publishes the changes of its online users. A node not heard of for three intervals is considered down. The default value is 5000.";
+    }
+  }
+}
@@ -23,7 +23,9 @@ import org.eclipse.scout.rt.platform.security.SimplePrincipal;
 import org.eclipse.scout.rt.server.context.ServerRunContext;
 import org.eclipse.scout.rt.server.context.ServerRunContexts;
 import org.eclipse.scout.rt.server.session.ServerSessionProviderWithCache;
+import org.eclipsescout.demo.bahbah.server.services.custom.security.UserRoleCache;
 import org.eclipsescout.demo.bahbah.server.services.db.IDbSetupService;
+import org.eclipsescout.demo.bahbah.server.services.presence.ClusterPresenceSync;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,12 +48,17 @@ public class ServerApplication implements IPlatformListener {
         ServerRunContext runContext = ServerRunContexts.empty();
         runContext.withSubject(s_subject);
         runContext.withSession(BEANS.get(ServerSessionProviderWithCache.class).provide(runContext.copy()));
-        runContext.run(() -> BEANS.get(IDbSetupService.class).installDb(), DefaultExceptionTranslator.class);
+        runContext.run(() -> {
+          BEANS.get(IDbSetupService.class).installDb();
+          // sessions are created without loading the role of their user
+          BEANS.get(UserRoleCache.class).reload();
+        }, DefaultExceptionTranslator.class);
       }
       catch (Exception e) {
         throw new PlatformException("Unable to start server application.", e);
       }
 
+      BEANS.get(ClusterPresenceSync.class).start();
       LOG.info("bahbah server initialized");
     }
   }
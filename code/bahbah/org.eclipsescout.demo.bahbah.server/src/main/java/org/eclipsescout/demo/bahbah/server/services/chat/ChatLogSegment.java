@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.server.services.chat;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A file of the chat log. Records are appended sequentially as <code>[int length][payload]</code> and read through a
+ * read-only memory mapping. The mapping is replaced by a larger one only when the segment has doubled its size since
+ * it was mapped, records behind the mapped region are read from the channel until then. So a segment is mapped a
+ * logarithmic number of times, and the superseded mappings are released by the garbage collector.
+ */
+class ChatLogSegment {
+
+  private static final int LENGTH_BYTES = Integer.BYTES;
+  private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+  private final File m_file;
+  private final long m_baseOffset;
+  private final FileChannel m_channel;
+  private volatile long m_size;
+  private MappedByteBuffer m_mapping;
+
+  ChatLogSegment(File file, long baseOffset) throws IOException {
+    m_file = file;
+    m_baseOffset = baseOffset;
+    m_channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    m_size = m_channel.size();
+  }
+
+  File getFile() {
+    return m_file;
+  }
+
+  long getBaseOffset() {
+    return m_baseOffset;
+  }
+
+  long size() {
+    return m_size;
+  }
+
+  /**
+   * @return offset just behind the last record of this segment
+   */
+  long getEndOffset() {
+    return m_baseOffset + m_size;
+  }
+
+  /**
+   * Appends the record. Not thread safe, callers must serialize writes.
+   *
+   * @return offset of the record
+   */
+  long append(byte[] payload) throws IOException {
+    long position = m_size;
+    ByteBuffer buf = ByteBuffer.allocate(LENGTH_BYTES + payload.length);
+    buf.putInt(payload.length).put(payload).flip();
+    long writePosition = position;
+    while (buf.hasRemaining()) {
+      writePosition += m_channel.write(buf, writePosition);
+    }
+    m_size = writePosition;
+    return m_baseOffset + position;
+  }
+
+  /**
+   * @return payload of the record at the given offset or <code>null</code> if there is no complete record
+   */
+  byte[] read(long offset) throws IOException {
+    long position = offset - m_baseOffset;
+    long size = m_size;
+    if (position < 0 || position + LENGTH_BYTES > size) {
+      return null;
+    }
+
+    int length = readRegion(position, LENGTH_BYTES, size).getInt();
+    if (length < 0 || position + LENGTH_BYTES + length > size) {
+      return null;
+    }
+    byte[] payload = new byte[length];
+    readRegion(position + LENGTH_BYTES, length, size).get(payload);
+    return payload;
+  }
+
+  /**
+   * Cuts off a partially written record at the end of the segment, as left behind by a crash while appending.
+   *
+   * @return number of bytes removed
+   */
+  long recover() throws IOException {
+    long size = m_channel.size();
+    long position = 0;
+    ByteBuffer lengthBuf = ByteBuffer.allocate(LENGTH_BYTES);
+    while (position + LENGTH_BYTES <= size) {
+      lengthBuf.clear();
+      while (lengthBuf.hasRemaining() && m_channel.read(lengthBuf, position + lengthBuf.position()) >= 0) {
+        // read the full length field
+      }
+      int length = lengthBuf.getInt(0);
+      if (length < 0 || position + LENGTH_BYTES + length > size) {
+        break;
+      }
+      position += LENGTH_BYTES + length;
+    }
+
+    if (position < size) {
+      m_channel.truncate(position);
+    }
+    m_size = position;
+    return size - position;
+  }
+
+  void close() throws IOException {
+    synchronized (this) {
+      m_mapping = null;
+    }
+    m_channel.close();
+  }
+
+  /**
+   * @return buffer positioned at the given region, a view of the mapping if it covers the region or a copy read from
+   *         the channel otherwise
+   */
+  private ByteBuffer readRegion(long position, int length, long size) throws IOException {
+    ByteBuffer mapping = getMapping(size);
+    if (position + length <= mapping.capacity()) {
+      mapping.position((int) position);
+      return mapping;
+    }
+
+    ByteBuffer buf = ByteBuffer.allocate(length);
+    while (buf.hasRemaining()) {
+      if (m_channel.read(buf, position + buf.position()) < 0) {
+        throw new EOFException("Unexpected end of " + m_file);
+      }
+    }
+    buf.flip();
+    return buf;
+  }
+
+  /**
+   * @return a private view of the current mapping, which is replaced if the segment has at least doubled its size
+   *         since it was mapped
+   */
+  private synchronized ByteBuffer getMapping(long size) throws IOException {
+    long mapped = m_mapping == null ? 0 : m_mapping.capacity();
+    if (size > mapped && size >= 2 * mapped) {
+      m_mapping = m_channel.map(MapMode.READ_ONLY, 0, size);
+    }
+    return m_mapping == null ? EMPTY.duplicate() : m_mapping.duplicate();
+  }
+}
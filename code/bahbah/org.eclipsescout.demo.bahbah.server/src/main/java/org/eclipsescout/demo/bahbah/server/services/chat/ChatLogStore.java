@@ -0,0 +1,373 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.server.services.chat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.annotation.PostConstruct;
+
+import org.eclipse.scout.rt.platform.ApplicationScoped;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.platform.config.CONFIG;
+import org.eclipse.scout.rt.platform.exception.PlatformException;
+import org.eclipse.scout.rt.platform.exception.ProcessingException;
+import org.eclipse.scout.rt.platform.util.Base64Utility;
+import org.eclipse.scout.rt.platform.util.StringUtility;
+import org.eclipse.scout.rt.server.services.common.clustersync.IClusterSynchronizationService;
+import org.eclipsescout.demo.bahbah.server.ConfigProperties.ChatLogDirectoryProperty;
+import org.eclipsescout.demo.bahbah.server.ConfigProperties.ChatLogSegmentSizeProperty;
+import org.eclipsescout.demo.bahbah.shared.services.process.ChatMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only store of all chat messages.
+ * <p>
+ * Messages are written sequentially to segment files, each named by the offset of its first record. For every
+ * conversation an index file holds the offsets of its messages in ascending order, so a page of history is found by a
+ * binary search in the memory mapped index and read from the memory mapped segments. Nothing but the open file handles
+ * is kept in memory.
+ * <p>
+ * The offsets identify the messages and order them in the chat form. They are local to the files of this node, so the
+ * store supports a single server node only. In a cluster every node would assign its own offsets and keep only the
+ * messages sent through it.
+ */
+@ApplicationScoped
+public class ChatLogStore {
+  private static final Logger LOG = LoggerFactory.getLogger(ChatLogStore.class);
+
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final String INDEX_SUFFIX = ".idx";
+  private static final int MAX_OPEN_INDEXES = 64;
+
+  private final Object m_writeLock = new Object();
+  private final ConcurrentNavigableMap<Long, ChatLogSegment> m_segments = new ConcurrentSkipListMap<>();
+  private final Map<String, FileChannel> m_openIndexes = new LinkedHashMap<String, FileChannel>(16, 0.75f, true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Entry<String, FileChannel> eldest) {
+      if (size() <= MAX_OPEN_INDEXES) {
+        return false;
+      }
+      closeQuietly(eldest.getValue());
+      return true;
+    }
+  };
+
+  private File m_segmentDirectory;
+  private File m_indexDirectory;
+  private long m_segmentSize;
+  private volatile ChatLogSegment m_activeSegment;
+
+  @PostConstruct
+  protected void init() {
+    File root = new File(CONFIG.getPropertyValue(ChatLogDirectoryProperty.class));
+    m_segmentDirectory = new File(root, "segments");
+    m_indexDirectory = new File(root, "index");
+    m_segmentDirectory.mkdirs();
+    m_indexDirectory.mkdirs();
+    // records are addressed by int positions within the segment mapping
+    m_segmentSize = Math.min(CONFIG.getPropertyValue(ChatLogSegmentSizeProperty.class), Integer.MAX_VALUE);
+
+    try {
+      File[] files = m_segmentDirectory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+      if (files != null) {
+        for (File file : files) {
+          long baseOffset = Long.parseLong(file.getName().substring(0, file.getName().length() - SEGMENT_SUFFIX.length()));
+          m_segments.put(baseOffset, new ChatLogSegment(file, baseOffset));
+        }
+      }
+
+      if (m_segments.isEmpty()) {
+        m_activeSegment = createSegment(0);
+      }
+      else {
+        m_activeSegment = m_segments.lastEntry().getValue();
+        long removed = m_activeSegment.recover();
+        if (removed > 0) {
+          LOG.warn("Removed {} bytes of an incomplete record at the end of {}", removed, m_activeSegment.getFile());
+        }
+      }
+      truncateIndexes(m_activeSegment.getEndOffset());
+    }
+    catch (IOException | NumberFormatException e) {
+      throw new ProcessingException("Could not open the chat log in {}", root, e);
+    }
+    if (BEANS.get(IClusterSynchronizationService.class).isEnabled()) {
+      LOG.warn("The chat log in {} is local to this node, the chat history is incomplete in a cluster", root);
+    }
+    LOG.info("Chat log opened with {} segments, next offset {}", m_segments.size(), m_activeSegment.getEndOffset());
+  }
+
+  /**
+   * Removes the index entries at or beyond the end of the log. They point to records that were cut off by
+   * {@link ChatLogSegment#recover()} or lost otherwise, and would point to the wrong messages once new ones are
+   * appended at their offsets.
+   */
+  protected void truncateIndexes(long endOffset) throws IOException {
+    File[] files = m_indexDirectory.listFiles((dir, name) -> name.endsWith(INDEX_SUFFIX));
+    if (files == null) {
+      return;
+    }
+    ByteBuffer entry = ByteBuffer.allocate(Long.BYTES);
+    for (File file : files) {
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        // offsets are ascending, so only the last entries can be invalid
+        long size = channel.size() / Long.BYTES * Long.BYTES;
+        while (size > 0) {
+          entry.clear();
+          while (entry.hasRemaining() && channel.read(entry, size - Long.BYTES + entry.position()) >= 0) {
+            // read the full entry
+          }
+          if (entry.getLong(0) < endOffset) {
+            break;
+          }
+          size -= Long.BYTES;
+        }
+        if (size < channel.size()) {
+          LOG.warn("Removed {} bytes of invalid entries at the end of {}", channel.size() - size, file);
+          channel.truncate(size);
+        }
+      }
+    }
+  }
+
+  /**
+   * Appends a message to the log and to the index of the conversation between sender and receiver.
+   *
+   * @return the stored message with its offset
+   */
+  public ChatMessage append(String senderName, String receiverName, Date date, String message) {
+    byte[] payload = encode(senderName, receiverName, date, message);
+    synchronized (m_writeLock) {
+      try {
+        ChatLogSegment segment = m_activeSegment;
+        if (segment.size() > 0 && segment.size() + payload.length > m_segmentSize) {
+          segment = createSegment(segment.getEndOffset());
+          m_activeSegment = segment;
+        }
+
+        // the record is written before its index entry, so a listed offset always points to a complete record
+        long offset = segment.append(payload);
+        ByteBuffer entry = ByteBuffer.allocate(Long.BYTES);
+        entry.putLong(offset).flip();
+        FileChannel index = getIndexForWrite(getConversationKey(senderName, receiverName));
+        while (entry.hasRemaining()) {
+          index.write(entry);
+        }
+        return new ChatMessage(offset, senderName, receiverName, date, message);
+      }
+      catch (IOException e) {
+        throw new ProcessingException("Could not append to the chat log", e);
+      }
+    }
+  }
+
+  /**
+   * @param beforeOffset
+   *          only messages with a smaller offset are returned
+   * @param limit
+   *          maximum number of messages
+   * @return the latest messages of the conversation before the given offset, ordered from oldest to latest
+   */
+  public List<ChatMessage> loadHistory(String userName, String buddyName, long beforeOffset, int limit) {
+    if (limit <= 0) {
+      return Collections.emptyList();
+    }
+
+    File indexFile = new File(m_indexDirectory, getConversationKey(userName, buddyName) + INDEX_SUFFIX);
+    if (!indexFile.exists()) {
+      return Collections.emptyList();
+    }
+
+    try {
+      long[] offsets = readOffsets(indexFile, beforeOffset, limit);
+      List<ChatMessage> messages = new ArrayList<>(offsets.length);
+      for (long offset : offsets) {
+        ChatMessage message = read(offset, userName, buddyName);
+        if (message != null) {
+          messages.add(message);
+        }
+      }
+      return messages;
+    }
+    catch (IOException e) {
+      throw new ProcessingException("Could not read the chat history of {} and {}", userName, buddyName, e);
+    }
+  }
+
+  /**
+   * @return offset the next message will get
+   */
+  public long getEndOffset() {
+    return m_activeSegment.getEndOffset();
+  }
+
+  /**
+   * @return the message at the given offset or <code>null</code> if there is none or it does not belong to the
+   *         conversation of the given users
+   */
+  protected ChatMessage read(long offset, String userName, String buddyName) throws IOException {
+    Entry<Long, ChatLogSegment> segment = m_segments.floorEntry(offset);
+    if (segment == null) {
+      return null;
+    }
+    byte[] payload = segment.getValue().read(offset);
+    if (payload == null) {
+      return null;
+    }
+    ChatMessage message = decode(offset, payload);
+    if (!isConversation(message, userName, buddyName)) {
+      LOG.warn("Ignored chat log entry {} of another conversation", offset);
+      return null;
+    }
+    return message;
+  }
+
+  protected static boolean isConversation(ChatMessage message, String userName, String buddyName) {
+    return (StringUtility.equalsIgnoreCase(userName, message.getSenderName()) && StringUtility.equalsIgnoreCase(buddyName, message.getReceiverName()))
+        || (StringUtility.equalsIgnoreCase(buddyName, message.getSenderName()) && StringUtility.equalsIgnoreCase(userName, message.getReceiverName()));
+  }
+
+  /**
+   * @return up to <code>limit</code> of the largest offsets in the index that are smaller than
+   *         <code>beforeOffset</code>, in ascending order
+   */
+  protected long[] readOffsets(File indexFile, long beforeOffset, int limit) throws IOException {
+    try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+      // ignore a partially written entry
+      long count = channel.size() / Long.BYTES;
+      if (count == 0) {
+        return new long[0];
+      }
+      LongBuffer offsets = channel.map(MapMode.READ_ONLY, 0, count * Long.BYTES).asLongBuffer();
+
+      // index of the first offset >= beforeOffset
+      int low = 0;
+      int high = (int) count;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (offsets.get(mid) < beforeOffset) {
+          low = mid + 1;
+        }
+        else {
+          high = mid;
+        }
+      }
+
+      int from = Math.max(0, low - limit);
+      long[] result = new long[low - from];
+      offsets.position(from);
+      offsets.get(result);
+      return result;
+    }
+  }
+
+  protected ChatLogSegment createSegment(long baseOffset) throws IOException {
+    File file = new File(m_segmentDirectory, String.format("%020d%s", baseOffset, SEGMENT_SUFFIX));
+    ChatLogSegment segment = new ChatLogSegment(file, baseOffset);
+    m_segments.put(baseOffset, segment);
+    LOG.debug("Started chat log segment {}", file);
+    return segment;
+  }
+
+  /**
+   * Must be called holding the write lock.
+   */
+  protected FileChannel getIndexForWrite(String conversationKey) throws IOException {
+    FileChannel channel = m_openIndexes.get(conversationKey);
+    if (channel == null) {
+      File indexFile = new File(m_indexDirectory, conversationKey + INDEX_SUFFIX);
+      channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+      long alignedSize = channel.size() / Long.BYTES * Long.BYTES;
+      if (alignedSize < channel.size()) {
+        // partially written entry of a crash
+        channel.truncate(alignedSize);
+      }
+      m_openIndexes.put(conversationKey, channel);
+    }
+    return channel;
+  }
+
+  /**
+   * @return file name safe key of the conversation, independent of the order and the case of the participants
+   */
+  protected static String getConversationKey(String userName1, String userName2) {
+    // user names are case insensitive, see isConversation
+    String name1 = userName1.toUpperCase(Locale.ROOT);
+    String name2 = userName2.toUpperCase(Locale.ROOT);
+    String participants = name1.compareTo(name2) <= 0 ? name1 + '\n' + name2 : name2 + '\n' + name1;
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(participants.getBytes(StandardCharsets.UTF_8));
+      return Base64Utility.encodeUrlSafe(hash).replace("=", "");
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new PlatformException("SHA-256 not supported", e);
+    }
+  }
+
+  protected static byte[] encode(String senderName, String receiverName, Date date, String message) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + message.length());
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeLong(date.getTime());
+      out.writeUTF(senderName);
+      out.writeUTF(receiverName);
+      out.writeUTF(message);
+    }
+    catch (IOException e) {
+      throw new ProcessingException("Could not encode chat message", e);
+    }
+    return bytes.toByteArray();
+  }
+
+  protected static ChatMessage decode(long offset, byte[] payload) throws IOException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+      Date date = new Date(in.readLong());
+      String senderName = in.readUTF();
+      String receiverName = in.readUTF();
+      String message = in.readUTF();
+      return new ChatMessage(offset, senderName, receiverName, date, message);
+    }
+  }
+
+  private static void closeQuietly(FileChannel channel) {
+    try {
+      channel.close();
+    }
+    catch (IOException e) {
+      LOG.warn("Could not close chat log index", e);
+    }
+  }
+}
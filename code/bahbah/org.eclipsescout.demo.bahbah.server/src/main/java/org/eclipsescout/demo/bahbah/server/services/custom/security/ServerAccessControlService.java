@@ -10,7 +10,10 @@
  ******************************************************************************/
 package org.eclipsescout.demo.bahbah.server.services.custom.security;
 
+import java.security.PermissionCollection;
 import java.security.Permissions;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.eclipse.scout.rt.platform.Replace;
 import org.eclipse.scout.rt.shared.security.RemoteServiceAccessPermission;
@@ -20,6 +23,7 @@ import org.eclipsescout.demo.bahbah.server.ServerSession;
 import org.eclipsescout.demo.bahbah.shared.security.CreateNotificationPermission;
 import org.eclipsescout.demo.bahbah.shared.security.CreateUserPermission;
 import org.eclipsescout.demo.bahbah.shared.security.DeleteUserPermission;
+import org.eclipsescout.demo.bahbah.shared.security.ReadChatHistoryPermission;
 import org.eclipsescout.demo.bahbah.shared.security.ReadUsersPermission;
 import org.eclipsescout.demo.bahbah.shared.security.RegisterUserPermission;
 import org.eclipsescout.demo.bahbah.shared.security.ResetPasswordPermission;
@@ -33,17 +37,31 @@ import org.eclipsescout.demo.bahbah.shared.services.custom.security.AccessContro
 @Replace
 public class ServerAccessControlService extends AccessControlService {
 
+  private final ConcurrentMap<Integer, PermissionCollection> m_permissionsByRole = new ConcurrentHashMap<>();
+
   @Override
-  protected Permissions execLoadPermissions(String userId) {
+  protected PermissionCollection execLoadPermissions(String userId) {
+    ICode<Integer> permission = ServerSession.get().getPermission();
+    if (permission == null) {
+      return createPermissions(null);
+    }
+    // the permissions only depend on the role, they are built once per role and shared
+    return m_permissionsByRole.computeIfAbsent(permission.getId(), this::createPermissions);
+  }
+
+  /**
+   * @return read-only permissions of the given role
+   */
+  protected PermissionCollection createPermissions(Integer roleId) {
     Permissions permissions = new Permissions();
 
-    ICode<Integer> permission = ServerSession.get().getPermission();
-    if (permission != null) {
+    if (roleId != null) {
       // USERS
-      if (permission.getId() >= UserCode.ID) {
+      if (roleId >= UserCode.ID) {
         permissions.add(new RemoteServiceAccessPermission("*.shared.*", "*"));
 
         permissions.add(new CreateNotificationPermission());
+        permissions.add(new ReadChatHistoryPermission());
         permissions.add(new ReadUsersPermission());
         permissions.add(new RegisterUserPermission());
         permissions.add(new UnregisterUserPermission());
@@ -51,7 +69,7 @@ public class ServerAccessControlService extends AccessControlService {
       }
 
       // ADMIN
-      if (permission.getId() >= AdministratorCode.ID) {
+      if (roleId >= AdministratorCode.ID) {
         permissions.add(new CreateUserPermission());
         permissions.add(new DeleteUserPermission());
         permissions.add(new ResetPasswordPermission());
@@ -59,6 +77,7 @@ public class ServerAccessControlService extends AccessControlService {
         permissions.add(new UpdateServiceConfigurationPermission());
       }
     }
+    permissions.setReadOnly();
     return permissions;
   }
 }
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.server.services.custom.security;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.scout.rt.platform.ApplicationScoped;
+import org.eclipse.scout.rt.platform.holders.IntegerHolder;
+import org.eclipse.scout.rt.platform.holders.NVPair;
+import org.eclipse.scout.rt.platform.transaction.AbstractTransactionMember;
+import org.eclipse.scout.rt.platform.transaction.ITransaction;
+import org.eclipse.scout.rt.platform.util.TypeCastUtility;
+import org.eclipse.scout.rt.server.jdbc.SQL;
+import org.eclipsescout.demo.bahbah.shared.services.code.UserRoleCodeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Role (see {@link UserRoleCodeType}) of each user. All users are loaded at once by {@link #reload()}, users created
+ * later are loaded on first use. Changes are announced by a
+ * {@link org.eclipsescout.demo.bahbah.server.services.notification.UserRoleChangedNotification UserRoleChangedNotification}
+ * so the other cluster nodes drop their entries. The node that changed the roles drops its entries by
+ * {@link #invalidateTransactional(Collection)} once the change is committed.
+ */
+@ApplicationScoped
+public class UserRoleCache {
+  private static final Logger LOG = LoggerFactory.getLogger(UserRoleCache.class);
+
+  private static final String TRANSACTION_MEMBER_ID = UserRoleCache.class.getName();
+
+  private final ConcurrentMap<String, Integer> m_roleIds = new ConcurrentHashMap<>();
+  /**
+   * Incremented by every invalidation, so a role loaded before an invalidation is not cached after it
+   */
+  private final AtomicLong m_invalidationCount = new AtomicLong();
+
+  /**
+   * Loads the roles of all users. Must run within a server run context.
+   */
+  public void reload() {
+    Object[][] rows = SQL.select("SELECT username, permission_id FROM TABUSERS");
+    m_roleIds.clear();
+    for (Object[] row : rows) {
+      m_roleIds.put(toKey((String) row[0]), TypeCastUtility.castValue(row[1], Integer.class));
+    }
+    LOG.info("Loaded roles of {} users", rows.length);
+  }
+
+  /**
+   * @return the role of the user or <code>null</code> if there is no such user. Users not cached are loaded from the
+   *         database, which requires a server run context.
+   */
+  public Integer getRoleId(String userName) {
+    if (userName == null) {
+      return null;
+    }
+
+    String key = toKey(userName);
+    Integer roleId = m_roleIds.get(key);
+    if (roleId == null) {
+      long invalidationCount = m_invalidationCount.get();
+      IntegerHolder holder = new IntegerHolder();
+      SQL.selectInto("SELECT permission_id FROM TABUSERS WHERE UPPER(username) = UPPER(:username) INTO :permission",
+          new NVPair("username", userName),
+          new NVPair("permission", holder));
+      roleId = holder.getValue();
+      if (roleId != null) {
+        m_roleIds.put(key, roleId);
+        if (m_invalidationCount.get() != invalidationCount) {
+          // the loaded role may be outdated already
+          m_roleIds.remove(key, roleId);
+        }
+      }
+    }
+    return roleId;
+  }
+
+  /**
+   * Drops the given users. They are loaded again on next use.
+   */
+  public void invalidate(Collection<String> userNames) {
+    m_invalidationCount.incrementAndGet();
+    for (String userName : userNames) {
+      m_roleIds.remove(toKey(userName));
+    }
+  }
+
+  /**
+   * Drops the given users once the current transaction is committed, so a concurrent {@link #getRoleId(String)} cannot
+   * cache the role that is being replaced.
+   */
+  public void invalidateTransactional(Collection<String> userNames) {
+    ITransaction transaction = ITransaction.CURRENT.get();
+    if (transaction == null) {
+      invalidate(userNames);
+      return;
+    }
+
+    PendingInvalidationsMember member = (PendingInvalidationsMember) transaction.getMember(TRANSACTION_MEMBER_ID);
+    if (member == null) {
+      member = new PendingInvalidationsMember();
+      transaction.registerMember(member);
+    }
+    member.addAll(userNames);
+  }
+
+  protected static String toKey(String userName) {
+    return userName.toUpperCase(Locale.ROOT);
+  }
+
+  private class PendingInvalidationsMember extends AbstractTransactionMember {
+
+    private final Set<String> m_userNames = new LinkedHashSet<>();
+
+    PendingInvalidationsMember() {
+      super(TRANSACTION_MEMBER_ID);
+    }
+
+    void addAll(Collection<String> userNames) {
+      m_userNames.addAll(userNames);
+    }
+
+    @Override
+    public boolean needsCommit() {
+      return !m_userNames.isEmpty();
+    }
+
+    @Override
+    public boolean commitPhase1() {
+      return true;
+    }
+
+    @Override
+    public void commitPhase2() {
+      invalidate(m_userNames);
+      m_userNames.clear();
+    }
+
+    @Override
+    public void rollback() {
+      m_userNames.clear();
+    }
+  }
+}
@@ -13,6 +13,7 @@ package org.eclipsescout.demo.bahbah.server.services.db;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.eclipse.scout.rt.platform.holders.NVPair;
 import org.eclipse.scout.rt.server.jdbc.SQL;
 import org.eclipsescout.demo.bahbah.server.util.UserUtility;
 import org.eclipsescout.demo.bahbah.shared.services.code.UserRoleCodeType.AdministratorCode;
@@ -33,6 +34,7 @@ public class DerbyDbSetupService implements IDbSetupService {
           + " pass VARCHAR(256) NOT NULL, "
           + " salt VARCHAR(64) NOT NULL, "
           + " permission_id INT NOT NULL, "
+          + " icon_version BIGINT DEFAULT 0 NOT NULL, "
           + " icon BLOB "
           + ")");
       SQL.commit();
@@ -44,7 +46,22 @@ public class DerbyDbSetupService implements IDbSetupService {
       UserUtility.createNewUser("admin", "admin".toCharArray(), AdministratorCode.ID);
       SQL.commit();
     }
+    else if (!getExistingColumns("TABUSERS").contains("ICON_VERSION")) {
+      // schema created by an older version
+      SQL.insert(" ALTER TABLE TABUSERS ADD COLUMN icon_version BIGINT DEFAULT 0 NOT NULL ");
+      SQL.commit();
+    }
 
+    if (!existingTables.contains("TABUSERICONS")) {
+      // renditions of the user icons, see IconRenditionProcessor
+      SQL.insert(" CREATE TABLE TABUSERICONS ("
+          + " username VARCHAR(32) NOT NULL, "
+          + " icon_size INT NOT NULL, "
+          + " icon BLOB NOT NULL, "
+          + " CONSTRAINT USERICONS_PK PRIMARY KEY (username, icon_size) "
+          + ")");
+      SQL.commit();
+    }
   }
 
   private Set<String> getExistingTables() {
@@ -55,4 +72,14 @@ public class DerbyDbSetupService implements IDbSetupService {
     }
     return result;
   }
+
+  private Set<String> getExistingColumns(String table) {
+    Object[][] existingColumns = SQL.select("SELECT c.columnname FROM sys.syscolumns c, sys.systables t WHERE c.referenceid = t.tableid AND t.tablename = :table",
+        new NVPair("table", table));
+    HashSet<String> result = new HashSet<>(existingColumns.length);
+    for (Object[] row : existingColumns) {
+      result.add(row[0] + "");
+    }
+    return result;
+  }
 }
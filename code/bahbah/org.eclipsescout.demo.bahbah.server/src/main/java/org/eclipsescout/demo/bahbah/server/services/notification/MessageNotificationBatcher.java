@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.server.services.notification;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.scout.rt.platform.ApplicationScoped;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.platform.config.CONFIG;
+import org.eclipse.scout.rt.platform.context.NodeIdentifier;
+import org.eclipse.scout.rt.platform.job.Jobs;
+import org.eclipse.scout.rt.server.clientnotification.ClientNotificationRegistry;
+import org.eclipsescout.demo.bahbah.server.ConfigProperties.MessageBatchMaxSizeProperty;
+import org.eclipsescout.demo.bahbah.server.ConfigProperties.MessageBatchWindowProperty;
+import org.eclipsescout.demo.bahbah.shared.notification.MessageBatchNotification;
+import org.eclipsescout.demo.bahbah.shared.services.process.ChatMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the chat messages per recipient and sends them as one {@link MessageBatchNotification} per batch window. A
+ * burst of messages thereby results in one notification and one model job on the client instead of one per message.
+ */
+@ApplicationScoped
+public class MessageNotificationBatcher {
+  private static final Logger LOG = LoggerFactory.getLogger(MessageNotificationBatcher.class);
+
+  private final Map<String, PendingBatch> m_pendingBatches = new HashMap<>();
+  private boolean m_flushScheduled;
+
+  private final AtomicLong m_batchCount = new AtomicLong();
+  private final AtomicLong m_messageCount = new AtomicLong();
+  private final AtomicLong m_maxBatchSize = new AtomicLong();
+  private final AtomicLong m_queuedNanos = new AtomicLong();
+
+  public void messageSent(String recipient, ChatMessage message) {
+    MessageBatchNotification full = null;
+    synchronized (this) {
+      PendingBatch batch = m_pendingBatches.computeIfAbsent(recipient, k -> new PendingBatch());
+      batch.add(message);
+      if (batch.size() >= CONFIG.getPropertyValue(MessageBatchMaxSizeProperty.class)) {
+        m_pendingBatches.remove(recipient);
+        full = toNotification(batch);
+      }
+      else {
+        scheduleFlush();
+      }
+    }
+
+    if (full != null) {
+      send(recipient, full);
+    }
+  }
+
+  protected synchronized void scheduleFlush() {
+    if (m_flushScheduled) {
+      return;
+    }
+    m_flushScheduled = true;
+    Jobs.schedule(this::flush, Jobs.newInput()
+        .withName("Sending chat messages")
+        .withExecutionTrigger(Jobs.newExecutionTrigger()
+            .withStartIn(CONFIG.getPropertyValue(MessageBatchWindowProperty.class), TimeUnit.MILLISECONDS)));
+  }
+
+  protected void flush() {
+    Map<String, MessageBatchNotification> notifications = new HashMap<>();
+    synchronized (this) {
+      m_flushScheduled = false;
+      for (Entry<String, PendingBatch> entry : m_pendingBatches.entrySet()) {
+        notifications.put(entry.getKey(), toNotification(entry.getValue()));
+      }
+      m_pendingBatches.clear();
+    }
+
+    for (Entry<String, MessageBatchNotification> entry : notifications.entrySet()) {
+      send(entry.getKey(), entry.getValue());
+    }
+  }
+
+  protected void send(String recipient, MessageBatchNotification notification) {
+    LOG.debug("Sending {} to {}", notification, recipient);
+    BEANS.get(ClientNotificationRegistry.class).putForUser(recipient, notification);
+  }
+
+  protected MessageBatchNotification toNotification(PendingBatch batch) {
+    int size = batch.size();
+    m_batchCount.incrementAndGet();
+    m_messageCount.addAndGet(size);
+    m_maxBatchSize.accumulateAndGet(size, Math::max);
+    m_queuedNanos.addAndGet(size * System.nanoTime() - batch.m_queuedAtNanosSum);
+    return new MessageBatchNotification(batch.m_messages, BEANS.get(NodeIdentifier.class).get());
+  }
+
+  public long getBatchCount() {
+    return m_batchCount.get();
+  }
+
+  public long getMessageCount() {
+    return m_messageCount.get();
+  }
+
+  public long getMaxBatchSize() {
+    return m_maxBatchSize.get();
+  }
+
+  public double getAverageBatchSize() {
+    long batches = m_batchCount.get();
+    return batches == 0 ? 0 : m_messageCount.get() / (double) batches;
+  }
+
+  /**
+   * @return average time in milliseconds a message waited for its batch to be sent
+   */
+  public double getAverageQueuedMillis() {
+    long messages = m_messageCount.get();
+    return messages == 0 ? 0 : m_queuedNanos.get() / 1e6 / messages;
+  }
+
+  protected static class PendingBatch {
+
+    private final List<ChatMessage> m_messages = new ArrayList<>();
+    private long m_queuedAtNanosSum;
+
+    void add(ChatMessage message) {
+      m_messages.add(message);
+      m_queuedAtNanosSum += System.nanoTime();
+    }
+
+    int size() {
+      return m_messages.size();
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.server.services.notification;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scout.rt.platform.ApplicationScoped;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.platform.context.NodeIdentifier;
+import org.eclipse.scout.rt.platform.job.Jobs;
+import org.eclipse.scout.rt.server.clientnotification.ClientNotificationRegistry;
+import org.eclipsescout.demo.bahbah.server.services.presence.ClusterPresenceSync;
+import org.eclipsescout.demo.bahbah.shared.notification.PresenceDeltaNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the users going online or offline and sends them to all clients as one {@link PresenceDeltaNotification}
+ * per coalescing window. A wave of logins thereby results in a few notifications per client instead of one full
+ * reload of the buddy list per login.
+ * <p>
+ * The sequence numbers are local to this node, so the notifications are only sent to the sessions of this node. The
+ * changes of other nodes are fed in by {@link ClusterPresenceSync}.
+ */
+@ApplicationScoped
+public class PresenceNotificationCoalescer {
+  private static final Logger LOG = LoggerFactory.getLogger(PresenceNotificationCoalescer.class);
+
+  public static final long COALESCING_WINDOW_MILLIS = 500;
+
+  private final Set<String> m_joinedUserIds = new HashSet<>();
+  private final Set<String> m_leftUserIds = new HashSet<>();
+  private long m_sequence;
+  private boolean m_flushScheduled;
+
+  public synchronized void userJoined(String userId) {
+    // a user leaving and joining again within the window did not change
+    if (!m_leftUserIds.remove(userId)) {
+      m_joinedUserIds.add(userId);
+    }
+    scheduleFlush();
+  }
+
+  public synchronized void userLeft(String userId) {
+    if (!m_joinedUserIds.remove(userId)) {
+      m_leftUserIds.add(userId);
+    }
+    scheduleFlush();
+  }
+
+  /**
+   * @return sequence number of the last notification sent
+   */
+  public synchronized long getSequence() {
+    return m_sequence;
+  }
+
+  /**
+   * @return the node numbering the notifications
+   */
+  public String getNodeId() {
+    return BEANS.get(NodeIdentifier.class).get();
+  }
+
+  protected void scheduleFlush() {
+    if (m_flushScheduled) {
+      return;
+    }
+    m_flushScheduled = true;
+    Jobs.schedule(this::flush, Jobs.newInput()
+        .withName("Sending presence notification")
+        .withExecutionTrigger(Jobs.newExecutionTrigger()
+            .withStartIn(COALESCING_WINDOW_MILLIS, TimeUnit.MILLISECONDS)));
+  }
+
+  protected synchronized void flush() {
+    m_flushScheduled = false;
+    if (m_joinedUserIds.isEmpty() && m_leftUserIds.isEmpty()) {
+      return;
+    }
+
+    // sent while holding the lock, so the notifications are queued in sequence order
+    PresenceDeltaNotification notification = new PresenceDeltaNotification(getNodeId(), ++m_sequence, m_joinedUserIds, m_leftUserIds);
+    m_joinedUserIds.clear();
+    m_leftUserIds.clear();
+    LOG.debug("Sending {}", notification);
+    send(notification);
+  }
+
+  /**
+   * Sends the notification to the sessions of this node only. Other nodes number their own notifications.
+   */
+  protected void send(PresenceDeltaNotification notification) {
+    BEANS.get(ClientNotificationRegistry.class).putForAllSessions(notification, false);
+  }
+}
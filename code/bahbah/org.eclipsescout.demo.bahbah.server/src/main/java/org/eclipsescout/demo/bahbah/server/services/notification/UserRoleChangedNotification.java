@@ -11,18 +11,20 @@
 package org.eclipsescout.demo.bahbah.server.services.notification;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
-public class UnregisterUserNotification implements Serializable {
+public class UserRoleChangedNotification implements Serializable {
 
-  private static final long serialVersionUID = 5245312868353225657L;
-  private final String m_userName;
+  private static final long serialVersionUID = 1L;
+  private final List<String> m_userNames;
 
-  public UnregisterUserNotification(String username) {
-    m_userName = username;
+  public UserRoleChangedNotification(Collection<String> userNames) {
+    m_userNames = new ArrayList<>(userNames);
   }
 
-  public String getUserName() {
-    return m_userName;
+  public List<String> getUserNames() {
+    return m_userNames;
   }
-
 }
@@ -13,28 +13,19 @@ package org.eclipsescout.demo.bahbah.server.services.notification;
 import org.eclipse.scout.rt.platform.BEANS;
 import org.eclipse.scout.rt.server.services.common.clustersync.IClusterNotificationListener;
 import org.eclipse.scout.rt.server.services.common.clustersync.IClusterNotificationMessage;
-import org.eclipsescout.demo.bahbah.shared.services.process.IUserProcessService;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.eclipsescout.demo.bahbah.server.services.custom.security.UserRoleCache;
 
-public class RegisterUserNotificationListener implements IClusterNotificationListener {
-  private static final Logger LOG = LoggerFactory.getLogger(RegisterUserNotificationListener.class);
+public class UserRoleChangedNotificationListener implements IClusterNotificationListener {
 
   @Override
   public void onNotification(IClusterNotificationMessage notification) {
     if (isInteresting(notification)) {
-      RegisterUserNotification registerUserNotification = (RegisterUserNotification) notification.getNotification();
-      try {
-        BEANS.get(IUserProcessService.class).registerUserInternal(registerUserNotification.getUserName());
-      }
-      catch (RuntimeException e) {
-        LOG.error("Unable to register user internal", e);
-      }
+      UserRoleChangedNotification roleChangedNotification = (UserRoleChangedNotification) notification.getNotification();
+      BEANS.get(UserRoleCache.class).invalidate(roleChangedNotification.getUserNames());
     }
   }
 
   public boolean isInteresting(IClusterNotificationMessage notification) {
-    return (notification.getNotification() instanceof RegisterUserNotification);
+    return (notification.getNotification() instanceof UserRoleChangedNotification);
   }
-
 }
@@ -15,7 +15,9 @@ import java.util.Set;
 
 import org.eclipse.scout.rt.platform.BEANS;
 import org.eclipsescout.demo.bahbah.server.ServerSession;
+import org.eclipsescout.demo.bahbah.server.services.notification.PresenceNotificationCoalescer;
 import org.eclipsescout.demo.bahbah.shared.services.outline.IStandardOutlineService;
+import org.eclipsescout.demo.bahbah.shared.services.outline.PresenceSnapshot;
 import org.eclipsescout.demo.bahbah.shared.services.process.IUserProcessService;
 
 public class StandardOutlineService implements IStandardOutlineService {
@@ -28,4 +30,12 @@ public class StandardOutlineService implements IStandardOutlineService {
     users.remove(ServerSession.get().getUserId());
     return users.toArray(new String[users.size()]);
   }
+
+  @Override
+  public PresenceSnapshot getOnlinePresence() {
+    // read the sequence first: a change made meanwhile is also contained in a later delta, and applying it twice is harmless
+    PresenceNotificationCoalescer coalescer = BEANS.get(PresenceNotificationCoalescer.class);
+    long sequence = coalescer.getSequence();
+    return new PresenceSnapshot(coalescer.getNodeId(), sequence, getOnlineUsers());
+  }
 }
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.server.services.presence;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.eclipse.scout.rt.platform.ApplicationScoped;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.platform.config.CONFIG;
+import org.eclipse.scout.rt.platform.context.NodeIdentifier;
+import org.eclipse.scout.rt.platform.job.FixedDelayScheduleBuilder;
+import org.eclipse.scout.rt.platform.job.Jobs;
+import org.eclipse.scout.rt.server.context.ServerRunContexts;
+import org.eclipse.scout.rt.server.services.common.clustersync.IClusterSynchronizationService;
+import org.eclipsescout.demo.bahbah.server.ConfigProperties.PresenceHeartbeatIntervalProperty;
+import org.eclipsescout.demo.bahbah.server.ServerApplication;
+import org.eclipsescout.demo.bahbah.server.services.notification.PresenceNotificationCoalescer;
+import org.eclipsescout.demo.bahbah.server.services.presence.PresenceTable.PresenceChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the online users of the cluster in a {@link PresenceTable}.
+ * <p>
+ * Logins and logouts on this node are applied immediately and published to the other nodes as one
+ * {@link PresenceHeartbeatNotification} per heartbeat interval, a delta against the last published version. Every
+ * {@link #SNAPSHOT_EVERY_HEARTBEATS} heartbeats, and whenever another node asks for it, a full snapshot is published
+ * instead. A (re)started node asks for snapshots with its first heartbeat, which rebuilds its table with one message
+ * per node instead of one per user. Nodes not heard of for {@link #EXPIRY_HEARTBEATS} intervals are removed.
+ * <p>
+ * This is the only mechanism distributing presence over the cluster. Every change of the table, local or merged from
+ * another node, is passed to the {@link PresenceNotificationCoalescer} of this node, which notifies the sessions of
+ * this node only.
+ */
+@ApplicationScoped
+public class ClusterPresenceSync {
+  private static final Logger LOG = LoggerFactory.getLogger(ClusterPresenceSync.class);
+
+  public static final int SNAPSHOT_EVERY_HEARTBEATS = 60;
+  public static final int EXPIRY_HEARTBEATS = 3;
+
+  private final Set<String> m_joinedSincePublish = new HashSet<>();
+  private final Set<String> m_leftSincePublish = new HashSet<>();
+  private PresenceTable m_table;
+  private long m_epoch;
+  private long m_version;
+  private long m_publishedVersion;
+  private long m_heartbeatCount;
+  private boolean m_snapshotDue;
+  private boolean m_requestSnapshots;
+
+  @PostConstruct
+  protected void init() {
+    init(BEANS.get(NodeIdentifier.class).get(), System.currentTimeMillis());
+  }
+
+  /**
+   * @param epoch
+   *          distinguishes the runs of a node, so the other nodes detect a restart
+   */
+  protected synchronized void init(String nodeId, long epoch) {
+    m_table = new PresenceTable(nodeId);
+    m_epoch = epoch;
+    m_version = 0;
+    m_publishedVersion = 0;
+    m_heartbeatCount = 0;
+    m_joinedSincePublish.clear();
+    m_leftSincePublish.clear();
+    m_snapshotDue = true;
+    m_requestSnapshots = true;
+  }
+
+  /**
+   * Starts publishing the heartbeats.
+   */
+  public void start() {
+    long interval = getHeartbeatInterval();
+    Jobs.schedule(this::heartbeat, Jobs.newInput()
+        .withName("Publishing presence heartbeat")
+        .withRunContext(ServerRunContexts.empty().withSubject(ServerApplication.getSubject()))
+        .withExecutionTrigger(Jobs.newExecutionTrigger()
+            .withSchedule(FixedDelayScheduleBuilder.repeatForever(interval, TimeUnit.MILLISECONDS))));
+  }
+
+  public void localUserJoined(String userId) {
+    PresenceChange change = new PresenceChange();
+    synchronized (this) {
+      if (m_table.addLocal(userId, change)) {
+        m_version++;
+        if (!m_leftSincePublish.remove(userId)) {
+          m_joinedSincePublish.add(userId);
+        }
+      }
+    }
+    fireChange(change);
+  }
+
+  public void localUserLeft(String userId) {
+    PresenceChange change = new PresenceChange();
+    synchronized (this) {
+      if (m_table.removeLocal(userId, change)) {
+        m_version++;
+        if (!m_joinedSincePublish.remove(userId)) {
+          m_leftSincePublish.add(userId);
+        }
+      }
+    }
+    fireChange(change);
+  }
+
+  public synchronized Set<String> getOnlineUsers() {
+    return m_table.getOnlineUsers();
+  }
+
+  /**
+   * @return ids of the nodes known to be alive, including this node
+   */
+  public synchronized Set<String> getNodeIds() {
+    return m_table.getNodeIds();
+  }
+
+  /**
+   * Merges the heartbeat of another node.
+   */
+  public void onHeartbeat(PresenceHeartbeatNotification heartbeat) {
+    PresenceChange change = new PresenceChange();
+    synchronized (this) {
+      if (heartbeat.isSnapshotRequested()) {
+        m_snapshotDue = true;
+      }
+      if (!m_table.merge(heartbeat, now(), change)) {
+        LOG.debug("Requesting presence snapshots, {} does not match the known state", heartbeat);
+        m_requestSnapshots = true;
+      }
+    }
+    fireChange(change);
+  }
+
+  protected void heartbeat() {
+    PresenceChange change = new PresenceChange();
+    PresenceHeartbeatNotification heartbeat;
+    synchronized (this) {
+      m_table.expire(now() - EXPIRY_HEARTBEATS * getHeartbeatInterval(), change);
+
+      if (m_snapshotDue || m_heartbeatCount % SNAPSHOT_EVERY_HEARTBEATS == 0) {
+        heartbeat = PresenceHeartbeatNotification.snapshot(m_table.getLocalNodeId(), m_epoch, m_version, m_table.getLocalUsers(), m_requestSnapshots);
+      }
+      else {
+        heartbeat = PresenceHeartbeatNotification.delta(m_table.getLocalNodeId(), m_epoch, m_publishedVersion, m_version, m_joinedSincePublish, m_leftSincePublish, m_requestSnapshots);
+      }
+      m_publishedVersion = m_version;
+      m_joinedSincePublish.clear();
+      m_leftSincePublish.clear();
+      m_snapshotDue = false;
+      m_requestSnapshots = false;
+      m_heartbeatCount++;
+    }
+
+    fireChange(change);
+    publish(heartbeat);
+  }
+
+  /**
+   * Sends the heartbeat to the other nodes. Replace to connect nodes without a cluster, e.g. within one JVM.
+   */
+  protected void publish(PresenceHeartbeatNotification heartbeat) {
+    LOG.debug("Publishing {}", heartbeat);
+    BEANS.get(IClusterSynchronizationService.class).publish(heartbeat);
+  }
+
+  /**
+   * Passes the users going online or offline in the cluster to the sessions of this node.
+   */
+  protected void fireChange(PresenceChange change) {
+    PresenceNotificationCoalescer coalescer = BEANS.get(PresenceNotificationCoalescer.class);
+    for (String userId : change.getJoined()) {
+      coalescer.userJoined(userId);
+    }
+    for (String userId : change.getLeft()) {
+      coalescer.userLeft(userId);
+    }
+  }
+
+  protected long now() {
+    return System.currentTimeMillis();
+  }
+
+  protected long getHeartbeatInterval() {
+    return CONFIG.getPropertyValue(PresenceHeartbeatIntervalProperty.class);
+  }
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.server.services.presence;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Online users of a cluster node, published in every heartbeat interval. Either a full snapshot of the users of the
+ * node or the users joined and left since version {@link #getBaseVersion()}.
+ */
+public class PresenceHeartbeatNotification implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String m_nodeId;
+  private final long m_epoch;
+  private final long m_baseVersion;
+  private final long m_version;
+  private final boolean m_snapshot;
+  private final Set<String> m_joined;
+  private final Set<String> m_left;
+  private final boolean m_snapshotRequested;
+
+  protected PresenceHeartbeatNotification(String nodeId, long epoch, long baseVersion, long version, boolean snapshot, Collection<String> joined, Collection<String> left, boolean snapshotRequested) {
+    m_nodeId = nodeId;
+    m_epoch = epoch;
+    m_baseVersion = baseVersion;
+    m_version = version;
+    m_snapshot = snapshot;
+    m_joined = new HashSet<>(joined);
+    m_left = new HashSet<>(left);
+    m_snapshotRequested = snapshotRequested;
+  }
+
+  public static PresenceHeartbeatNotification snapshot(String nodeId, long epoch, long version, Collection<String> users, boolean snapshotRequested) {
+    return new PresenceHeartbeatNotification(nodeId, epoch, version, version, true, users, Collections.<String> emptySet(), snapshotRequested);
+  }
+
+  public static PresenceHeartbeatNotification delta(String nodeId, long epoch, long baseVersion, long version, Collection<String> joined, Collection<String> left, boolean snapshotRequested) {
+    return new PresenceHeartbeatNotification(nodeId, epoch, baseVersion, version, false, joined, left, snapshotRequested);
+  }
+
+  public String getNodeId() {
+    return m_nodeId;
+  }
+
+  /**
+   * @return start time of the node. A new epoch means the node was restarted and its former users are gone.
+   */
+  public long getEpoch() {
+    return m_epoch;
+  }
+
+  /**
+   * @return version the delta is based on, equal to {@link #getVersion()} for a snapshot
+   */
+  public long getBaseVersion() {
+    return m_baseVersion;
+  }
+
+  public long getVersion() {
+    return m_version;
+  }
+
+  public boolean isSnapshot() {
+    return m_snapshot;
+  }
+
+  /**
+   * @return the users joined since the base version, or all users of a snapshot
+   */
+  public Set<String> getJoined() {
+    return m_joined;
+  }
+
+  public Set<String> getLeft() {
+    return m_left;
+  }
+
+  /**
+   * @return <code>true</code> if the sender asks all other nodes to publish a snapshot with their next heartbeat
+   */
+  public boolean isSnapshotRequested() {
+    return m_snapshotRequested;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[node=" + m_nodeId + ", epoch=" + m_epoch + ", version=" + m_baseVersion + "->" + m_version
+        + (m_snapshot ? ", snapshot=" + m_joined.size() : ", joined=" + m_joined.size() + ", left=" + m_left.size()) + "]";
+  }
+}
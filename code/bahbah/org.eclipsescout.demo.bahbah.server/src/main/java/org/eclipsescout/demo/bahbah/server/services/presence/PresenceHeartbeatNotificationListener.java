@@ -8,33 +8,22 @@
  * Contributors:
  *     BSI Business Systems Integration AG - initial API and implementation
  ******************************************************************************/
-package org.eclipsescout.demo.bahbah.server.services.notification;
+package org.eclipsescout.demo.bahbah.server.services.presence;
 
 import org.eclipse.scout.rt.platform.BEANS;
 import org.eclipse.scout.rt.server.services.common.clustersync.IClusterNotificationListener;
 import org.eclipse.scout.rt.server.services.common.clustersync.IClusterNotificationMessage;
-import org.eclipsescout.demo.bahbah.shared.services.process.IUserProcessService;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-public class UnregisterUserNotificationListener implements IClusterNotificationListener {
-  private static final Logger LOG = LoggerFactory.getLogger(UnregisterUserNotificationListener.class);
+public class PresenceHeartbeatNotificationListener implements IClusterNotificationListener {
 
   @Override
   public void onNotification(IClusterNotificationMessage notification) {
     if (isInteresting(notification)) {
-      UnregisterUserNotification unregisterUserNotification = (UnregisterUserNotification) notification.getNotification();
-      try {
-        BEANS.get(IUserProcessService.class).unregisterUserInternal(unregisterUserNotification.getUserName());
-      }
-      catch (RuntimeException e) {
-        LOG.error("Unable to unregister user internal", e);
-      }
+      BEANS.get(ClusterPresenceSync.class).onHeartbeat((PresenceHeartbeatNotification) notification.getNotification());
     }
   }
 
   public boolean isInteresting(IClusterNotificationMessage notification) {
-    return (notification.getNotification() instanceof UnregisterUserNotification);
+    return (notification.getNotification() instanceof PresenceHeartbeatNotification);
   }
-
 }
@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.server.services.presence;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * Online users of all cluster nodes, partitioned by node. A user is online as long as any partition contains the user.
+ * <p>
+ * The partition of the local node is changed directly, the partitions of the other nodes are updated by merging their
+ * {@link PresenceHeartbeatNotification}s. The table has no dependencies to the platform, so several instances can be
+ * connected within one JVM to simulate a cluster. Not thread safe.
+ */
+public class PresenceTable {
+
+  private final String m_localNodeId;
+  private final Map<String, Partition> m_partitions = new HashMap<>();
+  /**
+   * Number of partitions containing each online user
+   */
+  private final Map<String, Integer> m_userCounts = new HashMap<>();
+
+  public PresenceTable(String localNodeId) {
+    m_localNodeId = localNodeId;
+    m_partitions.put(localNodeId, new Partition(0, 0, Long.MAX_VALUE));
+  }
+
+  public String getLocalNodeId() {
+    return m_localNodeId;
+  }
+
+  /**
+   * @return <code>true</code> if the local partition changed
+   */
+  public boolean addLocal(String userId, PresenceChange change) {
+    return add(m_partitions.get(m_localNodeId), userId, change);
+  }
+
+  /**
+   * @return <code>true</code> if the local partition changed
+   */
+  public boolean removeLocal(String userId, PresenceChange change) {
+    return remove(m_partitions.get(m_localNodeId), userId, change);
+  }
+
+  /**
+   * Merges the heartbeat of another node.
+   *
+   * @return <code>false</code> if the heartbeat is a delta that does not fit to the known state of the node. A snapshot
+   *         of the node is required then.
+   */
+  public boolean merge(PresenceHeartbeatNotification heartbeat, long now, PresenceChange change) {
+    if (m_localNodeId.equals(heartbeat.getNodeId())) {
+      return true;
+    }
+
+    Partition partition = m_partitions.get(heartbeat.getNodeId());
+    if (heartbeat.isSnapshot()) {
+      if (partition == null) {
+        partition = new Partition(heartbeat.getEpoch(), heartbeat.getVersion(), now);
+        m_partitions.put(heartbeat.getNodeId(), partition);
+      }
+      replace(partition, heartbeat.getJoined(), change);
+      partition.m_epoch = heartbeat.getEpoch();
+      partition.m_version = heartbeat.getVersion();
+      partition.m_lastSeen = now;
+      return true;
+    }
+
+    if (partition == null || partition.m_epoch != heartbeat.getEpoch()) {
+      // unknown or restarted node
+      if (partition != null) {
+        replace(partition, new HashSet<String>(), change);
+        m_partitions.remove(heartbeat.getNodeId());
+      }
+      return false;
+    }
+
+    partition.m_lastSeen = now;
+    if (partition.m_version == heartbeat.getVersion()) {
+      // nothing new
+      return true;
+    }
+    if (partition.m_version != heartbeat.getBaseVersion()) {
+      // missed a heartbeat
+      return false;
+    }
+    for (String userId : heartbeat.getLeft()) {
+      remove(partition, userId, change);
+    }
+    for (String userId : heartbeat.getJoined()) {
+      add(partition, userId, change);
+    }
+    partition.m_version = heartbeat.getVersion();
+    return true;
+  }
+
+  /**
+   * Removes the partitions of the nodes not heard of since the given time.
+   */
+  public void expire(long notSeenSince, PresenceChange change) {
+    for (Iterator<Entry<String, Partition>> it = m_partitions.entrySet().iterator(); it.hasNext();) {
+      Entry<String, Partition> entry = it.next();
+      if (entry.getValue().m_lastSeen < notSeenSince) {
+        replace(entry.getValue(), new HashSet<String>(), change);
+        it.remove();
+      }
+    }
+  }
+
+  public Set<String> getOnlineUsers() {
+    return new HashSet<>(m_userCounts.keySet());
+  }
+
+  public Set<String> getLocalUsers() {
+    return new HashSet<>(m_partitions.get(m_localNodeId).m_users);
+  }
+
+  /**
+   * @return ids of the nodes with a partition, including the local node
+   */
+  public Set<String> getNodeIds() {
+    return new HashSet<>(m_partitions.keySet());
+  }
+
+  protected void replace(Partition partition, Collection<String> users, PresenceChange change) {
+    for (String userId : new HashSet<>(partition.m_users)) {
+      if (!users.contains(userId)) {
+        remove(partition, userId, change);
+      }
+    }
+    for (String userId : users) {
+      add(partition, userId, change);
+    }
+  }
+
+  protected boolean add(Partition partition, String userId, PresenceChange change) {
+    if (!partition.m_users.add(userId)) {
+      return false;
+    }
+    if (m_userCounts.merge(userId, 1, Integer::sum) == 1) {
+      change.joined(userId);
+    }
+    return true;
+  }
+
+  protected boolean remove(Partition partition, String userId, PresenceChange change) {
+    if (!partition.m_users.remove(userId)) {
+      return false;
+    }
+    if (m_userCounts.merge(userId, -1, Integer::sum) == 0) {
+      m_userCounts.remove(userId);
+      change.left(userId);
+    }
+    return true;
+  }
+
+  protected static class Partition {
+
+    private final Set<String> m_users = new HashSet<>();
+    private long m_epoch;
+    private long m_version;
+    private long m_lastSeen;
+
+    Partition(long epoch, long version, long lastSeen) {
+      m_epoch = epoch;
+      m_version = version;
+      m_lastSeen = lastSeen;
+    }
+  }
+
+  /**
+   * Users that went online or offline in the whole cluster, collected while changing the table.
+   */
+  public static class PresenceChange {
+
+    private final Set<String> m_joined = new HashSet<>();
+    private final Set<String> m_left = new HashSet<>();
+
+    public void joined(String userId) {
+      if (!m_left.remove(userId)) {
+        m_joined.add(userId);
+      }
+    }
+
+    public void left(String userId) {
+      if (!m_joined.remove(userId)) {
+        m_left.add(userId);
+      }
+    }
+
+    public Set<String> getJoined() {
+      return m_joined;
+    }
+
+    public Set<String> getLeft() {
+      return m_left;
+    }
+
+    public boolean isEmpty() {
+      return m_joined.isEmpty() && m_left.isEmpty();
+    }
+  }
+}
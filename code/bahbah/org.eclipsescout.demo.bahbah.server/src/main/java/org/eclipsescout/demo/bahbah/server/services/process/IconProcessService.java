@@ -10,86 +10,72 @@
  ******************************************************************************/
 package org.eclipsescout.demo.bahbah.server.services.process;
 
-import java.awt.Graphics2D;
-import java.awt.RenderingHints;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-
-import javax.imageio.ImageIO;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
+import org.eclipse.scout.rt.platform.BEANS;
 import org.eclipse.scout.rt.platform.exception.VetoException;
 import org.eclipse.scout.rt.platform.holders.ByteArrayHolder;
 import org.eclipse.scout.rt.platform.holders.NVPair;
 import org.eclipse.scout.rt.platform.text.TEXTS;
+import org.eclipse.scout.rt.platform.util.NumberUtility;
+import org.eclipse.scout.rt.platform.util.TypeCastUtility;
 import org.eclipse.scout.rt.server.jdbc.SQL;
 import org.eclipse.scout.rt.shared.services.common.security.ACCESS;
 import org.eclipsescout.demo.bahbah.server.ServerSession;
 import org.eclipsescout.demo.bahbah.shared.security.UpdateIconPermission;
+import org.eclipsescout.demo.bahbah.shared.services.process.BuddyIcon;
 import org.eclipsescout.demo.bahbah.shared.services.process.IIconProcessService;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.eclipsescout.demo.bahbah.shared.services.process.IconUploadState;
 
 public class IconProcessService implements IIconProcessService {
-  public static final int MAX_SIZE = 16;
-  private static final Logger LOG = LoggerFactory.getLogger(IconProcessService.class);
+  public static final int LOAD_ICONS_BATCH_SIZE = 500;
 
-  private byte[] resize(byte[] content) {
-    try {
-      BufferedImage img = ImageIO.read(new ByteArrayInputStream(content));
-      int w = img.getWidth();
-      int h = img.getHeight();
-      if (w > MAX_SIZE || h > MAX_SIZE) {
-        float longer = w;
-        if (h > w) longer = h;
-        float fl = MAX_SIZE / longer;
-        w = Math.round(fl * w);
-        h = Math.round(fl * h);
-        BufferedImage scaledImg = new BufferedImage(w, h, BufferedImage.TYPE_4BYTE_ABGR);
-        Graphics2D gScaledImg = scaledImg.createGraphics();
-        gScaledImg.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-        gScaledImg.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        gScaledImg.setRenderingHint(RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_QUALITY);
-        gScaledImg.setRenderingHint(RenderingHints.KEY_COLOR_RENDERING, RenderingHints.VALUE_COLOR_RENDER_QUALITY);
-        gScaledImg.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        gScaledImg.drawImage(img, 0, 0, w, h, null);
-        gScaledImg.dispose();
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        ImageIO.write(scaledImg, "png", out);
-        return out.toByteArray();
-      }
-      else {
-        return content;
+  @Override
+  public byte[] loadIcon(String name) {
+    ByteArrayHolder iconHolder = new ByteArrayHolder();
+    SQL.selectInto("SELECT icon INTO :icon FROM TABUSERS WHERE username = :name", new NVPair("icon", iconHolder), new NVPair("name", name));
+    return iconHolder.getValue();
+  }
+
+  @Override
+  public Map<String, BuddyIcon> loadIcons(Collection<String> names) {
+    Map<String, BuddyIcon> icons = new HashMap<>(names.size());
+    String[] allNames = names.toArray(new String[names.size()]);
+    for (int from = 0; from < allNames.length; from += LOAD_ICONS_BATCH_SIZE) {
+      String[] batch = Arrays.copyOfRange(allNames, from, Math.min(from + LOAD_ICONS_BATCH_SIZE, allNames.length));
+      Object[][] rows = SQL.select("SELECT username, icon_version, icon FROM TABUSERS WHERE username = :names", new NVPair("names", batch));
+      for (Object[] row : rows) {
+        String name = (String) row[0];
+        icons.put(name, new BuddyIcon(name, NumberUtility.nvl(TypeCastUtility.castValue(row[1], Long.class), 0L), (byte[]) row[2]));
       }
     }
-    catch (IOException e) {
-      LOG.debug("Could not resize image", e);
-    }
-    return null;
+    return icons;
   }
 
   @Override
-  public byte[] loadIcon(String name) {
+  public byte[] loadIcon(String name, int size) {
     ByteArrayHolder iconHolder = new ByteArrayHolder();
-    SQL.selectInto("SELECT icon INTO :icon FROM TABUSERS WHERE username = :name", new NVPair("icon", iconHolder), new NVPair("name", name));
+    SQL.selectInto("SELECT icon INTO :icon FROM TABUSERICONS WHERE username = :name AND icon_size = :size",
+        new NVPair("icon", iconHolder), new NVPair("name", name), new NVPair("size", size));
     return iconHolder.getValue();
   }
 
   @Override
-  public void saveIcon(byte[] icon) {
+  public IconUploadState saveIcon(byte[] icon) {
     // permission validation
     if (!ACCESS.check(new UpdateIconPermission())) {
       throw new VetoException(TEXTS.get("AuthorizationFailed"));
     }
 
-    // input validation
-    byte[] resizedIcon = resize(icon);
-    if (resizedIcon == null) {
-      throw new VetoException();
-    }
+    // validated, scaled and stored in the background
+    return BEANS.get(IconRenditionProcessor.class).submit(ServerSession.get().getUserId(), icon);
+  }
 
-    //store in database
-    SQL.update("UPDATE TABUSERS SET icon = :icon WHERE username = :userId", new NVPair("name", ServerSession.get().getUserId()), new NVPair("icon", resizedIcon));
+  @Override
+  public IconUploadState getIconUploadState() {
+    return BEANS.get(IconRenditionProcessor.class).getState(ServerSession.get().getUserId());
   }
 }
@@ -0,0 +1,325 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.server.services.process;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.eclipse.scout.rt.platform.ApplicationScoped;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.platform.exception.VetoException;
+import org.eclipse.scout.rt.platform.holders.LongHolder;
+import org.eclipse.scout.rt.platform.holders.NVPair;
+import org.eclipse.scout.rt.platform.job.IExecutionSemaphore;
+import org.eclipse.scout.rt.platform.job.Jobs;
+import org.eclipse.scout.rt.platform.text.TEXTS;
+import org.eclipse.scout.rt.platform.transaction.AbstractTransactionMember;
+import org.eclipse.scout.rt.platform.transaction.ITransaction;
+import org.eclipse.scout.rt.platform.transaction.TransactionScope;
+import org.eclipse.scout.rt.platform.util.NumberUtility;
+import org.eclipse.scout.rt.server.clientnotification.ClientNotificationRegistry;
+import org.eclipse.scout.rt.server.context.ServerRunContexts;
+import org.eclipse.scout.rt.server.jdbc.SQL;
+import org.eclipsescout.demo.bahbah.shared.notification.BuddyIconChangedNotification;
+import org.eclipsescout.demo.bahbah.shared.services.process.IIconProcessService;
+import org.eclipsescout.demo.bahbah.shared.services.process.IconUploadState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Validates uploaded avatars and stores their renditions in background jobs, so the upload request returns at once.
+ * <p>
+ * At most {@link #MAX_CONCURRENT_JOBS} uploads are processed in parallel. If {@link #MAX_QUEUED_UPLOADS} are waiting
+ * already, further uploads are rejected until the queue drained.
+ * <p>
+ * Each upload gets a sequence number per user. An upload that is superseded by a newer one of the same user is
+ * discarded, and concurrent uploads of the same user are stored one after the other by locking the user row. The state
+ * of an upload becomes {@link IconUploadState#DONE} once its transaction is committed.
+ */
+@ApplicationScoped
+public class IconRenditionProcessor {
+  private static final Logger LOG = LoggerFactory.getLogger(IconRenditionProcessor.class);
+
+  public static final int MAX_CONCURRENT_JOBS = 2;
+  public static final int MAX_QUEUED_UPLOADS = 50;
+  public static final int MAX_UPLOAD_BYTES = 2 * 1024 * 1024;
+  public static final int MAX_IMAGE_DIMENSION = 4096;
+
+  private final IExecutionSemaphore m_semaphore = Jobs.newExecutionSemaphore(MAX_CONCURRENT_JOBS);
+  private final Map<String, IconUploadState> m_states = new ConcurrentHashMap<>();
+  private final Map<String, Long> m_sequences = new ConcurrentHashMap<>();
+
+  private final AtomicInteger m_queueDepth = new AtomicInteger();
+  private final AtomicLong m_processedCount = new AtomicLong();
+  private final AtomicLong m_failedCount = new AtomicLong();
+  private final AtomicLong m_rejectedCount = new AtomicLong();
+  private final AtomicLong m_processingNanos = new AtomicLong();
+
+  /**
+   * Queues the upload of the given user. Must be called within a server run context.
+   *
+   * @throws VetoException
+   *           if the upload is too large or too many uploads are queued
+   */
+  public IconUploadState submit(String userName, byte[] upload) {
+    if (upload == null || upload.length > MAX_UPLOAD_BYTES) {
+      throw new VetoException(TEXTS.get("IconTooLarge", "" + MAX_UPLOAD_BYTES / 1024));
+    }
+    if (m_queueDepth.incrementAndGet() > MAX_QUEUED_UPLOADS) {
+      m_queueDepth.decrementAndGet();
+      m_rejectedCount.incrementAndGet();
+      throw new VetoException(TEXTS.get("IconProcessingBusy"));
+    }
+
+    long sequence = m_sequences.compute(userName, (user, latest) -> {
+      m_states.put(user, IconUploadState.PENDING);
+      return latest == null ? 1L : latest + 1;
+    });
+    Jobs.schedule(() -> process(userName, sequence, upload), Jobs.newInput()
+        .withName("Processing icon of {}", userName)
+        .withRunContext(ServerRunContexts.copyCurrent()
+            .withTransactionScope(TransactionScope.REQUIRES_NEW))
+        .withExecutionSemaphore(m_semaphore));
+    return IconUploadState.PENDING;
+  }
+
+  public IconUploadState getState(String userName) {
+    return m_states.getOrDefault(userName, IconUploadState.NONE);
+  }
+
+  /**
+   * @return <code>true</code> if no newer upload of the given user was submitted
+   */
+  protected boolean isLatest(String userName, long sequence) {
+    Long latest = m_sequences.get(userName);
+    return latest != null && latest.longValue() == sequence;
+  }
+
+  /**
+   * Sets the state of the user if the upload with the given sequence is the latest one, so a superseded upload does
+   * not overwrite the state of a newer one.
+   */
+  protected void setState(String userName, long sequence, IconUploadState state) {
+    m_sequences.computeIfPresent(userName, (user, latest) -> {
+      if (latest.longValue() == sequence) {
+        m_states.put(user, state);
+      }
+      return latest;
+    });
+  }
+
+  protected void process(String userName, long sequence, byte[] upload) {
+    long start = System.nanoTime();
+    try {
+      if (!isLatest(userName, sequence)) {
+        LOG.debug("Skipped icon upload of {}: superseded by a newer upload", userName);
+        return;
+      }
+
+      BufferedImage image = decode(upload);
+      if (image == null) {
+        LOG.info("Rejected icon upload of {}: not a supported image", userName);
+        m_failedCount.incrementAndGet();
+        setState(userName, sequence, IconUploadState.FAILED);
+        return;
+      }
+
+      byte[][] renditions = new byte[IIconProcessService.ICON_SIZES.length][];
+      for (int i = 0; i < renditions.length; i++) {
+        renditions[i] = encode(scale(image, IIconProcessService.ICON_SIZES[i]));
+      }
+      if (store(userName, sequence, renditions)) {
+        ITransaction.CURRENT.get().registerMember(new UploadCompletionMember(userName, sequence));
+      }
+    }
+    catch (IOException | RuntimeException e) {
+      LOG.warn("Could not process icon of {}", userName, e);
+      // do not commit a partially stored upload
+      ITransaction.CURRENT.get().addFailure(e);
+      m_failedCount.incrementAndGet();
+      setState(userName, sequence, IconUploadState.FAILED);
+    }
+    finally {
+      m_queueDepth.decrementAndGet();
+      long nanos = System.nanoTime() - start;
+      m_processingNanos.addAndGet(nanos);
+      LOG.debug("Processed icon of {} in {} ms, {} uploads queued", userName, TimeUnit.NANOSECONDS.toMillis(nanos), m_queueDepth.get());
+    }
+  }
+
+  /**
+   * @return <code>false</code> if the upload was superseded by a newer one and nothing was stored
+   */
+  protected boolean store(String userName, long sequence, byte[][] renditions) {
+    // locks the user row until the transaction ends, so a concurrent upload of the same user waits for this one
+    SQL.update("UPDATE TABUSERS SET icon_version = icon_version WHERE username = :userName", new NVPair("userName", userName));
+    if (!isLatest(userName, sequence)) {
+      LOG.debug("Skipped icon upload of {}: superseded by a newer upload", userName);
+      return false;
+    }
+
+    SQL.delete("DELETE FROM TABUSERICONS WHERE username = :userName", new NVPair("userName", userName));
+    for (int i = 0; i < renditions.length; i++) {
+      SQL.insert("INSERT INTO TABUSERICONS (username, icon_size, icon) VALUES (:userName, :size, :icon)",
+          new NVPair("userName", userName), new NVPair("size", IIconProcessService.ICON_SIZES[i]), new NVPair("icon", renditions[i]));
+    }
+
+    // the smallest rendition is the tree icon, see IconProcessService#loadIcons
+    SQL.update("UPDATE TABUSERS SET icon = :icon, icon_version = icon_version + 1 WHERE username = :userName",
+        new NVPair("userName", userName), new NVPair("icon", renditions[0]));
+
+    LongHolder version = new LongHolder();
+    SQL.selectInto("SELECT icon_version FROM TABUSERS WHERE username = :userName INTO :version", new NVPair("userName", userName), new NVPair("version", version));
+    BEANS.get(ClientNotificationRegistry.class).putTransactionalForAllSessions(new BuddyIconChangedNotification(userName, NumberUtility.nvl(version.getValue(), 0L)));
+    return true;
+  }
+
+  /**
+   * @return the decoded image or <code>null</code> if it is not a supported image or too large
+   */
+  protected BufferedImage decode(byte[] upload) throws IOException {
+    try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(upload))) {
+      Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+      if (readers == null || !readers.hasNext()) {
+        return null;
+      }
+
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(in);
+        // check the dimension before the pixels are decoded
+        if (reader.getWidth(0) > MAX_IMAGE_DIMENSION || reader.getHeight(0) > MAX_IMAGE_DIMENSION) {
+          return null;
+        }
+        return reader.read(0);
+      }
+      finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  /**
+   * @return the image scaled to fit into a square of the given size. Smaller images are not enlarged.
+   */
+  protected BufferedImage scale(BufferedImage img, int size) {
+    int w = img.getWidth();
+    int h = img.getHeight();
+    if (w > size || h > size) {
+      float fl = size / (float) Math.max(w, h);
+      w = Math.max(1, Math.round(fl * w));
+      h = Math.max(1, Math.round(fl * h));
+    }
+
+    BufferedImage scaledImg = new BufferedImage(w, h, BufferedImage.TYPE_4BYTE_ABGR);
+    Graphics2D gScaledImg = scaledImg.createGraphics();
+    try {
+      gScaledImg.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+      gScaledImg.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      gScaledImg.setRenderingHint(RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_QUALITY);
+      gScaledImg.setRenderingHint(RenderingHints.KEY_COLOR_RENDERING, RenderingHints.VALUE_COLOR_RENDER_QUALITY);
+      gScaledImg.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      gScaledImg.drawImage(img, 0, 0, w, h, null);
+    }
+    finally {
+      gScaledImg.dispose();
+    }
+    return scaledImg;
+  }
+
+  protected byte[] encode(BufferedImage img) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(img, "png", out);
+    return out.toByteArray();
+  }
+
+  /**
+   * @return number of uploads queued or being processed
+   */
+  public int getQueueDepth() {
+    return m_queueDepth.get();
+  }
+
+  public long getProcessedCount() {
+    return m_processedCount.get();
+  }
+
+  public long getFailedCount() {
+    return m_failedCount.get();
+  }
+
+  /**
+   * @return number of uploads rejected because the queue was full
+   */
+  public long getRejectedCount() {
+    return m_rejectedCount.get();
+  }
+
+  /**
+   * @return average processing time in milliseconds of the processed and failed uploads
+   */
+  public double getAverageProcessingMillis() {
+    long count = m_processedCount.get() + m_failedCount.get();
+    return count == 0 ? 0 : m_processingNanos.get() / 1e6 / count;
+  }
+
+  /**
+   * Completes a stored upload once its transaction ended.
+   */
+  private class UploadCompletionMember extends AbstractTransactionMember {
+
+    private final String m_userName;
+    private final long m_sequence;
+
+    UploadCompletionMember(String userName, long sequence) {
+      super(UploadCompletionMember.class.getName());
+      m_userName = userName;
+      m_sequence = sequence;
+    }
+
+    @Override
+    public boolean needsCommit() {
+      return true;
+    }
+
+    @Override
+    public boolean commitPhase1() {
+      return true;
+    }
+
+    @Override
+    public void commitPhase2() {
+      m_processedCount.incrementAndGet();
+      setState(m_userName, m_sequence, IconUploadState.DONE);
+    }
+
+    @Override
+    public void rollback() {
+      LOG.warn("Could not store icon of {}: transaction rolled back", m_userName);
+      m_failedCount.incrementAndGet();
+      setState(m_userName, m_sequence, IconUploadState.FAILED);
+    }
+  }
+}
@@ -10,23 +10,27 @@
  ******************************************************************************/
 package org.eclipsescout.demo.bahbah.server.services.process;
 
+import java.util.Date;
+import java.util.List;
+
 import org.eclipse.scout.rt.platform.BEANS;
-import org.eclipse.scout.rt.platform.context.NodeIdentifier;
 import org.eclipse.scout.rt.platform.exception.VetoException;
 import org.eclipse.scout.rt.platform.text.TEXTS;
 import org.eclipse.scout.rt.platform.util.StringUtility;
-import org.eclipse.scout.rt.server.clientnotification.ClientNotificationRegistry;
 import org.eclipse.scout.rt.shared.services.common.security.ACCESS;
 import org.eclipsescout.demo.bahbah.server.ServerSession;
-import org.eclipsescout.demo.bahbah.shared.notification.MessageNotification;
+import org.eclipsescout.demo.bahbah.server.services.chat.ChatLogStore;
+import org.eclipsescout.demo.bahbah.server.services.notification.MessageNotificationBatcher;
 import org.eclipsescout.demo.bahbah.shared.security.CreateNotificationPermission;
+import org.eclipsescout.demo.bahbah.shared.security.ReadChatHistoryPermission;
+import org.eclipsescout.demo.bahbah.shared.services.process.ChatMessage;
 import org.eclipsescout.demo.bahbah.shared.services.process.INotificationProcessService;
 import org.eclipsescout.demo.bahbah.shared.util.SharedUserUtility;
 
 public class NotificationProcessService implements INotificationProcessService {
 
   @Override
-  public void sendMessage(String buddyName, String message) {
+  public ChatMessage sendMessage(String buddyName, String message) {
     // permission validation
     if (!ACCESS.check(new CreateNotificationPermission())) {
       throw new VetoException(TEXTS.get("AuthorizationFailed"));
@@ -41,8 +45,26 @@ public class NotificationProcessService implements INotificationProcessService {
     }
 
     // process message
-    String nodeId = BEANS.get(NodeIdentifier.class).get();
-    BEANS.get(ClientNotificationRegistry.class).putForUser(buddyName, new MessageNotification(ServerSession.get().getUserId(), message, nodeId));
+    String userName = ServerSession.get().getUserId();
+    ChatMessage stored = BEANS.get(ChatLogStore.class).append(userName, buddyName, new Date(), message);
+    BEANS.get(MessageNotificationBatcher.class).messageSent(buddyName, stored);
+    return stored;
+  }
+
+  @Override
+  public List<ChatMessage> loadHistory(String buddyName, long beforeOffset, int limit) {
+    // permission validation
+    if (!ACCESS.check(new ReadChatHistoryPermission())) {
+      throw new VetoException(TEXTS.get("AuthorizationFailed"));
+    }
+
+    // input validation
+    if (!StringUtility.hasText(buddyName) || StringUtility.length(buddyName) > SharedUserUtility.MAX_USERNAME_LENGTH) {
+      throw new VetoException();
+    }
+
+    int pageSize = Math.min(limit, INotificationProcessService.HISTORY_MAX_PAGE_SIZE);
+    return BEANS.get(ChatLogStore.class).loadHistory(ServerSession.get().getUserId(), buddyName, beforeOffset, pageSize);
   }
 
 }
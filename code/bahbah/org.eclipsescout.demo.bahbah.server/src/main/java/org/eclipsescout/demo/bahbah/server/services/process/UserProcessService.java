@@ -10,8 +10,8 @@
  ******************************************************************************/
 package org.eclipsescout.demo.bahbah.server.services.process;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -20,16 +20,15 @@ import org.eclipse.scout.rt.platform.exception.VetoException;
 import org.eclipse.scout.rt.platform.holders.IntegerHolder;
 import org.eclipse.scout.rt.platform.holders.NVPair;
 import org.eclipse.scout.rt.platform.text.TEXTS;
-import org.eclipse.scout.rt.server.clientnotification.ClientNotificationRegistry;
 import org.eclipse.scout.rt.server.jdbc.SQL;
 import org.eclipse.scout.rt.server.services.common.clustersync.IClusterSynchronizationService;
 import org.eclipse.scout.rt.shared.services.common.code.ICode;
 import org.eclipse.scout.rt.shared.services.common.security.ACCESS;
 import org.eclipsescout.demo.bahbah.server.ServerSession;
-import org.eclipsescout.demo.bahbah.server.services.notification.RegisterUserNotification;
-import org.eclipsescout.demo.bahbah.server.services.notification.UnregisterUserNotification;
+import org.eclipsescout.demo.bahbah.server.services.custom.security.UserRoleCache;
+import org.eclipsescout.demo.bahbah.server.services.notification.UserRoleChangedNotification;
+import org.eclipsescout.demo.bahbah.server.services.presence.ClusterPresenceSync;
 import org.eclipsescout.demo.bahbah.server.util.UserUtility;
-import org.eclipsescout.demo.bahbah.shared.notification.RefreshBuddiesNotification;
 import org.eclipsescout.demo.bahbah.shared.security.CreateUserPermission;
 import org.eclipsescout.demo.bahbah.shared.security.DeleteUserPermission;
 import org.eclipsescout.demo.bahbah.shared.security.ReadUsersPermission;
@@ -42,16 +41,13 @@ import org.eclipsescout.demo.bahbah.shared.services.process.IUserProcessService;
 import org.eclipsescout.demo.bahbah.shared.services.process.UserFormData;
 
 public class UserProcessService implements IUserProcessService {
-  private final Set<String> m_users = Collections.synchronizedSet(new HashSet<String>());
-
   @Override
   public void registerUser() {
     if (!ACCESS.check(new RegisterUserPermission())) {
       throw new VetoException(TEXTS.get("AuthorizationFailed"));
     }
 
-    registerUserInternal(ServerSession.get().getUserId());
-    BEANS.get(IClusterSynchronizationService.class).publishTransactional(new RegisterUserNotification(ServerSession.get().getUserId()));
+    BEANS.get(ClusterPresenceSync.class).localUserJoined(ServerSession.get().getUserId());
   }
 
   @Override
@@ -60,11 +56,7 @@ public class UserProcessService implements IUserProcessService {
       throw new VetoException(TEXTS.get("AuthorizationFailed"));
     }
 
-    m_users.remove(ServerSession.get().getUserId());
-
-    BEANS.get(ClientNotificationRegistry.class).putForAllSessions(new RefreshBuddiesNotification());
-    BEANS.get(IClusterSynchronizationService.class).publishTransactional(new UnregisterUserNotification(ServerSession.get().getUserId()));
-
+    BEANS.get(ClusterPresenceSync.class).localUserLeft(ServerSession.get().getUserId());
   }
 
   @Override
@@ -92,7 +84,10 @@ public class UserProcessService implements IUserProcessService {
       }
     }
 
+    List<String> userNames = getUserNames(u_id);
+    SQL.delete("DELETE FROM TABUSERICONS WHERE username IN (SELECT username FROM TABUSERS WHERE u_id = :ids)", new NVPair("ids", u_id));
     SQL.delete("DELETE FROM TABUSERS WHERE u_id = :ids", new NVPair("ids", u_id));
+    userRolesChanged(userNames);
 
     //TODO [7.0] jbr: what to do if the deleted user is still logged in somewhere?
   }
@@ -105,8 +100,31 @@ public class UserProcessService implements IUserProcessService {
     UserUtility.checkUsername(formData.getUsername().getValue());
     UserUtility.checkPermissionId(formData.getUserRole().getValue());
 
+    List<String> userNames = getUserNames(Collections.singletonList(formData.getUserId()));
+    userNames.add(formData.getUsername().getValue());
+    SQL.update("UPDATE TABUSERICONS SET username = :newUsername WHERE username = (SELECT username FROM TABUSERS WHERE u_id = :uid)",
+        new NVPair("newUsername", formData.getUsername().getValue()), new NVPair("uid", formData.getUserId()));
     SQL.update("UPDATE TABUSERS SET username = :newUsername, permission_id = :newPermId WHERE u_id = :uid",
         new NVPair("newUsername", formData.getUsername().getValue()), new NVPair("newPermId", formData.getUserRole().getValue()), new NVPair("uid", formData.getUserId()));
+    userRolesChanged(userNames);
+  }
+
+  protected List<String> getUserNames(List<Long> userIds) {
+    Object[][] rows = SQL.select("SELECT username FROM TABUSERS WHERE u_id = :ids", new NVPair("ids", userIds));
+    List<String> userNames = new ArrayList<>(rows.length);
+    for (Object[] row : rows) {
+      userNames.add((String) row[0]);
+    }
+    return userNames;
+  }
+
+  /**
+   * Drops the cached roles of the given users on all cluster nodes once committed. The cluster notification is not
+   * delivered to this node, so its cache is invalidated by a transaction member.
+   */
+  protected void userRolesChanged(List<String> userNames) {
+    BEANS.get(UserRoleCache.class).invalidateTransactional(userNames);
+    BEANS.get(IClusterSynchronizationService.class).publishTransactional(new UserRoleChangedNotification(userNames));
   }
 
   @Override
@@ -125,26 +143,12 @@ public class UserProcessService implements IUserProcessService {
       throw new VetoException(TEXTS.get("AuthorizationFailed"));
     }
 
-    return Collections.unmodifiableSet(m_users);
+    return Collections.unmodifiableSet(BEANS.get(ClusterPresenceSync.class).getOnlineUsers());
   }
 
   @Override
   public ICode<Integer> getUserPermission() {
-    IntegerHolder ih = new IntegerHolder(0);
-    SQL.selectInto("SELECT permission_id FROM TABUSERS WHERE username = :username INTO :permission", new NVPair("username", ServerSession.get().getUserId()), new NVPair("permission", ih));
-
-    return BEANS.get(UserRoleCodeType.class).getCode(ih.getValue());
-  }
-
-  @Override
-  public void registerUserInternal(String userId) {
-    m_users.add(userId);
-    BEANS.get(ClientNotificationRegistry.class).putForAllSessions(new RefreshBuddiesNotification());
-  }
-
-  @Override
-  public void unregisterUserInternal(String userName) {
-    m_users.remove(ServerSession.get().getUserId());
-    BEANS.get(ClientNotificationRegistry.class).putForAllSessions(new RefreshBuddiesNotification());
+    Integer roleId = BEANS.get(UserRoleCache.class).getRoleId(ServerSession.get().getUserId());
+    return roleId == null ? null : BEANS.get(UserRoleCodeType.class).getCode(roleId);
   }
 }
@@ -18,7 +18,10 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.platform.exception.VetoException;
+import org.eclipse.scout.rt.platform.util.StringUtility;
 import org.eclipse.scout.rt.server.commons.servlet.cache.HttpCacheControl;
+import org.eclipsescout.demo.bahbah.server.util.AuthTokenIssuer;
 import org.eclipsescout.demo.bahbah.server.util.UserUtility;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,14 +35,36 @@ public class BahBahAuthenticationServlet extends HttpServlet {
    */
   public static final int MAX_LENGTH = 32;
 
+  /**
+   * Seconds a client is asked to wait if too many logins are processed.
+   */
+  public static final int RETRY_AFTER_SECONDS = 5;
+
+  public static final String USER_HEADER = "User";
+  public static final String PASS_HEADER = "Pass";
+  public static final String TOKEN_HEADER = "Token";
+
   @Override
   protected void doGet(HttpServletRequest req, HttpServletResponse res) throws ServletException, IOException {
     BEANS.get(HttpCacheControl.class).checkAndSetCacheHeaders(req, res, null);
     try {
-      String user = req.getHeader("User");
-      String pass = req.getHeader("Pass");
+      String user = req.getHeader(USER_HEADER);
+
+      // a valid token skips the password hash
+      String tokenUser = BEANS.get(AuthTokenIssuer.class).verify(req.getHeader(TOKEN_HEADER));
+      if (tokenUser != null && (user == null || tokenUser.equalsIgnoreCase(user))) {
+        //OK
+        return;
+      }
+
+      String pass = req.getHeader(PASS_HEADER);
+      if (StringUtility.length(user) > MAX_LENGTH || StringUtility.length(pass) > MAX_LENGTH) {
+        fail(req, res);
+        return;
+      }
       if (UserUtility.isValidUser(user, pass)) {
         //OK
+        res.setHeader(TOKEN_HEADER, BEANS.get(AuthTokenIssuer.class).issue(user));
         return;
       }
       else {
@@ -47,6 +72,13 @@ public class BahBahAuthenticationServlet extends HttpServlet {
         return;
       }
     }
+    catch (VetoException e) {
+      // too many logins in progress
+      logger.warn("Rejected login: {}", e.getMessage());
+      res.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      res.setHeader("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+      return;
+    }
     catch (RuntimeException e) {
       logger.error("Unexpected error", e);
       fail(req, res);
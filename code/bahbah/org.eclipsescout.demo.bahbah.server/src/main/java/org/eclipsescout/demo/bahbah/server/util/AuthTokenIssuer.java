@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.server.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.eclipse.scout.rt.platform.ApplicationScoped;
+import org.eclipse.scout.rt.platform.config.CONFIG;
+import org.eclipse.scout.rt.platform.exception.PlatformException;
+import org.eclipse.scout.rt.platform.util.Base64Utility;
+import org.eclipse.scout.rt.platform.util.StringUtility;
+import org.eclipsescout.demo.bahbah.server.ConfigProperties.AuthTokenTtlProperty;
+
+/**
+ * Issues short-lived tokens signed with HMAC-SHA256, so a client that passed the password check can authenticate again
+ * without another password hash.
+ * <p>
+ * A token has the form <code>base64(username).expiry.base64(signature)</code>. The key is created at startup, tokens are
+ * therefore only accepted by the server node that issued them and become invalid on restart.
+ */
+@ApplicationScoped
+public class AuthTokenIssuer {
+
+  private static final String MAC_ALGORITHM = "HmacSHA256";
+  private static final char SEPARATOR = '.';
+
+  private final SecretKeySpec m_key;
+
+  public AuthTokenIssuer() {
+    byte[] key = new byte[32];
+    new SecureRandom().nextBytes(key);
+    m_key = new SecretKeySpec(key, MAC_ALGORITHM);
+  }
+
+  public String issue(String username) {
+    long expiry = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(CONFIG.getPropertyValue(AuthTokenTtlProperty.class));
+    String payload = Base64Utility.encodeUrlSafe(username.getBytes(StandardCharsets.UTF_8)) + SEPARATOR + expiry;
+    return payload + SEPARATOR + Base64Utility.encodeUrlSafe(sign(payload));
+  }
+
+  /**
+   * @return the user name of a valid and not expired token, <code>null</code> otherwise
+   */
+  public String verify(String token) {
+    if (!StringUtility.hasText(token)) {
+      return null;
+    }
+    int signatureStart = token.lastIndexOf(SEPARATOR);
+    int expiryStart = signatureStart > 0 ? token.lastIndexOf(SEPARATOR, signatureStart - 1) : -1;
+    if (expiryStart <= 0) {
+      return null;
+    }
+
+    try {
+      String payload = token.substring(0, signatureStart);
+      byte[] signature = Base64Utility.decodeUrlSafe(token.substring(signatureStart + 1));
+      if (!MessageDigest.isEqual(sign(payload), signature)) {
+        return null;
+      }
+      if (Long.parseLong(token.substring(expiryStart + 1, signatureStart)) < System.currentTimeMillis()) {
+        return null;
+      }
+      return new String(Base64Utility.decodeUrlSafe(token.substring(0, expiryStart)), StandardCharsets.UTF_8);
+    }
+    catch (IllegalArgumentException e) {
+      // malformed token
+      return null;
+    }
+  }
+
+  protected byte[] sign(String payload) {
+    try {
+      Mac mac = Mac.getInstance(MAC_ALGORITHM);
+      mac.init(m_key);
+      return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+    catch (GeneralSecurityException e) {
+      throw new PlatformException("Could not sign auth token", e);
+    }
+  }
+}
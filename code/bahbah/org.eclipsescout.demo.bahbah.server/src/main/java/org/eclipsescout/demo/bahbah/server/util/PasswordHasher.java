@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.server.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.scout.rt.platform.ApplicationScoped;
+import org.eclipse.scout.rt.platform.config.CONFIG;
+import org.eclipse.scout.rt.platform.exception.PlatformException;
+import org.eclipse.scout.rt.platform.exception.VetoException;
+import org.eclipse.scout.rt.platform.job.IExecutionSemaphore;
+import org.eclipse.scout.rt.platform.job.IFuture;
+import org.eclipse.scout.rt.platform.job.Jobs;
+import org.eclipse.scout.rt.platform.security.SecurityUtility;
+import org.eclipse.scout.rt.platform.text.TEXTS;
+import org.eclipse.scout.rt.platform.util.Base64Utility;
+import org.eclipsescout.demo.bahbah.server.ConfigProperties.PasswordHashQueueSizeProperty;
+import org.eclipsescout.demo.bahbah.server.ConfigProperties.PasswordHashThreadsProperty;
+
+/**
+ * Computes the password hashes in background jobs, so a burst of logins cannot occupy all request threads with
+ * hashing.
+ * <p>
+ * At most {@link PasswordHashThreadsProperty} hashes are computed in parallel. If {@link PasswordHashQueueSizeProperty}
+ * hashes are waiting or running already, further requests are rejected. Concurrent checks of the same user and password
+ * share one hash computation.
+ */
+@ApplicationScoped
+public class PasswordHasher {
+
+  public static final int HASH_ITERATIONS = 20000;
+
+  private final IExecutionSemaphore m_semaphore = Jobs.newExecutionSemaphore(CONFIG.getPropertyValue(PasswordHashThreadsProperty.class));
+  private final ConcurrentMap<String, IFuture<Boolean>> m_pendingChecks = new ConcurrentHashMap<>();
+  private final AtomicInteger m_queueDepth = new AtomicInteger();
+  private final AtomicLong m_rejectedCount = new AtomicLong();
+  private final AtomicLong m_sharedCheckCount = new AtomicLong();
+
+  /**
+   * @throws VetoException
+   *           if too many hashes are queued
+   */
+  public byte[] hash(char[] password, byte[] salt) {
+    return submit("Hashing password", () -> SecurityUtility.hashPassword(password, salt, HASH_ITERATIONS)).awaitDoneAndGet();
+  }
+
+  /**
+   * @return <code>true</code> if the password hashed with the given salt equals the expected hash
+   * @throws VetoException
+   *           if too many hashes are queued
+   */
+  public boolean verify(String username, String password, byte[] expectedHash, byte[] salt) {
+    String key = toCheckKey(username, password, salt);
+    boolean[] created = new boolean[1];
+    IFuture<Boolean> future = m_pendingChecks.computeIfAbsent(key, k -> {
+      created[0] = true;
+      return submit("Checking password of " + username, () -> MessageDigest.isEqual(SecurityUtility.hashPassword(password.toCharArray(), salt, HASH_ITERATIONS), expectedHash));
+    });
+
+    if (created[0]) {
+      future.whenDone(event -> m_pendingChecks.remove(key, future), null);
+    }
+    else {
+      m_sharedCheckCount.incrementAndGet();
+    }
+    return future.awaitDoneAndGet();
+  }
+
+  /**
+   * @return key of concurrent checks of the same user, password and salt. Contains a single SHA-256 digest instead of
+   *         the password, so computing it costs nothing compared to the iterated hash.
+   */
+  protected static String toCheckKey(String username, String password, byte[] salt) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(salt);
+      digest.update(password.getBytes(StandardCharsets.UTF_8));
+      return username.toUpperCase(Locale.ROOT) + '\n' + Base64Utility.encode(digest.digest());
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new PlatformException("SHA-256 not supported", e);
+    }
+  }
+
+  protected <T> IFuture<T> submit(String name, Callable<T> task) {
+    if (m_queueDepth.incrementAndGet() > CONFIG.getPropertyValue(PasswordHashQueueSizeProperty.class)) {
+      m_queueDepth.decrementAndGet();
+      m_rejectedCount.incrementAndGet();
+      throw new VetoException(TEXTS.get("TooManyLoginAttempts"));
+    }
+
+    IFuture<T> future = Jobs.schedule(task, Jobs.newInput()
+        .withName(name)
+        .withExecutionSemaphore(m_semaphore)
+        .withExceptionHandling(null, false));
+    future.whenDone(event -> m_queueDepth.decrementAndGet(), null);
+    return future;
+  }
+
+  /**
+   * @return number of hashes waiting or running
+   */
+  public int getQueueDepth() {
+    return m_queueDepth.get();
+  }
+
+  /**
+   * @return number of requests rejected because the queue was full
+   */
+  public long getRejectedCount() {
+    return m_rejectedCount.get();
+  }
+
+  /**
+   * @return number of password checks answered by a check already running for the same user and password
+   */
+  public long getSharedCheckCount() {
+    return m_sharedCheckCount.get();
+  }
+}
@@ -10,10 +10,7 @@
  ******************************************************************************/
 package org.eclipsescout.demo.bahbah.server.util;
 
-import java.nio.charset.StandardCharsets;
-import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
-
+import org.eclipse.scout.rt.platform.BEANS;
 import org.eclipse.scout.rt.platform.exception.VetoException;
 import org.eclipse.scout.rt.platform.holders.NVPair;
 import org.eclipse.scout.rt.platform.holders.StringHolder;
@@ -27,8 +24,6 @@ import org.eclipsescout.demo.bahbah.shared.util.SharedUserUtility;
 
 public class UserUtility extends SharedUserUtility {
 
-  private static final int HASH_ITERATIONS = 20000;
-
   public static boolean createNewUser(String username, char[] password) {
     return createNewUser(username, password, UserCode.ID);
   }
@@ -39,7 +34,7 @@ public class UserUtility extends SharedUserUtility {
     checkPermissionId(permission);
 
     byte[] bSalt = SecurityUtility.createRandomBytes();
-    byte[] bHash = SecurityUtility.hashPassword(password, bSalt, HASH_ITERATIONS);
+    byte[] bHash = BEANS.get(PasswordHasher.class).hash(password, bSalt);
 
     String salt = Base64Utility.encode(bSalt);
     String digest = Base64Utility.encode(bHash);
@@ -64,7 +59,7 @@ public class UserUtility extends SharedUserUtility {
     }
 
     byte[] bSalt = SecurityUtility.createRandomBytes();
-    byte[] bHash = SecurityUtility.hashPassword(newPassword, bSalt, HASH_ITERATIONS);
+    byte[] bHash = BEANS.get(PasswordHasher.class).hash(newPassword, bSalt);
 
     String salt = Base64Utility.encode(bSalt);
     String digest = Base64Utility.encode(bHash);
@@ -72,7 +67,17 @@ public class UserUtility extends SharedUserUtility {
     SQL.update("UPDATE TABUSERS SET pass = :newPass, salt = :newSalt WHERE u_id = :uid", new NVPair("newPass", digest), new NVPair("newSalt", salt), new NVPair("uid", u_Id));
   }
 
+  /**
+   * Checks the password of the user. The hash is computed by the {@link PasswordHasher}.
+   *
+   * @throws VetoException
+   *           if too many password checks are queued
+   */
   public static boolean isValidUser(String username, String password) {
+    if (username == null || password == null) {
+      return false;
+    }
+
     StringHolder passHolder = new StringHolder();
     StringHolder saltHolder = new StringHolder();
     SQL.selectInto("SELECT pass, salt FROM TABUSERS WHERE UPPER(USERNAME) = UPPER(:username) INTO :pass, :salt",
@@ -89,26 +94,6 @@ public class UserUtility extends SharedUserUtility {
       password = "dummy";
       salt = "c29tZXNhbHQ=";
     }
-    return areEqual(pass, password, salt);
-  }
-
-  /**
-   * Checks if the given two passwords have equal hashes using the given salt.
-   *
-   * @param pass1
-   *          String containing the Base64 encoded password hash to check against.
-   * @param pass2
-   *          String containing the clear text password to check.
-   * @param salt
-   *          The salt (Base64 encoded) to use for hashing.
-   * @return True if the hash of pass2 is equal with pass1 using the given salt.
-   * @throws NoSuchAlgorithmException
-   */
-  private static boolean areEqual(String pass1, String pass2, String salt) {
-    byte[] bPass = Base64Utility.decode(pass1);
-    byte[] bSalt = Base64Utility.decode(salt);
-    byte[] bInput = SecurityUtility.hash(pass2.getBytes(StandardCharsets.UTF_8), bSalt);
-
-    return Arrays.equals(bInput, bPass);
+    return BEANS.get(PasswordHasher.class).verify(username, password, Base64Utility.decode(pass), Base64Utility.decode(salt));
   }
 }
@@ -0,0 +1,102 @@
+package org.eclipsescout.demo.bahbah.server.services.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipsescout.demo.bahbah.shared.notification.PresenceDeltaNotification;
+import org.junit.Test;
+
+/**
+ * Tests for {@link PresenceNotificationCoalescer} with two nodes, each with its own coalescer
+ */
+public class PresenceNotificationCoalescerTest {
+
+  @Test
+  public void testEachNodeNumbersAndSendsItsOwnNotifications() {
+    TestCoalescer nodeA = new TestCoalescer("A");
+    TestCoalescer nodeB = new TestCoalescer("B");
+
+    nodeA.userJoined("alice");
+    nodeA.flush();
+    nodeB.userJoined("alice");
+    nodeB.userJoined("bob");
+    nodeB.flush();
+    nodeA.userJoined("bob");
+    nodeA.flush();
+    nodeB.userLeft("alice");
+    nodeB.flush();
+
+    assertNotifications(nodeA, "A", 2);
+    assertNotifications(nodeB, "B", 2);
+    assertEquals(Collections.singleton("bob"), nodeA.m_sent.get(1).getJoinedUserIds());
+    assertEquals(Collections.singleton("alice"), nodeB.m_sent.get(1).getLeftUserIds());
+    assertEquals(2, nodeA.getSequence());
+    assertEquals(2, nodeB.getSequence());
+  }
+
+  @Test
+  public void testChangesWithinWindowAreCoalesced() {
+    TestCoalescer node = new TestCoalescer("A");
+
+    node.userJoined("alice");
+    node.userLeft("alice");
+    node.userJoined("bob");
+    node.flush();
+
+    assertNotifications(node, "A", 1);
+    assertEquals(Collections.singleton("bob"), node.m_sent.get(0).getJoinedUserIds());
+    assertTrue(node.m_sent.get(0).getLeftUserIds().isEmpty());
+  }
+
+  @Test
+  public void testNothingSentWithoutChange() {
+    TestCoalescer node = new TestCoalescer("A");
+    node.userLeft("alice");
+    node.userJoined("alice");
+    node.flush();
+
+    assertTrue(node.m_sent.isEmpty());
+    assertEquals(0, node.getSequence());
+  }
+
+  /**
+   * The notifications of a node have the node id and consecutive sequence numbers starting at 1, so a client of the
+   * node never skips one.
+   */
+  private static void assertNotifications(TestCoalescer node, String nodeId, int count) {
+    assertEquals(count, node.m_sent.size());
+    for (int i = 0; i < count; i++) {
+      assertEquals(nodeId, node.m_sent.get(i).getNodeId());
+      assertEquals(i + 1, node.m_sent.get(i).getSequence());
+    }
+  }
+
+  private static class TestCoalescer extends PresenceNotificationCoalescer {
+
+    private final String m_nodeId;
+    private final List<PresenceDeltaNotification> m_sent = new ArrayList<>();
+
+    TestCoalescer(String nodeId) {
+      m_nodeId = nodeId;
+    }
+
+    @Override
+    public String getNodeId() {
+      return m_nodeId;
+    }
+
+    @Override
+    protected void scheduleFlush() {
+      // flushed by the test
+    }
+
+    @Override
+    protected void send(PresenceDeltaNotification notification) {
+      m_sent.add(notification);
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package org.eclipsescout.demo.bahbah.server.services.presence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipsescout.demo.bahbah.server.services.presence.PresenceTable.PresenceChange;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ClusterPresenceSync} with several nodes connected within the JVM
+ */
+public class ClusterPresenceSyncTest {
+
+  private static final long INTERVAL = 1000;
+
+  private Cluster m_cluster;
+  private TestNode m_nodeA;
+  private TestNode m_nodeB;
+  private TestNode m_nodeC;
+
+  @Before
+  public void before() {
+    m_cluster = new Cluster();
+    m_nodeA = m_cluster.start("A");
+    m_nodeB = m_cluster.start("B");
+    m_nodeA.localUserJoined("alice");
+    m_nodeB.localUserJoined("bob");
+    m_cluster.rounds(2);
+  }
+
+  @Test
+  public void testSnapshotsOnStart() {
+    assertOnline(m_nodeA, "alice", "bob");
+    assertOnline(m_nodeB, "alice", "bob");
+
+    // a node started later asks the others for snapshots with its first heartbeat
+    m_nodeC = m_cluster.start("C");
+    m_cluster.round();
+    m_cluster.round();
+    assertOnline(m_nodeC, "alice", "bob");
+    assertEquals(new HashSet<>(Arrays.asList("A", "B", "C")), m_nodeC.getNodeIds());
+  }
+
+  @Test
+  public void testDelta() {
+    m_nodeA.localUserJoined("carol");
+    m_nodeB.localUserLeft("bob");
+    m_cluster.round();
+
+    assertFalse(m_cluster.lastPublished("A").isSnapshot());
+    assertFalse(m_cluster.lastPublished("B").isSnapshot());
+    assertOnline(m_nodeA, "alice", "carol");
+    assertOnline(m_nodeB, "alice", "carol");
+  }
+
+  @Test
+  public void testMissedDeltaIsRepairedBySnapshot() {
+    m_nodeA.localUserJoined("dave");
+    m_cluster.m_lost = true;
+    m_nodeA.heartbeat();
+    m_cluster.m_lost = false;
+    m_nodeA.localUserJoined("eve");
+    m_nodeA.heartbeat();
+    assertOnline(m_nodeB, "alice", "bob");
+
+    // B asks for a snapshot, A sends it with its next heartbeat
+    m_nodeB.heartbeat();
+    assertTrue(m_cluster.lastPublished("B").isSnapshotRequested());
+    m_nodeA.heartbeat();
+    assertTrue(m_cluster.lastPublished("A").isSnapshot());
+    assertOnline(m_nodeB, "alice", "bob", "dave", "eve");
+  }
+
+  @Test
+  public void testRestartReplacesPartition() {
+    m_nodeA.localUserJoined("carol");
+    m_cluster.round();
+    assertOnline(m_nodeB, "alice", "bob", "carol");
+
+    // A restarts with a new epoch, carol did not log in again
+    TestNode restartedA = m_cluster.restart("A");
+    restartedA.localUserJoined("alice");
+    m_cluster.round();
+    m_cluster.round();
+
+    assertOnline(m_nodeB, "alice", "bob");
+    assertOnline(restartedA, "alice", "bob");
+  }
+
+  @Test
+  public void testSilentNodeExpires() {
+    m_nodeC = m_cluster.start("C");
+    m_cluster.rounds(2);
+    assertOnline(m_nodeC, "alice", "bob");
+
+    m_cluster.stop("A");
+    for (int i = 0; i <= ClusterPresenceSync.EXPIRY_HEARTBEATS; i++) {
+      m_cluster.round();
+    }
+
+    assertOnline(m_nodeB, "bob");
+    assertOnline(m_nodeC, "bob");
+    assertEquals(new HashSet<>(Arrays.asList("B", "C")), m_nodeC.getNodeIds());
+  }
+
+  @Test
+  public void testUserOnTwoNodesStaysOnline() {
+    m_nodeB.localUserJoined("alice");
+    m_nodeA.localUserLeft("alice");
+    m_cluster.round();
+
+    assertOnline(m_nodeA, "alice", "bob");
+    assertOnline(m_nodeB, "alice", "bob");
+  }
+
+  /**
+   * Checks both the presence table and the changes passed to the sessions of the node
+   */
+  private static void assertOnline(TestNode node, String... userIds) {
+    Set<String> expected = new HashSet<>(Arrays.asList(userIds));
+    assertEquals(expected, node.getOnlineUsers());
+    assertEquals(expected, node.m_notifiedOnline);
+  }
+
+  private static class Cluster {
+
+    private final List<TestNode> m_nodes = new ArrayList<>();
+    private final List<PresenceHeartbeatNotification> m_published = new ArrayList<>();
+    private long m_now = 1000000;
+    private long m_nextEpoch = 1;
+    private boolean m_lost;
+
+    TestNode start(String nodeId) {
+      TestNode node = new TestNode(this, nodeId, m_nextEpoch++);
+      m_nodes.add(node);
+      return node;
+    }
+
+    TestNode restart(String nodeId) {
+      stop(nodeId);
+      return start(nodeId);
+    }
+
+    void stop(String nodeId) {
+      m_nodes.removeIf(node -> node.m_nodeId.equals(nodeId));
+    }
+
+    /**
+     * One heartbeat interval: every node publishes its heartbeat.
+     */
+    void round() {
+      m_now += INTERVAL;
+      for (TestNode node : new ArrayList<>(m_nodes)) {
+        node.heartbeat();
+      }
+    }
+
+    void rounds(int count) {
+      for (int i = 0; i < count; i++) {
+        round();
+      }
+    }
+
+    void publish(TestNode sender, PresenceHeartbeatNotification heartbeat) {
+      m_published.add(heartbeat);
+      if (m_lost) {
+        return;
+      }
+      for (TestNode node : new ArrayList<>(m_nodes)) {
+        if (node != sender) {
+          node.onHeartbeat(heartbeat);
+        }
+      }
+    }
+
+    PresenceHeartbeatNotification lastPublished(String nodeId) {
+      for (int i = m_published.size() - 1; i >= 0; i--) {
+        if (m_published.get(i).getNodeId().equals(nodeId)) {
+          return m_published.get(i);
+        }
+      }
+      return null;
+    }
+  }
+
+  private static class TestNode extends ClusterPresenceSync {
+
+    private final Cluster m_cluster;
+    private final String m_nodeId;
+    /**
+     * Online users as notified to the sessions of this node
+     */
+    private final Set<String> m_notifiedOnline = new HashSet<>();
+
+    TestNode(Cluster cluster, String nodeId, long epoch) {
+      m_cluster = cluster;
+      m_nodeId = nodeId;
+      init(nodeId, epoch);
+    }
+
+    @Override
+    protected void publish(PresenceHeartbeatNotification heartbeat) {
+      m_cluster.publish(this, heartbeat);
+    }
+
+    @Override
+    protected void fireChange(PresenceChange change) {
+      m_notifiedOnline.addAll(change.getJoined());
+      m_notifiedOnline.removeAll(change.getLeft());
+    }
+
+    @Override
+    protected long now() {
+      return m_cluster.m_now;
+    }
+
+    @Override
+    protected long getHeartbeatInterval() {
+      return INTERVAL;
+    }
+  }
+}
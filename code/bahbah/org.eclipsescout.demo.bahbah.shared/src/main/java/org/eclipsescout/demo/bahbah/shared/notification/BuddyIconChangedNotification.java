@@ -8,21 +8,30 @@
  * Contributors:
  *     BSI Business Systems Integration AG - initial API and implementation
  ******************************************************************************/
-package org.eclipsescout.demo.bahbah.server.services.notification;
+package org.eclipsescout.demo.bahbah.shared.notification;
 
 import java.io.Serializable;
 
-public class RegisterUserNotification implements Serializable {
+/**
+ * Sent to all clients when a user uploaded a new avatar, so cached copies of older versions are dropped.
+ */
+public class BuddyIconChangedNotification implements Serializable {
+
+  private static final long serialVersionUID = 1L;
 
-  private static final long serialVersionUID = -8987801608205820581L;
   private final String m_userName;
+  private final long m_version;
 
-  public RegisterUserNotification(String username) {
-    m_userName = username;
+  public BuddyIconChangedNotification(String userName, long version) {
+    m_userName = userName;
+    m_version = version;
   }
 
   public String getUserName() {
     return m_userName;
   }
 
+  public long getVersion() {
+    return m_version;
+  }
 }
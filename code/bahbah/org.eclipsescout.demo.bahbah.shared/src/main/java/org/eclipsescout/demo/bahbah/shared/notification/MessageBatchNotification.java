@@ -11,30 +11,39 @@
 package org.eclipsescout.demo.bahbah.shared.notification;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
-public class MessageNotification implements Serializable {
+import org.eclipsescout.demo.bahbah.shared.services.process.ChatMessage;
+
+/**
+ * Chat messages to one recipient, collected during a short window and delivered together.
+ */
+public class MessageBatchNotification implements Serializable {
 
   private static final long serialVersionUID = 1L;
 
-  private final String m_message;
-  private final String m_sender;
+  private final List<ChatMessage> m_messages;
   private final String m_originalServerNode;
 
-  public MessageNotification(String senderName, String message, String originalServerNode) {
-    m_sender = senderName;
-    m_message = message;
+  public MessageBatchNotification(List<ChatMessage> messages, String originalServerNode) {
+    m_messages = new ArrayList<>(messages);
     m_originalServerNode = originalServerNode;
   }
 
-  public String getMessage() {
-    return m_message;
-  }
-
-  public String getSenderName() {
-    return m_sender;
+  /**
+   * @return the messages in the order they were sent
+   */
+  public List<ChatMessage> getMessages() {
+    return m_messages;
   }
 
   public String getOriginalServerNode() {
     return m_originalServerNode;
   }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[messages=" + m_messages.size() + ", node=" + m_originalServerNode + "]";
+  }
 }
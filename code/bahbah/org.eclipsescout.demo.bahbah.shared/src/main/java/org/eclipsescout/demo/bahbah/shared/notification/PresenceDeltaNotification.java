@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.shared.notification;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Users that went online or offline since the previous notification. Each server node numbers its own notifications
+ * and only sends them to its own sessions. The sequence number is incremented by one for each notification of a node,
+ * so a client detects missed notifications, or notifications of another node, and reloads the full list of online
+ * users instead.
+ */
+public class PresenceDeltaNotification implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String m_nodeId;
+  private final long m_sequence;
+  private final Set<String> m_joinedUserIds;
+  private final Set<String> m_leftUserIds;
+
+  public PresenceDeltaNotification(String nodeId, long sequence, Set<String> joinedUserIds, Set<String> leftUserIds) {
+    m_nodeId = nodeId;
+    m_sequence = sequence;
+    m_joinedUserIds = Collections.unmodifiableSet(new LinkedHashSet<>(joinedUserIds));
+    m_leftUserIds = Collections.unmodifiableSet(new LinkedHashSet<>(leftUserIds));
+  }
+
+  /**
+   * @return the server node that numbered this notification
+   */
+  public String getNodeId() {
+    return m_nodeId;
+  }
+
+  public long getSequence() {
+    return m_sequence;
+  }
+
+  public Set<String> getJoinedUserIds() {
+    return m_joinedUserIds;
+  }
+
+  public Set<String> getLeftUserIds() {
+    return m_leftUserIds;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[nodeId=" + m_nodeId + ", sequence=" + m_sequence + ", joined=" + m_joinedUserIds + ", left=" + m_leftUserIds + "]";
+  }
+}
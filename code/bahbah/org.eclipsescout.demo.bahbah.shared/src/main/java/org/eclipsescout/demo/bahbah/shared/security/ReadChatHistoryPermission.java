@@ -8,11 +8,15 @@
  * Contributors:
  *     BSI Business Systems Integration AG - initial API and implementation
  ******************************************************************************/
-package org.eclipsescout.demo.bahbah.shared.notification;
+package org.eclipsescout.demo.bahbah.shared.security;
 
-import java.io.Serializable;
+import java.security.BasicPermission;
 
-public class RefreshBuddiesNotification implements Serializable {
-  private static final long serialVersionUID = 1L;
+public class ReadChatHistoryPermission extends BasicPermission {
 
+  private static final long serialVersionUID = 0L;
+
+  public ReadChatHistoryPermission() {
+    super(ReadChatHistoryPermission.class.getName());
+  }
 }
@@ -17,4 +17,9 @@ import org.eclipse.scout.rt.shared.TunnelToServer;
 public interface IStandardOutlineService extends IService {
 
   String[] getOnlineUsers();
+
+  /**
+   * @return the users online except the current one, along with the current presence sequence number
+   */
+  PresenceSnapshot getOnlinePresence();
 }
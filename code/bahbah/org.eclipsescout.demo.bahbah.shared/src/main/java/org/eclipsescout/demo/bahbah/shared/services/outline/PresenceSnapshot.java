@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.shared.services.outline;
+
+import java.io.Serializable;
+
+/**
+ * The users online at the time the {@link #getSequence() presence sequence} of a server node was reached. Presence
+ * delta notifications of the same node with a higher sequence number are applied on top of it.
+ */
+public class PresenceSnapshot implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String m_nodeId;
+  private final long m_sequence;
+  private final String[] m_userIds;
+
+  public PresenceSnapshot(String nodeId, long sequence, String[] userIds) {
+    m_nodeId = nodeId;
+    m_sequence = sequence;
+    m_userIds = userIds;
+  }
+
+  public String getNodeId() {
+    return m_nodeId;
+  }
+
+  public long getSequence() {
+    return m_sequence;
+  }
+
+  public String[] getUserIds() {
+    return m_userIds;
+  }
+}
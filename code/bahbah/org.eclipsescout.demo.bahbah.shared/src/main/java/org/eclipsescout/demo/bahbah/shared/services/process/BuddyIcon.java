@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.shared.services.process;
+
+import java.io.Serializable;
+
+/**
+ * The avatar of a user along with its version. The version is incremented whenever the user uploads a new avatar.
+ */
+public class BuddyIcon implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String m_userName;
+  private final long m_version;
+  private final byte[] m_content;
+
+  public BuddyIcon(String userName, long version, byte[] content) {
+    m_userName = userName;
+    m_version = version;
+    m_content = content;
+  }
+
+  public String getUserName() {
+    return m_userName;
+  }
+
+  public long getVersion() {
+    return m_version;
+  }
+
+  /**
+   * @return the image or <code>null</code> if the user has not uploaded an avatar yet
+   */
+  public byte[] getContent() {
+    return m_content;
+  }
+}
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.shared.services.process;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * A message of the chat log.
+ */
+public class ChatMessage implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final long m_offset;
+  private final String m_senderName;
+  private final String m_receiverName;
+  private final Date m_date;
+  private final String m_message;
+
+  public ChatMessage(long offset, String senderName, String receiverName, Date date, String message) {
+    m_offset = offset;
+    m_senderName = senderName;
+    m_receiverName = receiverName;
+    m_date = date;
+    m_message = message;
+  }
+
+  /**
+   * @return position of the message in the chat log. Later messages have larger offsets.
+   */
+  public long getOffset() {
+    return m_offset;
+  }
+
+  public String getSenderName() {
+    return m_senderName;
+  }
+
+  public String getReceiverName() {
+    return m_receiverName;
+  }
+
+  public Date getDate() {
+    return m_date;
+  }
+
+  public String getMessage() {
+    return m_message;
+  }
+}
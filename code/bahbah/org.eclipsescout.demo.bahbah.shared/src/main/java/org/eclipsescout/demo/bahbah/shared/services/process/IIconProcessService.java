@@ -10,13 +10,43 @@
  ******************************************************************************/
 package org.eclipsescout.demo.bahbah.shared.services.process;
 
+import java.util.Collection;
+import java.util.Map;
+
 import org.eclipse.scout.rt.platform.service.IService;
 import org.eclipse.scout.rt.shared.TunnelToServer;
 
 @TunnelToServer
 public interface IIconProcessService extends IService {
 
+  /**
+   * Sizes in pixels of the stored avatar renditions.
+   */
+  int[] ICON_SIZES = {16, 32, 64};
+
   byte[] loadIcon(String name);
 
-  void saveIcon(byte[] icon);
+  /**
+   * Loads the avatars of several users with one call.
+   *
+   * @return the avatars by user name. Users that do not exist are missing in the map.
+   */
+  Map<String, BuddyIcon> loadIcons(Collection<String> names);
+
+  /**
+   * @return the avatar of the given user scaled to the given size (see {@link #ICON_SIZES}) or <code>null</code>
+   */
+  byte[] loadIcon(String name, int size);
+
+  /**
+   * Queues the upload for validation and scaling. Returns immediately, the new avatar is visible once processed.
+   *
+   * @return {@link IconUploadState#PENDING}
+   */
+  IconUploadState saveIcon(byte[] icon);
+
+  /**
+   * @return the processing state of the last avatar uploaded by the current user
+   */
+  IconUploadState getIconUploadState();
 }
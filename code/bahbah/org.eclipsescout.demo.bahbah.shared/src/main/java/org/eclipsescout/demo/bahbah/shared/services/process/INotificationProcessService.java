@@ -10,6 +10,8 @@
  ******************************************************************************/
 package org.eclipsescout.demo.bahbah.shared.services.process;
 
+import java.util.List;
+
 import org.eclipse.scout.rt.platform.service.IService;
 import org.eclipse.scout.rt.shared.TunnelToServer;
 
@@ -18,5 +20,31 @@ public interface INotificationProcessService extends IService {
 
   int MESSAGE_MAX_LENGTH = 5000;
 
-  void sendMessage(String buddyName, String message);
+  /**
+   * Maximum number of messages returned by {@link #loadHistory(String, long, int)}.
+   */
+  int HISTORY_MAX_PAGE_SIZE = 200;
+
+  /**
+   * Offset for {@link #loadHistory(String, long, int)} to load the latest messages.
+   */
+  long HISTORY_LATEST = Long.MAX_VALUE;
+
+  /**
+   * Stores the message in the chat log and sends it to the buddy.
+   *
+   * @return the stored message
+   */
+  ChatMessage sendMessage(String buddyName, String message);
+
+  /**
+   * Loads a page of the conversation between the current user and the given buddy.
+   *
+   * @param beforeOffset
+   *          only messages with a smaller offset are returned, use {@link #HISTORY_LATEST} for the latest page
+   * @param limit
+   *          maximum number of messages, at most {@link #HISTORY_MAX_PAGE_SIZE}
+   * @return the messages ordered from oldest to latest
+   */
+  List<ChatMessage> loadHistory(String buddyName, long beforeOffset, int limit);
 }
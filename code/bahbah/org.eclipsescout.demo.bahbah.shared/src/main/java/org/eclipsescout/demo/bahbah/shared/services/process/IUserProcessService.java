@@ -38,8 +38,4 @@ public interface IUserProcessService extends IService {
   void updateUser(UserFormData formData);
 
   UserAdministrationTablePageData getUserAdministrationTableData(UserFormData formData);
-
-  void registerUserInternal(String userId);
-
-  void unregisterUserInternal(String userName);
 }
@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipsescout.demo.bahbah.shared.services.process;
+
+/**
+ * Processing state of the last avatar uploaded by a user.
+ */
+public enum IconUploadState {
+  /**
+   * No upload since the server started.
+   */
+  NONE,
+  /**
+   * The upload is queued or being processed.
+   */
+  PENDING,
+  /**
+   * All renditions are stored.
+   */
+  DONE,
+  /**
+   * The upload is not a valid image.
+   */
+  FAILED
+}
@@ -10,6 +10,10 @@
  ******************************************************************************/
 package org.eclipse.scout.contacts.client;
 
+import java.io.File;
+
+import org.eclipse.scout.rt.platform.config.AbstractPositiveIntegerConfigProperty;
+import org.eclipse.scout.rt.platform.config.AbstractPositiveLongConfigProperty;
 import org.eclipse.scout.rt.platform.config.AbstractStringConfigProperty;
 
 public final class ConfigProperties {
@@ -29,4 +33,161 @@ public final class ConfigProperties {
       return "User domain";
     }
   }
+
+  public static class PersonPageSizeProperty extends AbstractPositiveIntegerConfigProperty {
+
+    @Override
+    public Integer getDefaultValue() {
+      return 200;
+    }
+
+    @Override
+    public String getKey() {
+      return "contacts.person.pageSize";
+    }
+
+    @Override
+    public String description() {
+      return "Number of persons loaded at once into the person table page. Further pages are loaded on demand. 0 loads all persons at once. The default value is 200.";
+    }
+  }
+
+  public static class ImageDisplaySizeProperty extends AbstractPositiveIntegerConfigProperty {
+
+    @Override
+    public Integer getDefaultValue() {
+      return 400;
+    }
+
+    @Override
+    public String getKey() {
+      return "contacts.image.displaySize";
+    }
+
+    @Override
+    public String description() {
+      return "Maximum width and height in pixels of the pictures shown in the contact forms. Larger pictures are downscaled before they are cached. The default value is 400.";
+    }
+  }
+
+  public static class ImageConnectTimeoutProperty extends AbstractPositiveIntegerConfigProperty {
+
+    @Override
+    public Integer getDefaultValue() {
+      return 5000;
+    }
+
+    @Override
+    public String getKey() {
+      return "contacts.image.connectTimeout";
+    }
+
+    @Override
+    public String description() {
+      return "Connect timeout in milliseconds when downloading a picture. The default value is 5000.";
+    }
+  }
+
+  public static class ImageReadTimeoutProperty extends AbstractPositiveIntegerConfigProperty {
+
+    @Override
+    public Integer getDefaultValue() {
+      return 10000;
+    }
+
+    @Override
+    public String getKey() {
+      return "contacts.image.readTimeout";
+    }
+
+    @Override
+    public String description() {
+      return "Read timeout in milliseconds when downloading a picture. The default value is 10000.";
+    }
+  }
+
+  public static class ImageMemoryCacheSizeProperty extends AbstractPositiveLongConfigProperty {
+
+    @Override
+    public Long getDefaultValue() {
+      return 16L * 1024 * 1024;
+    }
+
+    @Override
+    public String getKey() {
+      return "contacts.image.memoryCacheSize";
+    }
+
+    @Override
+    public String description() {
+      return "Maximum number of bytes of downscaled pictures kept in memory. The least recently used pictures are evicted first. The default value is 16 MB.";
+    }
+  }
+
+  public static class ImageCacheDirectoryProperty extends AbstractStringConfigProperty {
+
+    @Override
+    public String getDefaultValue() {
+      return new File(System.getProperty("java.io.tmpdir"), "contacts-image-cache").getAbsolutePath();
+    }
+
+    @Override
+    public String getKey() {
+      return "contacts.image.cacheDirectory";
+    }
+
+    @Override
+    public String description() {
+      return "Directory of the on-disk picture cache. The default value is the folder 'contacts-image-cache' in the temp directory.";
+    }
+  }
+
+  public static class ImageCacheMaxAgeProperty extends AbstractPositiveLongConfigProperty {
+
+    @Override
+    public Long getDefaultValue() {
+      return 24L * 60 * 60;
+    }
+
+    @Override
+    public String getKey() {
+      return "contacts.image.cacheMaxAge";
+    }
+
+    @Override
+    public String description() {
+      return "Number of seconds a picture of the on-disk cache is used without asking the remote server whether it changed. The default value is one day.";
+    }
+  }
+
+  public static class MapTileDirectoryProperty extends AbstractStringConfigProperty {
+
+    @Override
+    public String getKey() {
+      return "contacts.map.tileDirectory";
+    }
+
+    @Override
+    public String description() {
+      return "Directory of an offline map tile set in the layout {zoom}/{x}/{y}.png. Without tile set the maps show the location on an empty grid.";
+    }
+  }
+
+  public static class MapCacheSizeProperty extends AbstractPositiveIntegerConfigProperty {
+
+    @Override
+    public Integer getDefaultValue() {
+      return 100;
+    }
+
+    @Override
+    public String getKey() {
+      return "contacts.map.cacheSize";
+    }
+
+    @Override
+    public String description() {
+      return "Maximum number of rendered maps kept in memory. The default value is 100.";
+    }
+  }
 }
@@ -4,21 +4,28 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Set;
 
+import org.eclipse.scout.contacts.client.ConfigProperties.ImageDisplaySizeProperty;
 import org.eclipse.scout.contacts.client.Icons;
 import org.eclipse.scout.contacts.shared.common.AbstractUrlImageFieldData;
+import org.eclipse.scout.rt.client.context.ClientRunContext;
+import org.eclipse.scout.rt.client.context.ClientRunContexts;
 import org.eclipse.scout.rt.client.dto.FormData;
 import org.eclipse.scout.rt.client.dto.FormData.DefaultSubtypeSdkCommand;
 import org.eclipse.scout.rt.client.dto.FormData.SdkCommand;
+import org.eclipse.scout.rt.client.job.ModelJobs;
 import org.eclipse.scout.rt.client.ui.action.menu.AbstractMenu;
 import org.eclipse.scout.rt.client.ui.action.menu.IMenuType;
 import org.eclipse.scout.rt.client.ui.action.menu.ImageFieldMenuType;
 import org.eclipse.scout.rt.client.ui.form.fields.imagefield.AbstractImageField;
+import org.eclipse.scout.rt.platform.BEANS;
 import org.eclipse.scout.rt.platform.Order;
+import org.eclipse.scout.rt.platform.config.CONFIG;
 import org.eclipse.scout.rt.platform.status.IStatus;
 import org.eclipse.scout.rt.platform.status.Status;
 import org.eclipse.scout.rt.platform.text.TEXTS;
 import org.eclipse.scout.rt.platform.util.CollectionUtility;
 import org.eclipse.scout.rt.platform.util.IOUtility;
+import org.eclipse.scout.rt.platform.util.ObjectUtility;
 import org.eclipse.scout.rt.platform.util.StringUtility;
 
 // tag::template[]
@@ -95,6 +102,12 @@ public class AbstractUrlImageField extends AbstractImageField {
   // tag::template[]
 
   protected void updateImage() {
+    // end::template[]
+    if (isLoadImageInBackground()) {
+      updateImageInBackground();
+      return;
+    }
+    // tag::template[]
     clearErrorStatus();
 
     if (url == null) {
@@ -117,6 +130,79 @@ public class AbstractUrlImageField extends AbstractImageField {
 
     getForm().touch();
   }
+  // end::template[]
+
+  /**
+   * @return <code>true</code> to download, downscale and cache the picture in the background (default). Return
+   *         <code>false</code> to read it in the model thread.
+   */
+  protected boolean isLoadImageInBackground() {
+    return true;
+  }
+
+  protected void updateImageInBackground() {
+    clearErrorStatus();
+
+    if (url == null) {
+      setImage(null);
+    }
+    else {
+      try {
+        loadImage(new URL(url));
+      }
+      catch (MalformedURLException e) {
+        addErrorStatus(new Status(TEXTS.get("InvalidImageUrl"), IStatus.WARNING));
+      }
+    }
+
+    getForm().touch();
+  }
+
+  /**
+   * Shows the picture from the in-memory cache or loads it in the background. Until then the default picture is
+   * shown, so opening a form never waits on the network.
+   */
+  protected void loadImage(URL imageUrl) {
+    String requestedUrl = url;
+    int displaySize = getImageDisplaySize();
+    UrlImageLoader loader = BEANS.get(UrlImageLoader.class);
+
+    byte[] cached = loader.getCached(imageUrl.toExternalForm(), displaySize);
+    if (cached != null) {
+      setImage(cached);
+      setAutoFit(true);
+      return;
+    }
+
+    setImage(null);
+    ClientRunContext runContext = ClientRunContexts.copyCurrent();
+    loader.load(imageUrl.toExternalForm(), displaySize).whenDone(event -> ModelJobs.schedule(
+        () -> onImageLoaded(requestedUrl, event.getResult(), event.getException()),
+        ModelJobs.newInput(runContext)
+            .withName("Showing picture {}", requestedUrl)), null);
+  }
+
+  protected void onImageLoaded(String requestedUrl, byte[] image, Throwable error) {
+    if (!ObjectUtility.equals(url, requestedUrl)) {
+      // the URL was changed in the meantime
+      return;
+    }
+
+    if (error != null || image == null) {
+      addErrorStatus(new Status(TEXTS.get("FailedToAccessImageFromUrl"), IStatus.WARNING));
+      return;
+    }
+    setImage(image);
+    setAutoFit(true);
+  }
+
+  /**
+   * @return maximum width and height in pixels. Larger pictures are downscaled.
+   */
+  protected int getImageDisplaySize() {
+    return CONFIG.getPropertyValue(ImageDisplaySizeProperty.class);
+  }
+  // tag::template[]
 // tag::menu[]
 }
 // end::template[]
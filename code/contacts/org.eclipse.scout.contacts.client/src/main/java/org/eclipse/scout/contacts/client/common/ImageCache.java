@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.client.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.scout.contacts.client.ConfigProperties.ImageCacheDirectoryProperty;
+import org.eclipse.scout.contacts.client.ConfigProperties.ImageMemoryCacheSizeProperty;
+import org.eclipse.scout.rt.platform.ApplicationScoped;
+import org.eclipse.scout.rt.platform.config.CONFIG;
+import org.eclipse.scout.rt.platform.exception.PlatformException;
+import org.eclipse.scout.rt.platform.util.Base64Utility;
+import org.eclipse.scout.rt.platform.util.StringUtility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Two level cache of downscaled pictures: a bounded in-memory LRU and a directory on disk. Entries are keyed by the
+ * picture URL and the display size. Along with each picture on disk the ETag of the remote resource is kept, so a stale
+ * entry can be revalidated with a conditional request.
+ */
+@ApplicationScoped
+public class ImageCache {
+  private static final Logger LOG = LoggerFactory.getLogger(ImageCache.class);
+
+  private static final String IMAGE_SUFFIX = ".img";
+  private static final String ETAG_SUFFIX = ".etag";
+
+  private final long m_maxMemoryBytes;
+  private final File m_directory;
+  private final LinkedHashMap<String, byte[]> m_memory = new LinkedHashMap<>(16, 0.75f, true);
+  private long m_memoryBytes;
+
+  public ImageCache() {
+    m_maxMemoryBytes = CONFIG.getPropertyValue(ImageMemoryCacheSizeProperty.class);
+    m_directory = new File(CONFIG.getPropertyValue(ImageCacheDirectoryProperty.class));
+  }
+
+  /**
+   * @return the cache key of the given picture URL and display size
+   */
+  public static String toKey(String url, int displaySize) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest((url + '#' + displaySize).getBytes(StandardCharsets.UTF_8));
+      return Base64Utility.encodeUrlSafe(hash).replace("=", "");
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new PlatformException("SHA-256 not supported", e);
+    }
+  }
+
+  /**
+   * @return the picture from the in-memory cache or <code>null</code>
+   */
+  public synchronized byte[] getFromMemory(String key) {
+    return m_memory.get(key);
+  }
+
+  public synchronized void putToMemory(String key, byte[] image) {
+    byte[] oldImage = m_memory.put(key, image);
+    m_memoryBytes += image.length - (oldImage == null ? 0 : oldImage.length);
+
+    Iterator<Map.Entry<String, byte[]>> it = m_memory.entrySet().iterator();
+    while (m_memoryBytes > m_maxMemoryBytes && it.hasNext()) {
+      Map.Entry<String, byte[]> eldest = it.next();
+      if (eldest.getValue() == image) {
+        // never evict the entry just added
+        continue;
+      }
+      m_memoryBytes -= eldest.getValue().length;
+      it.remove();
+    }
+  }
+
+  /**
+   * @return the picture file of the on-disk cache. The file might not exist.
+   */
+  public File getImageFile(String key) {
+    return new File(m_directory, key + IMAGE_SUFFIX);
+  }
+
+  /**
+   * @return the ETag the cached picture was downloaded with or <code>null</code>
+   */
+  public String getETag(String key) {
+    File file = new File(m_directory, key + ETAG_SUFFIX);
+    if (!file.isFile()) {
+      return null;
+    }
+    try {
+      return StringUtility.nullIfEmpty(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+    catch (IOException e) {
+      LOG.debug("Could not read ETag of cached picture {}", key, e);
+      return null;
+    }
+  }
+
+  /**
+   * @return the picture of the on-disk cache or <code>null</code>
+   */
+  public byte[] readFromDisk(String key) {
+    File file = getImageFile(key);
+    if (!file.isFile()) {
+      return null;
+    }
+    try {
+      return Files.readAllBytes(file.toPath());
+    }
+    catch (IOException e) {
+      LOG.debug("Could not read cached picture {}", key, e);
+      return null;
+    }
+  }
+
+  /**
+   * Stores the picture and its ETag on disk. Failures are logged only, the cache is an optimization.
+   */
+  public void writeToDisk(String key, byte[] image, String eTag) {
+    try {
+      Files.createDirectories(m_directory.toPath());
+      write(new File(m_directory, key + ETAG_SUFFIX), StringUtility.emptyIfNull(eTag).getBytes(StandardCharsets.UTF_8));
+      write(getImageFile(key), image);
+    }
+    catch (IOException e) {
+      LOG.warn("Could not write picture to cache directory {}", m_directory, e);
+    }
+  }
+
+  /**
+   * Marks the cached picture as fresh after the remote server confirmed it is unchanged.
+   */
+  public void touch(String key) {
+    if (!getImageFile(key).setLastModified(System.currentTimeMillis())) {
+      LOG.debug("Could not update timestamp of cached picture {}", key);
+    }
+  }
+
+  protected void write(File file, byte[] content) throws IOException {
+    // write to a temporary file first, concurrent readers never see a partial file
+    File tmp = new File(file.getPath() + ".tmp" + Thread.currentThread().getId());
+    Files.write(tmp.toPath(), content);
+    Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
@@ -10,25 +10,22 @@
  ******************************************************************************/
 package org.eclipse.scout.contacts.client.common;
 
-import java.io.InputStream;
-import java.net.URL;
-import java.net.URLEncoder;
-import java.text.Normalizer;
-import java.text.Normalizer.Form;
-import java.util.Locale;
-
 import org.eclipse.scout.contacts.client.common.MapForm.MainBox.MapField;
+import org.eclipse.scout.contacts.client.map.MapImageLoader;
+import org.eclipse.scout.contacts.client.map.MapRequest;
+import org.eclipse.scout.rt.client.context.ClientRunContext;
+import org.eclipse.scout.rt.client.context.ClientRunContexts;
 import org.eclipse.scout.rt.client.dto.FormData;
+import org.eclipse.scout.rt.client.job.ModelJobs;
 import org.eclipse.scout.rt.client.ui.form.AbstractForm;
 import org.eclipse.scout.rt.client.ui.form.AbstractFormHandler;
 import org.eclipse.scout.rt.client.ui.form.fields.button.AbstractOkButton;
 import org.eclipse.scout.rt.client.ui.form.fields.groupbox.AbstractGroupBox;
 import org.eclipse.scout.rt.client.ui.form.fields.imagefield.AbstractImageField;
+import org.eclipse.scout.rt.platform.BEANS;
 import org.eclipse.scout.rt.platform.Order;
 import org.eclipse.scout.rt.platform.exception.ProcessingStatus;
 import org.eclipse.scout.rt.platform.text.TEXTS;
-import org.eclipse.scout.rt.platform.util.IOUtility;
-import org.eclipse.scout.rt.platform.util.StringUtility;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -124,51 +121,31 @@ public class MapForm extends AbstractForm {
 
       @Override
       protected void execInitField() {
-        String size = "" + (getConfiguredHeightInPixel() - 20) + "x" + (getConfiguredWidthInPixel() - 20);
-        String address = (new Locale("", getCountry())).getDisplayCountry();
-        String zoom = "7";
-        String url = null;
-
-        if (StringUtility.hasText(getCity())) {
-          address += "," + getCity();
-          zoom = "14";
-
-          if (StringUtility.hasText(getStreet())) {
-            address += "," + getStreet();
-            zoom = "16";
-          }
-        }
-
-        address = normalize(address);
-        address = encode(address);
-
-        url = "http://maps.googleapis.com/maps/api/staticmap?center=" + address + "&zoom=" + zoom + "&size=" + size + "&maptype=roadmap&sensor=false";
-        LOG.info("Map image URL: {}", url);
-
-        try (InputStream in = new URL(url).openStream()) {
-          setImage(IOUtility.readBytes(in));
+        MapRequest request = MapRequest.of(getCountry(), getCity(), getStreet(),
+            getConfiguredWidthInPixel() - 20, getConfiguredHeightInPixel() - 20);
+        MapImageLoader loader = BEANS.get(MapImageLoader.class);
+
+        byte[] cached = loader.getCached(request);
+        if (cached != null) {
+          setImage(cached);
+          return;
         }
-        catch (Exception e) {
-          addErrorStatus(new ProcessingStatus("Bad Link: " + url + ", please check", ProcessingStatus.ERROR));
-          LOG.error("Bad URL? URL is {}", url, e);
-          setImage(null);
-        }
-      }
 
-      private String normalize(String s) {
-        return Normalizer.normalize(s, Form.NFD).replaceAll("[^\\p{ASCII}]", "");
+        // the form opens immediately, the map is shown once rendered
+        ClientRunContext runContext = ClientRunContexts.copyCurrent();
+        loader.load(request).whenDone(event -> ModelJobs.schedule(
+            () -> onMapLoaded(request, event.getResult(), event.getException()),
+            ModelJobs.newInput(runContext)
+                .withName("Showing map")), null);
       }
 
-      private String encode(String s) {
-
-        try {
-          return URLEncoder.encode(s, "ISO-8859-1");
+      protected void onMapLoaded(MapRequest request, byte[] image, Throwable error) {
+        if (error != null) {
+          addErrorStatus(new ProcessingStatus("Map not available for " + request.getAddress(), ProcessingStatus.ERROR));
+          LOG.error("Could not render map {}", request, error);
+          return;
         }
-        catch (Exception e) {
-          LOG.error("Failed to encode string '{}'", s, e);
-        }
-
-        return s;
+        setImage(image);
       }
     }
 
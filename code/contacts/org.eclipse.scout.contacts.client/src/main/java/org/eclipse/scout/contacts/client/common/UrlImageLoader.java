@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.client.common;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.eclipse.scout.contacts.client.ConfigProperties.ImageCacheMaxAgeProperty;
+import org.eclipse.scout.contacts.client.ConfigProperties.ImageConnectTimeoutProperty;
+import org.eclipse.scout.contacts.client.ConfigProperties.ImageReadTimeoutProperty;
+import org.eclipse.scout.rt.platform.ApplicationScoped;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.platform.config.CONFIG;
+import org.eclipse.scout.rt.platform.job.IFuture;
+import org.eclipse.scout.rt.platform.job.Jobs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Downloads pictures in the background, downscales them to the display size and keeps them in the {@link ImageCache}.
+ * Concurrent requests of the same picture share one download.
+ */
+@ApplicationScoped
+public class UrlImageLoader {
+  private static final Logger LOG = LoggerFactory.getLogger(UrlImageLoader.class);
+
+  /**
+   * Downloads larger than this are refused.
+   */
+  public static final int MAX_DOWNLOAD_BYTES = 10 * 1024 * 1024;
+
+  private final Map<String, IFuture<byte[]>> m_pendingLoads = new HashMap<>();
+
+  /**
+   * @return the picture if it is in the in-memory cache, <code>null</code> otherwise. Never blocks.
+   */
+  public byte[] getCached(String url, int displaySize) {
+    return BEANS.get(ImageCache.class).getFromMemory(ImageCache.toKey(url, displaySize));
+  }
+
+  /**
+   * Loads the picture asynchronously. The future fails if the picture can neither be downloaded nor be taken from the
+   * on-disk cache.
+   */
+  public IFuture<byte[]> load(String url, int displaySize) {
+    String key = ImageCache.toKey(url, displaySize);
+    IFuture<byte[]> future;
+    synchronized (m_pendingLoads) {
+      future = m_pendingLoads.get(key);
+      if (future != null) {
+        return future;
+      }
+      future = Jobs.schedule(() -> loadInternal(url, displaySize, key), Jobs.newInput()
+          .withName("Loading picture {}", url)
+          .withExceptionHandling(null, false));
+      m_pendingLoads.put(key, future);
+    }
+
+    IFuture<byte[]> pendingLoad = future;
+    future.whenDone(event -> {
+      synchronized (m_pendingLoads) {
+        m_pendingLoads.remove(key, pendingLoad);
+      }
+    }, null);
+    return future;
+  }
+
+  protected byte[] loadInternal(String url, int displaySize, String key) throws IOException {
+    ImageCache cache = BEANS.get(ImageCache.class);
+    byte[] cached = cache.readFromDisk(key);
+    if (cached != null && isFresh(cache.getImageFile(key))) {
+      cache.putToMemory(key, cached);
+      return cached;
+    }
+
+    byte[] image;
+    try {
+      image = download(url, displaySize, key, cached == null ? null : cache.getETag(key));
+    }
+    catch (IOException e) {
+      if (cached == null) {
+        throw e;
+      }
+      LOG.info("Could not revalidate picture {}, using the cached one: {}", url, e.getMessage());
+      image = cached;
+    }
+
+    if (image == null) {
+      // not modified
+      cache.touch(key);
+      image = cached;
+    }
+    cache.putToMemory(key, image);
+    return image;
+  }
+
+  /**
+   * @return the downscaled picture or <code>null</code> if the remote server confirmed the given ETag
+   */
+  protected byte[] download(String url, int displaySize, String key, String eTag) throws IOException {
+    URLConnection connection = new URL(url).openConnection();
+    connection.setConnectTimeout(CONFIG.getPropertyValue(ImageConnectTimeoutProperty.class));
+    connection.setReadTimeout(CONFIG.getPropertyValue(ImageReadTimeoutProperty.class));
+    if (eTag != null) {
+      connection.setRequestProperty("If-None-Match", eTag);
+    }
+
+    if (connection instanceof HttpURLConnection) {
+      int status = ((HttpURLConnection) connection).getResponseCode();
+      if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+        return null;
+      }
+      if (status >= HttpURLConnection.HTTP_BAD_REQUEST) {
+        throw new IOException("HTTP status " + status + " for " + url);
+      }
+    }
+
+    byte[] content;
+    try (InputStream in = connection.getInputStream()) {
+      content = readLimited(in, url);
+    }
+
+    byte[] image = downscale(content, displaySize);
+    BEANS.get(ImageCache.class).writeToDisk(key, image, connection.getHeaderField("ETag"));
+    return image;
+  }
+
+  /**
+   * @return the picture scaled to fit into a square of the given size. Pictures that already fit or cannot be decoded
+   *         are returned unchanged.
+   */
+  protected byte[] downscale(byte[] content, int displaySize) throws IOException {
+    BufferedImage source = ImageIO.read(new ByteArrayInputStream(content));
+    if (source == null || (source.getWidth() <= displaySize && source.getHeight() <= displaySize)) {
+      return content;
+    }
+
+    double scale = Math.min((double) displaySize / source.getWidth(), (double) displaySize / source.getHeight());
+    int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+    int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+    boolean alpha = source.getColorModel().hasAlpha();
+
+    BufferedImage target = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = target.createGraphics();
+    try {
+      g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      g.drawImage(source, 0, 0, width, height, null);
+    }
+    finally {
+      g.dispose();
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(target, alpha ? "png" : "jpg", out);
+    return out.toByteArray();
+  }
+
+  protected boolean isFresh(File file) {
+    long maxAge = TimeUnit.SECONDS.toMillis(CONFIG.getPropertyValue(ImageCacheMaxAgeProperty.class));
+    return System.currentTimeMillis() - file.lastModified() < maxAge;
+  }
+
+  protected static byte[] readLimited(InputStream in, String url) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int n;
+    while ((n = in.read(buffer)) != -1) {
+      if (out.size() + n > MAX_DOWNLOAD_BYTES) {
+        throw new IOException("Picture exceeds " + MAX_DOWNLOAD_BYTES + " bytes: " + url);
+      }
+      out.write(buffer, 0, n);
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.client.map;
+
+import org.eclipse.scout.rt.platform.ApplicationScoped;
+
+/**
+ * Renders static map images. The default implementation is {@link OfflineMapTileProvider}. Another provider (e.g. a
+ * remote map service) is plugged in by a bean replacing it.
+ * <p>
+ * Implementations are called from background jobs and must be thread safe.
+ */
+@ApplicationScoped
+public interface IMapTileProvider {
+
+  /**
+   * @return the rendered map as image bytes (e.g. PNG), never <code>null</code>
+   */
+  byte[] render(MapRequest request);
+}
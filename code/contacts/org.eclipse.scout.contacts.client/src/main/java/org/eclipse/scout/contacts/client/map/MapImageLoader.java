@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.client.map;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.scout.contacts.client.ConfigProperties.MapCacheSizeProperty;
+import org.eclipse.scout.rt.platform.ApplicationScoped;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.platform.config.CONFIG;
+import org.eclipse.scout.rt.platform.job.IFuture;
+import org.eclipse.scout.rt.platform.job.Jobs;
+
+/**
+ * Renders maps with the {@link IMapTileProvider} in background jobs and keeps the most recently used ones in a bounded
+ * cache. Concurrent requests of the same map share one rendering.
+ */
+@ApplicationScoped
+public class MapImageLoader {
+
+  private final int m_maxCacheSize = CONFIG.getPropertyValue(MapCacheSizeProperty.class);
+  private final Map<MapRequest, byte[]> m_cache = new LinkedHashMap<MapRequest, byte[]>(16, 0.75f, true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Entry<MapRequest, byte[]> eldest) {
+      return size() > m_maxCacheSize;
+    }
+  };
+  private final Map<MapRequest, IFuture<byte[]>> m_pendingLoads = new HashMap<>();
+
+  /**
+   * @return the cached map or <code>null</code>. Never blocks.
+   */
+  public byte[] getCached(MapRequest request) {
+    synchronized (m_cache) {
+      return m_cache.get(request);
+    }
+  }
+
+  /**
+   * Renders the map asynchronously and caches the result.
+   */
+  public IFuture<byte[]> load(MapRequest request) {
+    IFuture<byte[]> future;
+    synchronized (m_pendingLoads) {
+      future = m_pendingLoads.get(request);
+      if (future != null) {
+        return future;
+      }
+      future = Jobs.schedule(() -> render(request), Jobs.newInput()
+          .withName("Rendering map {}", request)
+          .withExceptionHandling(null, false));
+      m_pendingLoads.put(request, future);
+    }
+
+    IFuture<byte[]> pendingLoad = future;
+    future.whenDone(event -> {
+      synchronized (m_pendingLoads) {
+        m_pendingLoads.remove(request, pendingLoad);
+      }
+    }, null);
+    return future;
+  }
+
+  protected byte[] render(MapRequest request) {
+    byte[] image = BEANS.get(IMapTileProvider.class).render(request);
+    synchronized (m_cache) {
+      m_cache.put(request, image);
+    }
+    return image;
+  }
+}
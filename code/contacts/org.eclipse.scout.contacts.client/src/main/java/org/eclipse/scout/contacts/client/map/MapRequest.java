@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.client.map;
+
+import java.io.Serializable;
+import java.text.Normalizer;
+import java.text.Normalizer.Form;
+import java.util.Locale;
+import java.util.Objects;
+
+import org.eclipse.scout.rt.platform.util.StringUtility;
+
+/**
+ * Immutable description of a map image: the address, zoom level and image size. Used as cache key, so two requests of
+ * the same map are equal.
+ */
+public final class MapRequest implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  public static final int ZOOM_COUNTRY = 7;
+  public static final int ZOOM_CITY = 14;
+  public static final int ZOOM_STREET = 16;
+
+  private final String m_country;
+  private final String m_city;
+  private final String m_street;
+  private final int m_zoom;
+  private final int m_width;
+  private final int m_height;
+
+  private MapRequest(String country, String city, String street, int zoom, int width, int height) {
+    m_country = country;
+    m_city = city;
+    m_street = street;
+    m_zoom = zoom;
+    m_width = width;
+    m_height = height;
+  }
+
+  /**
+   * Creates a request for the given address. The zoom level depends on how detailed the address is.
+   */
+  public static MapRequest of(String country, String city, String street, int width, int height) {
+    String normalizedCountry = normalize(country);
+    String normalizedCity = normalize(city);
+    String normalizedStreet = normalizedCity == null ? null : normalize(street);
+
+    int zoom = ZOOM_COUNTRY;
+    if (normalizedCity != null) {
+      zoom = normalizedStreet == null ? ZOOM_CITY : ZOOM_STREET;
+    }
+    return new MapRequest(normalizedCountry, normalizedCity, normalizedStreet, zoom, width, height);
+  }
+
+  /**
+   * @return the lower case text without accents, or <code>null</code> if it is empty
+   */
+  public static String normalize(String s) {
+    if (!StringUtility.hasText(s)) {
+      return null;
+    }
+    return Normalizer.normalize(s.trim(), Form.NFD).replaceAll("[^\\p{ASCII}]", "").toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * @return the normalized ISO country code or <code>null</code>
+   */
+  public String getCountry() {
+    return m_country;
+  }
+
+  public String getCity() {
+    return m_city;
+  }
+
+  public String getStreet() {
+    return m_street;
+  }
+
+  public int getZoom() {
+    return m_zoom;
+  }
+
+  public int getWidth() {
+    return m_width;
+  }
+
+  public int getHeight() {
+    return m_height;
+  }
+
+  /**
+   * @return the address as comma separated text, most general part first
+   */
+  public String getAddress() {
+    StringBuilder sb = new StringBuilder(StringUtility.emptyIfNull(m_country));
+    if (m_city != null) {
+      sb.append(',').append(m_city);
+    }
+    if (m_street != null) {
+      sb.append(',').append(m_street);
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(m_country, m_city, m_street, m_zoom, m_width, m_height);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    MapRequest other = (MapRequest) obj;
+    return m_zoom == other.m_zoom
+        && m_width == other.m_width
+        && m_height == other.m_height
+        && Objects.equals(m_country, other.m_country)
+        && Objects.equals(m_city, other.m_city)
+        && Objects.equals(m_street, other.m_street);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[" + getAddress() + ", zoom=" + m_zoom + ", size=" + m_width + "x" + m_height + "]";
+  }
+}
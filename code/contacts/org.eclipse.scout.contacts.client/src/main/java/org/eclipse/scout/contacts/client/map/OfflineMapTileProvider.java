@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.client.map;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import javax.annotation.PostConstruct;
+import javax.imageio.ImageIO;
+
+import org.eclipse.scout.contacts.client.ConfigProperties.MapTileDirectoryProperty;
+import org.eclipse.scout.contacts.client.ResourceBase;
+import org.eclipse.scout.rt.platform.config.CONFIG;
+import org.eclipse.scout.rt.platform.exception.ProcessingException;
+import org.eclipse.scout.rt.platform.util.StringUtility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Renders maps from an offline tile set in the usual <code>{zoom}/{x}/{y}.png</code> layout of 256 pixel Web Mercator
+ * tiles (see {@link MapTileDirectoryProperty}). Addresses are located with a small built-in gazetteer
+ * (<code>map/locations.properties</code>) on city or country level. Missing tiles are drawn as an empty grid, so the
+ * provider works without any tile set at all.
+ */
+public class OfflineMapTileProvider implements IMapTileProvider {
+  private static final Logger LOG = LoggerFactory.getLogger(OfflineMapTileProvider.class);
+
+  public static final int TILE_SIZE = 256;
+
+  private static final Color BACKGROUND_COLOR = new Color(0xf2efe9);
+  private static final Color GRID_COLOR = new Color(0xdcd8d0);
+  private static final Color MARKER_COLOR = new Color(0xd9453b);
+
+  private final Properties m_locations = new Properties();
+  private File m_tileDirectory;
+
+  @PostConstruct
+  protected void init() {
+    try (InputStream in = ResourceBase.class.getResourceAsStream("map/locations.properties")) {
+      m_locations.load(in);
+    }
+    catch (IOException e) {
+      throw new ProcessingException("Could not load map locations", e);
+    }
+
+    String tileDirectory = CONFIG.getPropertyValue(MapTileDirectoryProperty.class);
+    if (StringUtility.hasText(tileDirectory)) {
+      m_tileDirectory = new File(tileDirectory);
+    }
+  }
+
+  @Override
+  public byte[] render(MapRequest request) {
+    double[] location = locate(request);
+    int zoom = location == null ? 1 : request.getZoom();
+    long worldSize = (long) TILE_SIZE << zoom;
+
+    // pixel position of the center in the world map, then of the top left corner of the image
+    double centerX = location == null ? worldSize / 2.0 : (location[1] + 180.0) / 360.0 * worldSize;
+    double centerY = location == null ? worldSize / 2.0 : mercatorY(location[0]) * worldSize;
+    long left = Math.round(centerX - request.getWidth() / 2.0);
+    long top = Math.round(centerY - request.getHeight() / 2.0);
+
+    BufferedImage image = new BufferedImage(request.getWidth(), request.getHeight(), BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = image.createGraphics();
+    try {
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      drawTiles(g, zoom, left, top, request.getWidth(), request.getHeight());
+      if (location != null) {
+        drawMarker(g, (int) Math.round(centerX - left), (int) Math.round(centerY - top));
+      }
+    }
+    finally {
+      g.dispose();
+    }
+
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      ImageIO.write(image, "png", out);
+      return out.toByteArray();
+    }
+    catch (IOException e) {
+      throw new ProcessingException("Could not encode map {}", request, e);
+    }
+  }
+
+  /**
+   * @return latitude and longitude of the most detailed known part of the address, or <code>null</code>
+   */
+  protected double[] locate(MapRequest request) {
+    if (request.getCountry() == null) {
+      return null;
+    }
+    String value = null;
+    if (request.getCity() != null) {
+      value = m_locations.getProperty(request.getCountry() + "," + request.getCity());
+    }
+    if (value == null) {
+      value = m_locations.getProperty(request.getCountry());
+    }
+    if (value == null) {
+      return null;
+    }
+
+    String[] parts = value.split(",");
+    return new double[]{Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim())};
+  }
+
+  protected void drawTiles(Graphics2D g, int zoom, long left, long top, int width, int height) {
+    long tileCount = 1L << zoom;
+    for (long tileY = Math.floorDiv(top, TILE_SIZE); tileY * TILE_SIZE < top + height; tileY++) {
+      for (long tileX = Math.floorDiv(left, TILE_SIZE); tileX * TILE_SIZE < left + width; tileX++) {
+        int x = (int) (tileX * TILE_SIZE - left);
+        int y = (int) (tileY * TILE_SIZE - top);
+        BufferedImage tile = tileY < 0 || tileY >= tileCount ? null : readTile(zoom, Math.floorMod(tileX, tileCount), tileY);
+        if (tile != null) {
+          g.drawImage(tile, x, y, TILE_SIZE, TILE_SIZE, null);
+        }
+        else {
+          drawEmptyTile(g, x, y);
+        }
+      }
+    }
+  }
+
+  protected BufferedImage readTile(int zoom, long x, long y) {
+    if (m_tileDirectory == null) {
+      return null;
+    }
+    File file = new File(m_tileDirectory, zoom + File.separator + x + File.separator + y + ".png");
+    if (!file.isFile()) {
+      return null;
+    }
+    try {
+      return ImageIO.read(file);
+    }
+    catch (IOException e) {
+      LOG.warn("Could not read map tile {}", file, e);
+      return null;
+    }
+  }
+
+  protected void drawEmptyTile(Graphics2D g, int x, int y) {
+    g.setColor(BACKGROUND_COLOR);
+    g.fillRect(x, y, TILE_SIZE, TILE_SIZE);
+    g.setColor(GRID_COLOR);
+    g.drawRect(x, y, TILE_SIZE, TILE_SIZE);
+  }
+
+  protected void drawMarker(Graphics2D g, int x, int y) {
+    g.setColor(MARKER_COLOR);
+    g.fillOval(x - 7, y - 7, 14, 14);
+    g.setColor(Color.WHITE);
+    g.setStroke(new BasicStroke(2f));
+    g.drawOval(x - 7, y - 7, 14, 14);
+  }
+
+  /**
+   * @return the Web Mercator y coordinate of the given latitude in the range [0, 1]
+   */
+  protected static double mercatorY(double latitude) {
+    double lat = Math.toRadians(latitude);
+    return (1.0 - Math.log(Math.tan(lat) + 1.0 / Math.cos(lat)) / Math.PI) / 2.0;
+  }
+}
@@ -10,20 +10,28 @@
  ******************************************************************************/
 package org.eclipse.scout.contacts.client.person;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
+import org.eclipse.scout.contacts.client.ConfigProperties.PersonPageSizeProperty;
 import org.eclipse.scout.contacts.client.Icons;
 import org.eclipse.scout.contacts.client.common.CountryLookupCall;
 import org.eclipse.scout.contacts.client.person.PersonTablePage.Table;
 import org.eclipse.scout.contacts.shared.organization.OrganizationLookupCall;
 import org.eclipse.scout.contacts.shared.person.IPersonService;
+import org.eclipse.scout.contacts.shared.person.PersonPageToken;
 import org.eclipse.scout.contacts.shared.person.PersonTablePageData;
+import org.eclipse.scout.contacts.shared.person.PersonTablePageData.PersonTableRowData;
 import org.eclipse.scout.rt.client.dto.PageData;
 import org.eclipse.scout.rt.client.ui.action.menu.AbstractMenu;
 import org.eclipse.scout.rt.client.ui.action.menu.IMenu;
 import org.eclipse.scout.rt.client.ui.action.menu.IMenuType;
 import org.eclipse.scout.rt.client.ui.action.menu.TableMenuType;
 import org.eclipse.scout.rt.client.ui.basic.table.AbstractTable;
+import org.eclipse.scout.rt.client.ui.basic.table.ITableRow;
+import org.eclipse.scout.rt.client.ui.basic.table.ITableRowDataMapper;
+import org.eclipse.scout.rt.client.ui.basic.table.TableRow;
 import org.eclipse.scout.rt.client.ui.basic.table.columns.AbstractSmartColumn;
 import org.eclipse.scout.rt.client.ui.basic.table.columns.AbstractStringColumn;
 import org.eclipse.scout.rt.client.ui.desktop.outline.pages.AbstractPageWithTable;
@@ -32,6 +40,7 @@ import org.eclipse.scout.rt.client.ui.form.FormEvent;
 import org.eclipse.scout.rt.client.ui.form.FormListener;
 import org.eclipse.scout.rt.platform.BEANS;
 import org.eclipse.scout.rt.platform.Order;
+import org.eclipse.scout.rt.platform.config.CONFIG;
 import org.eclipse.scout.rt.platform.text.TEXTS;
 import org.eclipse.scout.rt.platform.util.CollectionUtility;
 import org.eclipse.scout.rt.shared.AbstractIcons;
@@ -47,6 +56,11 @@ public class PersonTablePage extends AbstractPageWithTable<Table> {
   // end::PageInit[]
 
   private String organizationId; // <1>
+  // end::linkToOrganization[]
+
+  private PersonPageToken nextPageToken;
+  private boolean moreRowsAvailable;
+  // tag::linkToOrganization[]
 
   public String getOrganizationId() {
     return organizationId;
@@ -66,11 +80,75 @@ public class PersonTablePage extends AbstractPageWithTable<Table> {
 
   @Override
   protected void execLoadData(SearchFilter filter) {
+    // end::linkToOrganization[]
+    if (isPaged()) {
+      loadFirstPage(filter);
+      return;
+    }
+    // tag::linkToOrganization[]
     importPageData(BEANS.get(IPersonService.class)
         .getPersonTableData(filter, getOrganizationId())); // <2>
   }
   // end::linkToOrganization[]
 
+  /**
+   * @return <code>true</code> if the persons are loaded page by page, see {@link PersonPageSizeProperty}
+   */
+  protected boolean isPaged() {
+    return getPageSize() > 0;
+  }
+
+  protected int getPageSize() {
+    return CONFIG.getPropertyValue(PersonPageSizeProperty.class);
+  }
+
+  /**
+   * Replaces the rows of the table with the first page of persons.
+   */
+  protected void loadFirstPage(SearchFilter filter) {
+    PersonTablePageData pageData = BEANS.get(IPersonService.class)
+        .getPersonTableData(filter, getOrganizationId(), null, getPageSize());
+    importPageData(pageData);
+    updatePagingState(pageData.getRows());
+  }
+
+  /**
+   * Loads the next page of persons after the last row loaded so far and appends it to the table.
+   */
+  public void loadMoreData() {
+    if (!moreRowsAvailable) {
+      return;
+    }
+    PersonTablePageData pageData = BEANS.get(IPersonService.class)
+        .getPersonTableData(getSearchFilter(), getOrganizationId(), nextPageToken, getPageSize());
+    appendRows(pageData.getRows());
+    updatePagingState(pageData.getRows());
+  }
+
+  public boolean isMoreRowsAvailable() {
+    return moreRowsAvailable;
+  }
+
+  /**
+   * Adds the rows of a page to the table. The rows already in the table are left untouched.
+   */
+  protected void appendRows(PersonTableRowData[] pageRows) {
+    ITableRowDataMapper mapper = getTable().createTableRowDataMapper(PersonTableRowData.class);
+    List<ITableRow> rows = new ArrayList<>(pageRows.length);
+    for (PersonTableRowData rowData : pageRows) {
+      ITableRow row = new TableRow(getTable().getColumnSet());
+      mapper.importTableRowData(row, rowData);
+      rows.add(row);
+    }
+    getTable().addRows(rows);
+  }
+
+  protected void updatePagingState(PersonTableRowData[] pageRows) {
+    moreRowsAvailable = pageRows.length >= getPageSize();
+    nextPageToken = pageRows.length > 0 ? PersonPageToken.after(pageRows[pageRows.length - 1]) : null;
+    getTable().getMenuByClass(Table.LoadMoreMenu.class).setVisible(moreRowsAvailable);
+  }
+
   @Override // <3>
   protected boolean getConfiguredLeaf() {
     return true;
@@ -200,6 +278,30 @@ public class PersonTablePage extends AbstractPageWithTable<Table> {
     }
     // end::linkToOrganization[]
 
+    @Order(30)
+    public class LoadMoreMenu extends AbstractMenu {
+
+      @Override
+      protected String getConfiguredText() {
+        return TEXTS.get("LoadMore");
+      }
+
+      @Override
+      protected Set<? extends IMenuType> getConfiguredMenuTypes() {
+        return CollectionUtility.<IMenuType> hashSet(TableMenuType.EmptySpace);
+      }
+
+      @Override
+      protected boolean getConfiguredVisible() {
+        return false;
+      }
+
+      @Override
+      protected void execAction() {
+        loadMoreData();
+      }
+    }
+
     private class PersonFormListener implements FormListener {
 
       @Override
@@ -0,0 +1,36 @@
+package org.eclipse.scout.contacts.client.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link MapRequest}
+ */
+public class MapRequestTest {
+
+  @Test
+  public void testZoomByAddressDetail() {
+    assertEquals(MapRequest.ZOOM_COUNTRY, MapRequest.of("CH", null, "Bahnhofstrasse", 380, 380).getZoom());
+    assertEquals(MapRequest.ZOOM_CITY, MapRequest.of("CH", "Zürich", " ", 380, 380).getZoom());
+    assertEquals(MapRequest.ZOOM_STREET, MapRequest.of("CH", "Zürich", "Bahnhofstrasse", 380, 380).getZoom());
+  }
+
+  @Test
+  public void testNormalizedCacheKey() {
+    MapRequest request = MapRequest.of("CH", "Zürich", null, 380, 380);
+    assertEquals(request, MapRequest.of("ch", " zurich ", "", 380, 380));
+    assertEquals(request.hashCode(), MapRequest.of("ch", "ZURICH", null, 380, 380).hashCode());
+    assertNotEquals(request, MapRequest.of("CH", "Zürich", null, 200, 200));
+    assertEquals("ch,zurich", request.getAddress());
+  }
+
+  @Test
+  public void testEmptyAddress() {
+    MapRequest request = MapRequest.of(null, null, null, 380, 380);
+    assertNull(request.getCountry());
+    assertEquals("", request.getAddress());
+  }
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.events.server;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.eclipse.scout.contacts.events.server.EventsProperties.SampleEventCountProperty;
+import org.eclipse.scout.contacts.events.server.EventsProperties.SampleParticipantsPerEventProperty;
+import org.eclipse.scout.contacts.events.server.sql.SQLs;
+import org.eclipse.scout.contacts.server.sql.BatchInserter;
+import org.eclipse.scout.contacts.server.sql.BatchInserter.Batch;
+import org.eclipse.scout.contacts.server.sql.SampleDataGenerator;
+import org.eclipse.scout.rt.platform.ApplicationScoped;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.platform.config.CONFIG;
+
+/**
+ * Generates synthetic events and lets generated persons participate in them.
+ *
+ * @see SampleDataGenerator
+ */
+@ApplicationScoped
+public class EventSampleDataGenerator {
+
+  private static final String[] TOPICS = {"Scout", "Java", "Eclipse", "Web", "Cloud", "Data"};
+  private static final String[] KINDS = {"Conference", "Meetup", "Workshop", "Summit"};
+  private static final String[][] CITIES = {
+      {"Zürich", "CH"}, {"Bern", "CH"}, {"Ludwigsburg", "DE"}, {"Bruehl", "DE"}, {"London", "GB"}};
+
+  public int getEventCount() {
+    return Math.max(0, CONFIG.getPropertyValue(SampleEventCountProperty.class));
+  }
+
+  public static String eventId(int index) {
+    return String.format("gen-evt-%07d", index);
+  }
+
+  public void generateEvents() {
+    Random random = BEANS.get(SampleDataGenerator.class).createRandom(3);
+    LocalDateTime minStart = LocalDateTime.of(2010, 1, 1, 9, 0);
+
+    BEANS.get(BatchInserter.class).insert("EVENT", SQLs.EVENT_INSERT_GENERATED, getEventCount(), (statement, row) -> {
+      String[] city = CITIES[random.nextInt(CITIES.length)];
+      LocalDateTime start = minStart.plusDays(random.nextInt(15 * 365));
+
+      statement.setString(1, eventId(row));
+      statement.setString(2, TOPICS[random.nextInt(TOPICS.length)] + " " + KINDS[random.nextInt(KINDS.length)] + " " + row);
+      statement.setTimestamp(3, Timestamp.valueOf(start));
+      statement.setTimestamp(4, Timestamp.valueOf(start.plusDays(random.nextInt(3)).plusHours(8)));
+      statement.setString(5, city[0]);
+      statement.setString(6, city[1]);
+    });
+  }
+
+  public void generateParticipants() {
+    int eventCount = getEventCount();
+    int personCount = BEANS.get(SampleDataGenerator.class).getPersonCount();
+    if (eventCount == 0 || personCount == 0) {
+      return;
+    }
+
+    Random random = BEANS.get(SampleDataGenerator.class).createRandom(4);
+    int averageParticipants = Math.min(Math.max(0, CONFIG.getPropertyValue(SampleParticipantsPerEventProperty.class)), personCount);
+
+    try (Batch batch = BEANS.get(BatchInserter.class).open("PARTICIPANT", SQLs.EVENT_PARTICIPANTS_INSERT)) {
+      generateParticipants(random, eventCount, personCount, averageParticipants, (eventId, personId) -> batch.add((statement, row) -> {
+        statement.setString(1, eventId);
+        statement.setString(2, personId);
+      }));
+      batch.complete();
+    }
+  }
+
+  /**
+   * Generates the participants event by event, each event with distinct persons. The rows are passed to the consumer
+   * as they are generated.
+   *
+   * @param consumer
+   *          receives the event id and the person id of each participant
+   */
+  public void generateParticipants(Random random, int eventCount, int personCount, int averageParticipants, BiConsumer<String, String> consumer) {
+    Set<Integer> persons = new LinkedHashSet<>();
+    for (int event = 0; event < eventCount; event++) {
+      int count = Math.min(personCount, averageParticipants == 0 ? 0 : random.nextInt(2 * averageParticipants) + 1);
+      persons.clear();
+      while (persons.size() < count) {
+        persons.add(random.nextInt(personCount));
+      }
+      String eventId = eventId(event);
+      for (Integer person : persons) {
+        consumer.accept(eventId, SampleDataGenerator.personId(person));
+      }
+    }
+  }
+}
@@ -10,22 +10,25 @@
  ******************************************************************************/
 package org.eclipse.scout.contacts.events.server;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import org.eclipse.scout.contacts.events.server.sql.SQLs;
 import org.eclipse.scout.contacts.events.shared.event.CreateEventPermission;
 import org.eclipse.scout.contacts.events.shared.event.EventFormData;
+import org.eclipse.scout.contacts.events.shared.event.EventFormData.ParticipantTableField.ParticipantTableFieldRowData;
 import org.eclipse.scout.contacts.events.shared.event.EventTablePageData;
 import org.eclipse.scout.contacts.events.shared.event.IEventService;
 import org.eclipse.scout.contacts.events.shared.event.ReadEventPermission;
 import org.eclipse.scout.contacts.events.shared.event.UpdateEventPermission;
+import org.eclipse.scout.rt.platform.BEANS;
 import org.eclipse.scout.rt.platform.exception.VetoException;
-import org.eclipse.scout.rt.platform.holders.ITableBeanRowHolder;
 import org.eclipse.scout.rt.platform.holders.NVPair;
-import org.eclipse.scout.rt.platform.holders.TableBeanHolderFilter;
 import org.eclipse.scout.rt.platform.text.TEXTS;
 import org.eclipse.scout.rt.platform.util.StringUtility;
 import org.eclipse.scout.rt.server.jdbc.SQL;
+import org.eclipse.scout.rt.shared.data.basic.table.AbstractTableRowData;
 import org.eclipse.scout.rt.shared.services.common.jdbc.SearchFilter;
 import org.eclipse.scout.rt.shared.services.common.security.ACCESS;
 
@@ -93,13 +96,20 @@ public class EventService implements IEventService {
 
     SQL.update(SQLs.EVENT_UPDATE, formData);
 
-    TableBeanHolderFilter deletedParticipants = new TableBeanHolderFilter(formData.getParticipantTableField(), ITableBeanRowHolder.STATUS_DELETED);
-    TableBeanHolderFilter insertedParticipants = new TableBeanHolderFilter(formData.getParticipantTableField(), ITableBeanRowHolder.STATUS_INSERTED);
-    NVPair eventId = new NVPair("eventId", formData.getEventId());
-
-    SQL.delete(SQLs.EVENT_PARTICIPANTS_DELETE, deletedParticipants, eventId);
-    SQL.insert(SQLs.EVENT_PARTICIPANTS_INSERT, insertedParticipants, eventId);
+    ParticipantBatchWriter writer = BEANS.get(ParticipantBatchWriter.class);
+    writer.deleteParticipants(formData.getEventId(), getParticipantIds(formData, AbstractTableRowData.STATUS_DELETED));
+    writer.insertParticipants(formData.getEventId(), getParticipantIds(formData, AbstractTableRowData.STATUS_INSERTED));
 
     return formData;
   }
+
+  protected List<String> getParticipantIds(EventFormData formData, int rowState) {
+    List<String> personIds = new ArrayList<>();
+    for (ParticipantTableFieldRowData row : formData.getParticipantTableField().getRows()) {
+      if (row.getRowState() == rowState) {
+        personIds.add(row.getPersonId());
+      }
+    }
+    return personIds;
+  }
 }
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.events.server;
+
+import org.eclipse.scout.rt.platform.config.AbstractIntegerConfigProperty;
+import org.eclipse.scout.rt.platform.config.AbstractPositiveIntegerConfigProperty;
+
+public final class EventsProperties {
+
+  private EventsProperties() {
+  }
+
+  public static class ParticipantBatchSizeProperty extends AbstractPositiveIntegerConfigProperty {
+
+    @Override
+    public Integer getDefaultValue() {
+      return 500;
+    }
+
+    @Override
+    public String getKey() {
+      return "contacts.events.participant.batchSize";
+    }
+
+    @Override
+    public String description() {
+      return "Maximum number of participant rows written with one JDBC batch. The default value is 500.";
+    }
+  }
+
+  public static class SampleEventCountProperty extends AbstractIntegerConfigProperty {
+
+    @Override
+    public Integer getDefaultValue() {
+      return 0;
+    }
+
+    @Override
+    public String getKey() {
+      return "contacts.events.sample.events";
+    }
+
+    @Override
+    public String description() {
+      return "Number of synthetic events generated into a newly created contact database. The default value is 0.";
+    }
+  }
+
+  public static class SampleParticipantsPerEventProperty extends AbstractIntegerConfigProperty {
+
+    @Override
+    public Integer getDefaultValue() {
+      return 20;
+    }
+
+    @Override
+    public String getKey() {
+      return "contacts.events.sample.participantsPerEvent";
+    }
+
+    @Override
+    public String description() {
+      return "Average number of generated persons participating in a synthetic event. The default value is 20.";
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.events.server;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.scout.contacts.events.server.EventsProperties.ParticipantBatchSizeProperty;
+import org.eclipse.scout.contacts.events.server.sql.SQLs;
+import org.eclipse.scout.rt.platform.ApplicationScoped;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.platform.config.CONFIG;
+import org.eclipse.scout.rt.platform.exception.PlatformExceptionTranslator;
+import org.eclipse.scout.rt.server.jdbc.SQL;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes participant changes of an event with JDBC batches instead of one statement per participant. Uses the
+ * connection of the current transaction.
+ */
+@ApplicationScoped
+public class ParticipantBatchWriter {
+  private static final Logger LOG = LoggerFactory.getLogger(ParticipantBatchWriter.class);
+
+  private final AtomicLong m_batchCount = new AtomicLong();
+  private final AtomicLong m_rowCount = new AtomicLong();
+  private final AtomicLong m_batchNanos = new AtomicLong();
+
+  public void deleteParticipants(String eventId, List<String> personIds) {
+    executeBatched(SQLs.EVENT_PARTICIPANTS_DELETE, eventId, personIds);
+  }
+
+  public void insertParticipants(String eventId, List<String> personIds) {
+    executeBatched(SQLs.EVENT_PARTICIPANTS_INSERT, eventId, personIds);
+  }
+
+  protected void executeBatched(String sql, String eventId, List<String> personIds) {
+    if (personIds.isEmpty()) {
+      return;
+    }
+
+    int batchSize = CONFIG.getPropertyValue(ParticipantBatchSizeProperty.class);
+    Connection connection = SQL.getConnection();
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      for (int from = 0; from < personIds.size(); from += batchSize) {
+        List<String> batch = personIds.subList(from, Math.min(from + batchSize, personIds.size()));
+        executeBatch(statement, eventId, batch);
+      }
+    }
+    catch (SQLException e) {
+      throw BEANS.get(PlatformExceptionTranslator.class).translate(e);
+    }
+  }
+
+  protected void executeBatch(PreparedStatement statement, String eventId, List<String> personIds) throws SQLException {
+    long start = System.nanoTime();
+    for (String personId : personIds) {
+      statement.setString(1, eventId);
+      statement.setString(2, personId);
+      statement.addBatch();
+    }
+    statement.executeBatch();
+    long nanos = System.nanoTime() - start;
+
+    m_batchCount.incrementAndGet();
+    m_rowCount.addAndGet(personIds.size());
+    m_batchNanos.addAndGet(nanos);
+    LOG.debug("Participant batch of {} rows executed in {} ms", personIds.size(), TimeUnit.NANOSECONDS.toMillis(nanos));
+  }
+
+  public long getBatchCount() {
+    return m_batchCount.get();
+  }
+
+  public long getRowCount() {
+    return m_rowCount.get();
+  }
+
+  public double getAverageRowsPerBatch() {
+    long batchCount = getBatchCount();
+    return batchCount == 0 ? 0 : (double) getRowCount() / batchCount;
+  }
+
+  public double getAverageMillisPerBatch() {
+    long batchCount = getBatchCount();
+    return batchCount == 0 ? 0 : m_batchNanos.get() / 1e6 / batchCount;
+  }
+}
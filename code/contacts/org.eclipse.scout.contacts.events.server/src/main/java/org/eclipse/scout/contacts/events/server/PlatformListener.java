@@ -55,6 +55,7 @@ public class PlatformListener implements IPlatformListener, IDataStoreService {
         IRunnable runnable = () -> {
           createEventTable();
           createParticipantTable();
+          upgradeTables();
         };
 
         context.run(runnable);
@@ -83,6 +84,8 @@ public class PlatformListener implements IPlatformListener, IDataStoreService {
         SQL.insert(SQLs.EVENT_INSERT_SAMPLE + SQLs.EVENT_INSERT_VALUES_02);
         LOG.info("Database table 'EVENT' populated with sample data");
       }
+
+      BEANS.get(EventSampleDataGenerator.class).generateEvents();
     }
   }
 
@@ -97,9 +100,37 @@ public class PlatformListener implements IPlatformListener, IDataStoreService {
         SQL.insert(SQLs.PARTICIPANT_INSERT_SAMPLE + SQLs.PARTICIPANT_INSERT_VALUES_03);
         LOG.info("Database table 'PARTICIPANT' populated with sample data");
       }
+
+      // index created after the bulk load of generated participants
+      BEANS.get(EventSampleDataGenerator.class).generateParticipants();
+      SQL.insert(SQLs.PARTICIPANT_CREATE_PERSON_INDEX);
     }
   }
 
+  /**
+   * Adds the indexes missing in tables created by an older version of this listener.
+   */
+  public void upgradeTables() {
+    upgradeIndex("PARTICIPANT", "PARTICIPANT_PERSON_IX", SQLs.PARTICIPANT_CREATE_PERSON_INDEX);
+  }
+
+  /**
+   * Runs the given statement if the table exists but does not have the given index yet.
+   */
+  protected void upgradeIndex(String table, String index, String statement) {
+    if (!getExistingTables().contains(table) || getExistingIndexes(table).contains(index)) {
+      return;
+    }
+    SQL.insert(statement);
+    LOG.info("Database table '{}' upgraded with index '{}'", table, index);
+  }
+
+  private Set<String> getExistingIndexes(String table) {
+    StringArrayHolder indexes = new StringArrayHolder();
+    SQL.selectInto(SQLs.SELECT_INDEX_NAMES, new NVPair("table", table), new NVPair("result", indexes));
+    return CollectionUtility.hashSet(indexes.getValue());
+  }
+
   private Set<String> getExistingTables() {
     StringArrayHolder tables = new StringArrayHolder();
     SQL.selectInto(SQLs.SELECT_TABLE_NAMES, new NVPair("result", tables));
@@ -10,6 +10,7 @@
  ******************************************************************************/
 package org.eclipse.scout.contacts.events.server.person;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -19,6 +20,7 @@ import org.eclipse.scout.contacts.events.shared.person.PersonFormTabExtensionDat
 import org.eclipse.scout.contacts.events.shared.person.PersonTablePageDataExtension;
 import org.eclipse.scout.contacts.server.person.PersonService;
 import org.eclipse.scout.contacts.shared.person.PersonFormData;
+import org.eclipse.scout.contacts.shared.person.PersonPageToken;
 import org.eclipse.scout.contacts.shared.person.PersonTablePageData;
 import org.eclipse.scout.contacts.shared.person.PersonTablePageData.PersonTableRowData;
 import org.eclipse.scout.rt.platform.Replace;
@@ -31,27 +33,57 @@ import org.eclipse.scout.rt.shared.services.common.jdbc.SearchFilter;
 @Replace
 public class PersonServiceExtension extends PersonService {
 
+  /**
+   * Maximum number of person ids bound into one event count query.
+   */
+  protected static final int EVENT_COUNT_BATCH_SIZE = 500;
+
   @Override
   public PersonTablePageData getPersonTableData(SearchFilter filter, String organizationId) {
     PersonTablePageData pageData = super.getPersonTableData(filter, organizationId);
+    addEventCounts(pageData);
+    return pageData;
+  }
+
+  @Override
+  public PersonTablePageData getPersonTableData(SearchFilter filter, String organizationId, PersonPageToken token, int pageSize) {
+    PersonTablePageData pageData = super.getPersonTableData(filter, organizationId, token, pageSize);
+    addEventCounts(pageData);
+    return pageData;
+  }
+
+  /**
+   * Adds the number of events to the given persons. Only the participations of these persons are counted, so the cost
+   * depends on the size of the page and not on the size of the PARTICIPANT table.
+   */
+  protected void addEventCounts(PersonTablePageData pageData) {
+    PersonTableRowData[] rows = pageData.getRows();
+    for (int from = 0; from < rows.length; from += EVENT_COUNT_BATCH_SIZE) {
+      int to = Math.min(from + EVENT_COUNT_BATCH_SIZE, rows.length);
+      addEventCounts(Arrays.copyOfRange(rows, from, to));
+    }
+  }
+
+  protected void addEventCounts(PersonTableRowData[] rows) {
+    String[] personIds = new String[rows.length];
+    for (int i = 0; i < rows.length; i++) {
+      personIds[i] = rows[i].getPersonId();
+    }
 
-    // Add number of events to persons
     BeanArrayHolder<EventCountBean> arrayHolder = new BeanArrayHolder<>(EventCountBean.class);
-    SQL.selectInto(SQLs.EVENT_COUNT_BY_PERSON, new NVPair("bean", arrayHolder));
+    SQL.selectInto(SQLs.EVENT_COUNT_BY_PERSON, new NVPair("personIds", personIds), new NVPair("bean", arrayHolder));
 
     // Create a map to access event count by person
-    Map<String, Long> eventCounts = new HashMap<>();
+    Map<String, Long> eventCounts = new HashMap<>(arrayHolder.getBeans().length);
     for (EventCountBean counter : arrayHolder.getBeans()) {
       eventCounts.put(counter.getPersonId(), counter.getEventCount());
     }
 
     // Add event count to persons
-    for (PersonTableRowData personRow : pageData.getRows()) {
+    for (PersonTableRowData personRow : rows) {
       long eventCount = NumberUtility.nvl(eventCounts.get(personRow.getPersonId()), 0L);
       personRow.getContribution(PersonTablePageDataExtension.class).setEvents(eventCount);
     }
-
-    return pageData;
   }
 
   @Override
@@ -67,6 +67,20 @@ public interface SQLs {
       + "              person_id VARCHAR(64) NOT NULL, "
       + "PRIMARY KEY  (event_id, person_id))";
 
+  String PARTICIPANT_CREATE_PERSON_INDEX = ""
+      + "CREATE       "
+      + "INDEX        PARTICIPANT_PERSON_IX "
+      + "ON           PARTICIPANT (person_id)";
+
+  String SELECT_INDEX_NAMES = ""
+      + "SELECT       UPPER(g.conglomeratename) "
+      + "FROM         sys.sysconglomerates g, "
+      + "             sys.systables t "
+      + "WHERE        g.tableid = t.tableid "
+      + "AND          g.isindex "
+      + "AND          UPPER(t.tablename) = :table "
+      + "INTO         :result";
+
   String PARTICIPANT_INSERT_SAMPLE = ""
       + "INSERT       "
       + "INTO         PARTICIPANT "
@@ -177,22 +191,36 @@ public interface SQLs {
       + "             :{participantTableField.lastName}, "
       + "             :{participantTableField.organization}";
 
+  // plain JDBC statements used by the ParticipantBatchWriter
   String EVENT_PARTICIPANTS_DELETE = ""
       + "DELETE       FROM PARTICIPANT "
-      + "WHERE        event_id = :eventId "
-      + "AND          person_id = :{personId}";
+      + "WHERE        event_id = ? "
+      + "AND          person_id = ?";
 
   String EVENT_PARTICIPANTS_INSERT = ""
       + "INSERT       INTO "
       + "PARTICIPANT  (event_id, "
       + "              person_id) "
-      + "VALUES       (:eventId, "
-      + "              :{personId})";
+      + "VALUES       (?, "
+      + "              ?)";
+
+  // plain JDBC statement used by the EventSampleDataGenerator
+  String EVENT_INSERT_GENERATED = ""
+      + "INSERT       "
+      + "INTO         EVENT "
+      + "            (event_id, "
+      + "             title, "
+      + "             date_start, "
+      + "             date_end, "
+      + "             city, "
+      + "             country) "
+      + "VALUES      (?, ?, ?, ?, ?, ?)";
 
   String EVENT_COUNT_BY_PERSON = ""
       + "SELECT       person_id, "
       + "             COUNT(event_id) "
       + "FROM         PARTICIPANT "
+      + "WHERE        person_id = :personIds "
       + "GROUP BY     person_id "
       + "INTO         :{bean.personId}, "
       + "             :{bean.eventCount}";
@@ -0,0 +1,53 @@
+package org.eclipse.scout.contacts.events.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link EventSampleDataGenerator}
+ */
+public class EventSampleDataGeneratorTest {
+
+  private static final int EVENT_COUNT = 50;
+  private static final int PERSON_COUNT = 200;
+  private static final int AVERAGE_PARTICIPANTS = 10;
+
+  @Test
+  public void testSameSeedGeneratesSameParticipants() {
+    List<String> first = generateParticipants(4711);
+    List<String> second = generateParticipants(4711);
+
+    assertFalse(first.isEmpty());
+    assertEquals(first, second);
+  }
+
+  @Test
+  public void testOtherSeedGeneratesOtherParticipants() {
+    assertNotEquals(generateParticipants(4711), generateParticipants(4712));
+  }
+
+  @Test
+  public void testParticipantsOfAnEventAreDistinct() {
+    List<String> participants = generateParticipants(4711);
+    Set<String> unique = new HashSet<>(participants);
+    assertEquals(participants.size(), unique.size());
+    assertTrue(participants.get(0).startsWith(EventSampleDataGenerator.eventId(0)));
+  }
+
+  private static List<String> generateParticipants(long seed) {
+    List<String> participants = new ArrayList<>();
+    new EventSampleDataGenerator().generateParticipants(new Random(seed), EVENT_COUNT, PERSON_COUNT, AVERAGE_PARTICIPANTS,
+        (eventId, personId) -> participants.add(eventId + "/" + personId));
+    return participants;
+  }
+}
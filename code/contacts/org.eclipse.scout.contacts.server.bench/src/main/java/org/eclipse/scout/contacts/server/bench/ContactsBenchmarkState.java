@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.server.bench;
+
+import java.util.concurrent.Callable;
+
+import org.eclipse.scout.contacts.events.server.EventsProperties.SampleEventCountProperty;
+import org.eclipse.scout.contacts.server.sql.DatabaseProperties.JdbcMappingNameProperty;
+import org.eclipse.scout.contacts.server.sql.DatabaseProperties.SampleOrganizationCountProperty;
+import org.eclipse.scout.contacts.server.sql.DatabaseProperties.SamplePersonCountProperty;
+import org.eclipse.scout.contacts.server.sql.SampleDataGenerator;
+import org.eclipse.scout.contacts.server.sql.SuperUserRunContextProducer;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.platform.IPlatform;
+import org.eclipse.scout.rt.platform.Platform;
+import org.eclipse.scout.rt.server.context.ServerRunContext;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Starts the Scout platform with an embedded in-memory Derby database holding generated sample data of the size given
+ * by {@link #persons}. The platform is started once per trial, i.e. once per forked JVM and size.
+ */
+@State(Scope.Benchmark)
+public class ContactsBenchmarkState {
+
+  /**
+   * Number of generated persons. There is one organization per 100 persons and one event per 10 persons.
+   */
+  @Param({"1000", "10000", "100000"})
+  public int persons;
+
+  private ServerRunContext runContext;
+
+  @Setup(Level.Trial)
+  public void startPlatform() {
+    setProperty(new JdbcMappingNameProperty().getKey(), "jdbc:derby:memory:contacts-bench-" + persons);
+    setProperty(new SamplePersonCountProperty().getKey(), persons);
+    setProperty(new SampleOrganizationCountProperty().getKey(), Math.max(10, persons / 100));
+    setProperty(new SampleEventCountProperty().getKey(), Math.max(10, persons / 10));
+
+    Platform.setDefault();
+    Platform.get().start();
+    Platform.get().awaitPlatformStarted();
+
+    runContext = BEANS.get(SuperUserRunContextProducer.class).produce();
+  }
+
+  @TearDown(Level.Trial)
+  public void stopPlatform() {
+    IPlatform platform = Platform.get();
+    if (platform != null) {
+      platform.stop();
+    }
+  }
+
+  /**
+   * Runs the given service call in its own transaction, like a service tunnel request.
+   */
+  public <RESULT> RESULT call(Callable<RESULT> callable) {
+    return runContext.copy().call(callable);
+  }
+
+  /**
+   * @return id of a generated person, spread over the whole key range
+   */
+  public String personId(int index) {
+    return SampleDataGenerator.personId(Math.floorMod(index, persons));
+  }
+
+  protected static void setProperty(String key, Object value) {
+    System.setProperty(key, String.valueOf(value));
+  }
+}
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.server.bench;
+
+import org.eclipse.scout.contacts.events.server.EventService;
+import org.eclipse.scout.contacts.events.shared.event.EventTablePageData;
+import org.eclipse.scout.contacts.events.shared.event.IEventService;
+import org.eclipse.scout.contacts.server.sql.SampleDataGenerator;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.shared.services.common.jdbc.SearchFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks of {@link EventService#getTableData(SearchFilter, String)}.
+ */
+public class EventServiceBenchmark extends AbstractContactsBenchmark {
+
+  @Benchmark
+  public EventTablePageData tableDataAll(ContactsBenchmarkState state) {
+    return state.call(() -> BEANS.get(IEventService.class).getTableData(new SearchFilter(), null));
+  }
+
+  @Benchmark
+  public EventTablePageData tableDataByOrganization(ContactsBenchmarkState state) {
+    String organizationId = SampleDataGenerator.organizationId(0);
+    return state.call(() -> BEANS.get(IEventService.class).getTableData(new SearchFilter(), organizationId));
+  }
+}
@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.server.bench;
+
+import org.eclipse.scout.contacts.server.organization.OrganizationService;
+import org.eclipse.scout.contacts.shared.organization.IOrganizationService;
+import org.eclipse.scout.contacts.shared.organization.OrganizationTablePageData;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.shared.services.common.jdbc.SearchFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks of {@link OrganizationService#getOrganizationTableData(SearchFilter)}.
+ */
+public class OrganizationServiceBenchmark extends AbstractContactsBenchmark {
+
+  @Benchmark
+  public OrganizationTablePageData tableData(ContactsBenchmarkState state) {
+    return state.call(() -> BEANS.get(IOrganizationService.class).getOrganizationTableData(new SearchFilter()));
+  }
+}
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.server.bench;
+
+import java.util.List;
+
+import org.eclipse.scout.contacts.server.person.PersonLookupService;
+import org.eclipse.scout.contacts.shared.person.IPersonLookupService;
+import org.eclipse.scout.contacts.shared.person.PersonLookupCall;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.shared.services.lookup.ILookupRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of the {@link PersonLookupService} as used by the smart fields.
+ */
+@State(Scope.Thread)
+public class PersonLookupServiceBenchmark extends AbstractContactsBenchmark {
+
+  private int key;
+
+  @Benchmark
+  public List<? extends ILookupRow<String>> textPrefix(ContactsBenchmarkState state) {
+    return getDataByText(state, "mei");
+  }
+
+  @Benchmark
+  public List<? extends ILookupRow<String>> textSubstring(ContactsBenchmarkState state) {
+    return getDataByText(state, "*uth");
+  }
+
+  @Benchmark
+  public List<? extends ILookupRow<String>> key(ContactsBenchmarkState state) {
+    PersonLookupCall call = new PersonLookupCall();
+    call.setKey(state.personId(key++ * 7919));
+    return state.call(() -> BEANS.get(IPersonLookupService.class).getDataByKey(call));
+  }
+
+  protected List<? extends ILookupRow<String>> getDataByText(ContactsBenchmarkState state, String text) {
+    PersonLookupCall call = new PersonLookupCall();
+    call.setText(text);
+    return state.call(() -> BEANS.get(IPersonLookupService.class).getDataByText(call));
+  }
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.server.bench;
+
+import org.eclipse.scout.contacts.server.person.PersonService;
+import org.eclipse.scout.contacts.shared.person.PersonPageToken;
+import org.eclipse.scout.contacts.shared.person.PersonSearchFormData;
+import org.eclipse.scout.contacts.shared.person.PersonTablePageData;
+import org.eclipse.scout.rt.shared.services.common.jdbc.SearchFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of {@link PersonService#getPersonTableData}. The plain {@link PersonService} is used, i.e. without the
+ * event counts added by the events module (see {@link PersonServiceExtensionBenchmark}).
+ */
+@State(Scope.Benchmark)
+public class PersonServiceBenchmark extends AbstractContactsBenchmark {
+
+  private static final int PAGE_SIZE = 200;
+
+  private final PersonService personService = new PersonService();
+
+  @Benchmark
+  public PersonTablePageData tableDataAll(ContactsBenchmarkState state) {
+    return state.call(() -> personService.getPersonTableData(new SearchFilter(), null));
+  }
+
+  @Benchmark
+  public PersonTablePageData tableDataByLastName(ContactsBenchmarkState state) {
+    return state.call(() -> personService.getPersonTableData(createSearchFilter("mei", null), null));
+  }
+
+  @Benchmark
+  public PersonTablePageData tableDataByLastNameAndCity(ContactsBenchmarkState state) {
+    return state.call(() -> personService.getPersonTableData(createSearchFilter("mei", "bern"), null));
+  }
+
+  @Benchmark
+  public PersonTablePageData firstPage(ContactsBenchmarkState state) {
+    return state.call(() -> personService.getPersonTableData(new SearchFilter(), null, null, PAGE_SIZE));
+  }
+
+  @Benchmark
+  public PersonTablePageData middlePage(ContactsBenchmarkState state) {
+    PersonPageToken token = new PersonPageToken("Meier", "", "");
+    return state.call(() -> personService.getPersonTableData(new SearchFilter(), null, token, PAGE_SIZE));
+  }
+
+  protected static SearchFilter createSearchFilter(String lastName, String city) {
+    PersonSearchFormData searchData = new PersonSearchFormData();
+    searchData.getLastName().setValue(lastName);
+    searchData.getLocation().getCity().setValue(city);
+
+    SearchFilter filter = new SearchFilter();
+    filter.setFormData(searchData);
+    return filter;
+  }
+}
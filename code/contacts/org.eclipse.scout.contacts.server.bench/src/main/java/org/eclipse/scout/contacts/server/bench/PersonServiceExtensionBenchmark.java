@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.server.bench;
+
+import org.eclipse.scout.contacts.events.server.person.PersonServiceExtension;
+import org.eclipse.scout.contacts.shared.person.IPersonService;
+import org.eclipse.scout.contacts.shared.person.PersonTablePageData;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.shared.services.common.jdbc.SearchFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks of {@link PersonServiceExtension}, which adds the number of events to each person row.
+ */
+public class PersonServiceExtensionBenchmark extends AbstractContactsBenchmark {
+
+  private static final int PAGE_SIZE = 200;
+
+  @Benchmark
+  public PersonTablePageData tableDataAll(ContactsBenchmarkState state) {
+    return state.call(() -> BEANS.get(IPersonService.class).getPersonTableData(new SearchFilter(), null));
+  }
+
+  @Benchmark
+  public PersonTablePageData firstPage(ContactsBenchmarkState state) {
+    return state.call(() -> BEANS.get(IPersonService.class).getPersonTableData(new SearchFilter(), null, null, PAGE_SIZE));
+  }
+}
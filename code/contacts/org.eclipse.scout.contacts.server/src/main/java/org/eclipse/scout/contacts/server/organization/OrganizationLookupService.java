@@ -10,9 +10,14 @@
  ******************************************************************************/
 package org.eclipse.scout.contacts.server.organization;
 
+import java.util.List;
+
 import org.eclipse.scout.contacts.server.sql.SQLs;
+import org.eclipse.scout.contacts.server.sql.SearchPatterns;
 import org.eclipse.scout.contacts.shared.organization.IOrganizationLookupService;
 import org.eclipse.scout.rt.server.jdbc.lookup.AbstractSqlLookupService;
+import org.eclipse.scout.rt.shared.services.lookup.ILookupCall;
+import org.eclipse.scout.rt.shared.services.lookup.ILookupRow;
 
 //tag::all[]
 public class OrganizationLookupService
@@ -23,5 +28,12 @@ public class OrganizationLookupService
   protected String getConfiguredSqlSelect() {
     return SQLs.ORGANIZATION_LOOKUP; // <1>
   }
+
+  @Override
+  public List<ILookupRow<String>> getDataByText(ILookupCall<String> call) {
+    // bind the complete prefix pattern so the search can use the index on name_lc
+    call.setText(SearchPatterns.toLowerCasePrefixPattern(call.getText(), call.getWildcard())); // <2>
+    return super.getDataByText(call);
+  }
 }
 //end::all[]
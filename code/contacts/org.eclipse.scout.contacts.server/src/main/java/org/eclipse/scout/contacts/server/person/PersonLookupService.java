@@ -10,14 +10,69 @@
  ******************************************************************************/
 package org.eclipse.scout.contacts.server.person;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.scout.contacts.server.person.PersonNameIndex.Entry;
 import org.eclipse.scout.contacts.server.sql.SQLs;
+import org.eclipse.scout.contacts.server.sql.SearchPatterns;
 import org.eclipse.scout.contacts.shared.person.IPersonLookupService;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.platform.util.StringUtility;
 import org.eclipse.scout.rt.server.jdbc.lookup.AbstractSqlLookupService;
+import org.eclipse.scout.rt.shared.services.lookup.ILookupCall;
+import org.eclipse.scout.rt.shared.services.lookup.ILookupRow;
+import org.eclipse.scout.rt.shared.services.lookup.LookupRow;
 
 public class PersonLookupService extends AbstractSqlLookupService<String> implements IPersonLookupService {
 
+  /**
+   * Hard limit of the number of rows returned by a text search.
+   */
+  public static final int MAX_TEXT_ROW_COUNT = 100;
+
   @Override
   protected String getConfiguredSqlSelect() {
     return SQLs.PERSON_LOOKUP;
   }
+
+  /**
+   * Text searches are answered by the {@link PersonNameIndex}. Only texts with wildcards inside fall back to the SQL
+   * search.
+   */
+  @Override
+  public List<ILookupRow<String>> getDataByText(ILookupCall<String> call) {
+    String wildcard = StringUtility.emptyIfNull(call.getWildcard());
+    String text = StringUtility.emptyIfNull(call.getText());
+    if (!wildcard.isEmpty()) {
+      text = StringUtility.trim(text);
+      while (text.startsWith(wildcard)) {
+        text = text.substring(wildcard.length());
+      }
+      while (text.endsWith(wildcard)) {
+        text = text.substring(0, text.length() - wildcard.length());
+      }
+    }
+
+    if (!StringUtility.hasText(text)) {
+      return getDataByAll(call);
+    }
+    if (!wildcard.isEmpty() && text.contains(wildcard)) {
+      call.setText(SearchPatterns.toLowerCasePrefixPattern(call.getText(), wildcard));
+      return super.getDataByText(call);
+    }
+
+    List<ILookupRow<String>> rows = new ArrayList<>();
+    for (Entry entry : BEANS.get(PersonNameIndex.class).search(text, getMaxTextRowCount(call))) {
+      rows.add(new LookupRow<>(entry.getPersonId(), entry.getDisplayName()));
+    }
+    return rows;
+  }
+
+  protected int getMaxTextRowCount(ILookupCall<String> call) {
+    if (call.getMaxRowCount() > 0) {
+      return Math.min(call.getMaxRowCount(), MAX_TEXT_ROW_COUNT);
+    }
+    return MAX_TEXT_ROW_COUNT;
+  }
 }
@@ -0,0 +1,498 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.server.person;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.eclipse.scout.contacts.server.sql.SQLs;
+import org.eclipse.scout.rt.platform.ApplicationScoped;
+import org.eclipse.scout.rt.platform.transaction.AbstractTransactionMember;
+import org.eclipse.scout.rt.platform.transaction.ITransaction;
+import org.eclipse.scout.rt.platform.util.StringUtility;
+import org.eclipse.scout.rt.server.jdbc.SQL;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory index over the display names of all persons. Answers substring searches of the person lookup without the
+ * full table scan a leading wildcard <code>LIKE</code> causes.
+ * <p>
+ * Matches at the start of the name and at the start of a word are found in sorted maps of the names and of the name
+ * suffixes starting at a word. Any other match is found by intersecting the posting lists of the n-grams (up to
+ * {@link #GRAM_LENGTH} characters) of the query. Queries shorter than {@link #GRAM_LENGTH} use the posting list of the
+ * query itself. The later kinds of matches are only looked up if the earlier ones do not fill the result.
+ * <p>
+ * The index is loaded from the PERSON table on first use (or by {@link #rebuild()}) and kept current by the write
+ * paths of {@link PersonService}. These use {@link #putTransactional(String, String, String)}, so the index only
+ * changes once the PERSON row is committed.
+ */
+@ApplicationScoped
+public class PersonNameIndex {
+  private static final Logger LOG = LoggerFactory.getLogger(PersonNameIndex.class);
+
+  public static final int GRAM_LENGTH = 3;
+
+  private static final String TRANSACTION_MEMBER_ID = PersonNameIndex.class.getName();
+  private static final Comparator<Entry> NAME_ORDER = Comparator.comparing(Entry::getNormalizedName).thenComparing(Entry::getPersonId);
+
+  private final ReadWriteLock m_lock = new ReentrantReadWriteLock();
+  private final Map<String, Entry> m_entries = new HashMap<>();
+  private final Map<String, Set<String>> m_postings = new HashMap<>();
+  /**
+   * Entries by normalized name, see {@link #toSortKey(String, String)}
+   */
+  private final TreeMap<String, Entry> m_byName = new TreeMap<>();
+  /**
+   * Entries by each suffix of the normalized name that starts at a word other than the first one
+   */
+  private final TreeMap<String, Entry> m_byWordStart = new TreeMap<>();
+  /**
+   * Writes committed while {@link #rebuild()} reads the PERSON table. Applied on top of the read rows, which may not
+   * contain them yet.
+   */
+  private final Map<String, String[]> m_queuedPuts = new LinkedHashMap<>();
+  private boolean m_loading;
+  private volatile boolean m_loaded;
+
+  /**
+   * Reloads the index from the PERSON table. Must run within a server run context.
+   */
+  public synchronized void rebuild() {
+    m_lock.writeLock().lock();
+    try {
+      m_loading = true;
+      m_queuedPuts.clear();
+    }
+    finally {
+      m_lock.writeLock().unlock();
+    }
+
+    Object[][] rows;
+    try {
+      rows = loadRows();
+    }
+    catch (RuntimeException e) {
+      m_lock.writeLock().lock();
+      try {
+        m_loading = false;
+        m_queuedPuts.clear();
+      }
+      finally {
+        m_lock.writeLock().unlock();
+      }
+      throw e;
+    }
+
+    m_lock.writeLock().lock();
+    try {
+      clearInternal();
+      for (Object[] row : rows) {
+        putInternal((String) row[0], (String) row[1], (String) row[2]);
+      }
+      for (Map.Entry<String, String[]> queuedPut : m_queuedPuts.entrySet()) {
+        putInternal(queuedPut.getKey(), queuedPut.getValue()[0], queuedPut.getValue()[1]);
+      }
+      m_queuedPuts.clear();
+      m_loading = false;
+      m_loaded = true;
+    }
+    finally {
+      m_lock.writeLock().unlock();
+    }
+    LOG.info("Person name index built with {} persons and {} n-grams", rows.length, m_postings.size());
+  }
+
+  /**
+   * @return rows of <code>person_id, first_name, last_name</code> of all persons
+   */
+  protected Object[][] loadRows() {
+    return SQL.select(SQLs.PERSON_NAME_INDEX_SELECT);
+  }
+
+  /**
+   * Drops the index content. It is reloaded on next use.
+   */
+  public void invalidate() {
+    m_lock.writeLock().lock();
+    try {
+      m_loaded = false;
+      clearInternal();
+    }
+    finally {
+      m_lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds or replaces the name of a person. The name must already be committed to the PERSON table.
+   */
+  public void put(String personId, String firstName, String lastName) {
+    m_lock.writeLock().lock();
+    try {
+      if (m_loading) {
+        m_queuedPuts.put(personId, new String[]{firstName, lastName});
+      }
+      else if (m_loaded) {
+        putInternal(personId, firstName, lastName);
+      }
+      // otherwise the name is read by the next load
+    }
+    finally {
+      m_lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds or replaces the name of a person when the current transaction commits. Nothing changes if it is rolled back.
+   * Without transaction the name is put immediately.
+   */
+  public void putTransactional(String personId, String firstName, String lastName) {
+    ITransaction transaction = ITransaction.CURRENT.get();
+    if (transaction == null) {
+      put(personId, firstName, lastName);
+      return;
+    }
+
+    PendingPutsMember member = (PendingPutsMember) transaction.getMember(TRANSACTION_MEMBER_ID);
+    if (member == null) {
+      member = new PendingPutsMember();
+      transaction.registerMember(member);
+    }
+    member.put(personId, firstName, lastName);
+  }
+
+  /**
+   * Returns the persons whose display name contains the given text (case insensitive). Persons whose name starts with
+   * the text are ranked first, then those with a word starting with the text, then any other match. Ties are ordered
+   * by display name.
+   *
+   * @param maxResults
+   *          hard limit of the number of returned entries
+   */
+  public List<Entry> search(String text, int maxResults) {
+    String query = normalize(text);
+    if (query.isEmpty() || maxResults <= 0) {
+      return Collections.emptyList();
+    }
+    ensureLoaded();
+
+    String wordStart = " " + query;
+    List<Entry> matches = new ArrayList<>();
+    m_lock.readLock().lock();
+    try {
+      // name starts, already in result order
+      for (Entry entry : prefixRange(m_byName, query).values()) {
+        if (matches.size() >= maxResults) {
+          return matches;
+        }
+        matches.add(entry);
+      }
+
+      // word starts of names that do not start with the query, a name may have several of them
+      PriorityQueue<Entry> best = newBoundedQueue(maxResults - matches.size());
+      Set<String> seen = new HashSet<>();
+      for (Entry entry : prefixRange(m_byWordStart, query).values()) {
+        if (!entry.getNormalizedName().startsWith(query) && seen.add(entry.getPersonId())) {
+          offer(best, entry, maxResults - matches.size());
+        }
+      }
+      addSorted(matches, best);
+      if (matches.size() >= maxResults) {
+        return matches;
+      }
+
+      // any other match
+      best = newBoundedQueue(maxResults - matches.size());
+      for (Entry entry : getCandidates(query)) {
+        String name = entry.getNormalizedName();
+        if (name.contains(query) && !name.startsWith(query) && !name.contains(wordStart)) {
+          offer(best, entry, maxResults - matches.size());
+        }
+      }
+      addSorted(matches, best);
+      return matches;
+    }
+    finally {
+      m_lock.readLock().unlock();
+    }
+  }
+
+  public int size() {
+    m_lock.readLock().lock();
+    try {
+      return m_entries.size();
+    }
+    finally {
+      m_lock.readLock().unlock();
+    }
+  }
+
+  protected void ensureLoaded() {
+    if (m_loaded) {
+      return;
+    }
+    synchronized (this) {
+      if (!m_loaded) {
+        rebuild();
+      }
+    }
+  }
+
+  /**
+   * @return entries that contain all n-grams of the query. This includes all entries that contain the query.
+   */
+  protected Iterable<Entry> getCandidates(String query) {
+    // intersect the posting lists, starting with the shortest one
+    List<Set<String>> postings = new ArrayList<>();
+    for (String gram : queryGrams(query)) {
+      Set<String> personIds = m_postings.get(gram);
+      if (personIds == null) {
+        return Collections.emptyList();
+      }
+      postings.add(personIds);
+    }
+    postings.sort(Comparator.comparingInt(Set::size));
+
+    List<Entry> candidates = new ArrayList<>();
+    for (String personId : postings.get(0)) {
+      if (containedInAll(personId, postings)) {
+        candidates.add(m_entries.get(personId));
+      }
+    }
+    return candidates;
+  }
+
+  private static SortedMap<String, Entry> prefixRange(TreeMap<String, Entry> map, String prefix) {
+    return map.subMap(prefix, prefix + Character.MAX_VALUE);
+  }
+
+  /**
+   * @return queue with the worst of the kept entries on top
+   */
+  private static PriorityQueue<Entry> newBoundedQueue(int maxSize) {
+    return new PriorityQueue<>(Math.max(1, Math.min(maxSize, 1024) + 1), NAME_ORDER.reversed());
+  }
+
+  private static void offer(PriorityQueue<Entry> best, Entry entry, int maxSize) {
+    if (best.size() < maxSize) {
+      best.add(entry);
+    }
+    else if (NAME_ORDER.compare(entry, best.peek()) < 0) {
+      best.poll();
+      best.add(entry);
+    }
+  }
+
+  private static void addSorted(List<Entry> matches, PriorityQueue<Entry> best) {
+    List<Entry> sorted = new ArrayList<>(best);
+    sorted.sort(NAME_ORDER);
+    matches.addAll(sorted);
+  }
+
+  private void clearInternal() {
+    m_entries.clear();
+    m_postings.clear();
+    m_byName.clear();
+    m_byWordStart.clear();
+  }
+
+  private void putInternal(String personId, String firstName, String lastName) {
+    removeInternal(personId);
+
+    String displayName = toDisplayName(firstName, lastName);
+    if (displayName == null) {
+      return;
+    }
+
+    Entry entry = new Entry(personId, displayName, normalize(displayName));
+    String name = entry.getNormalizedName();
+    m_entries.put(personId, entry);
+    m_byName.put(toSortKey(name, personId), entry);
+    for (int start : wordStarts(name)) {
+      m_byWordStart.put(toSortKey(name.substring(start), personId), entry);
+    }
+    for (String gram : indexGrams(name)) {
+      m_postings.computeIfAbsent(gram, k -> new HashSet<>()).add(personId);
+    }
+  }
+
+  private void removeInternal(String personId) {
+    Entry oldEntry = m_entries.remove(personId);
+    if (oldEntry == null) {
+      return;
+    }
+    String name = oldEntry.getNormalizedName();
+    m_byName.remove(toSortKey(name, personId));
+    for (int start : wordStarts(name)) {
+      m_byWordStart.remove(toSortKey(name.substring(start), personId));
+    }
+    for (String gram : indexGrams(name)) {
+      Set<String> personIds = m_postings.get(gram);
+      if (personIds != null) {
+        personIds.remove(personId);
+        if (personIds.isEmpty()) {
+          m_postings.remove(gram);
+        }
+      }
+    }
+  }
+
+  private static boolean containedInAll(String personId, List<Set<String>> postings) {
+    for (int i = 1; i < postings.size(); i++) {
+      if (!postings.get(i).contains(personId)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return all substrings of the name with one up to {@link #GRAM_LENGTH} characters
+   */
+  protected static Set<String> indexGrams(String normalizedName) {
+    Set<String> grams = new HashSet<>();
+    for (int length = 1; length <= GRAM_LENGTH; length++) {
+      for (int i = 0; i + length <= normalizedName.length(); i++) {
+        grams.add(normalizedName.substring(i, i + length));
+      }
+    }
+    return grams;
+  }
+
+  /**
+   * @return the n-grams every name containing the query contains: its trigrams or the query itself if it is shorter
+   */
+  protected static Set<String> queryGrams(String query) {
+    if (query.length() < GRAM_LENGTH) {
+      return Collections.singleton(query);
+    }
+    Set<String> grams = new HashSet<>();
+    for (int i = 0; i + GRAM_LENGTH <= query.length(); i++) {
+      grams.add(query.substring(i, i + GRAM_LENGTH));
+    }
+    return grams;
+  }
+
+  /**
+   * @return start positions of the words of the name except the first one
+   */
+  protected static List<Integer> wordStarts(String normalizedName) {
+    List<Integer> starts = new ArrayList<>();
+    for (int i = 1; i < normalizedName.length(); i++) {
+      if (normalizedName.charAt(i - 1) == ' ' && normalizedName.charAt(i) != ' ') {
+        starts.add(i);
+      }
+    }
+    return starts;
+  }
+
+  /**
+   * Key that orders entries by name and person id, the order of equally ranked matches
+   */
+  protected static String toSortKey(String normalizedName, String personId) {
+    return normalizedName + '\u0000' + personId;
+  }
+
+  protected static String normalize(String text) {
+    return StringUtility.emptyIfNull(text).trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Same display name as computed by {@link SQLs#PERSON_LOOKUP}.
+   */
+  protected static String toDisplayName(String firstName, String lastName) {
+    if (firstName == null) {
+      return lastName;
+    }
+    if (lastName == null) {
+      return firstName;
+    }
+    return firstName + " " + lastName;
+  }
+
+  /**
+   * Collects the names written within a transaction and puts them into the index after the commit.
+   */
+  private class PendingPutsMember extends AbstractTransactionMember {
+
+    private final Map<String, String[]> m_puts = new LinkedHashMap<>();
+
+    PendingPutsMember() {
+      super(TRANSACTION_MEMBER_ID);
+    }
+
+    void put(String personId, String firstName, String lastName) {
+      m_puts.put(personId, new String[]{firstName, lastName});
+    }
+
+    @Override
+    public boolean needsCommit() {
+      return !m_puts.isEmpty();
+    }
+
+    @Override
+    public boolean commitPhase1() {
+      return true;
+    }
+
+    @Override
+    public void commitPhase2() {
+      for (Map.Entry<String, String[]> put : m_puts.entrySet()) {
+        PersonNameIndex.this.put(put.getKey(), put.getValue()[0], put.getValue()[1]);
+      }
+      m_puts.clear();
+    }
+
+    @Override
+    public void rollback() {
+      m_puts.clear();
+    }
+  }
+
+  public static class Entry {
+
+    private final String m_personId;
+    private final String m_displayName;
+    private final String m_normalizedName;
+
+    public Entry(String personId, String displayName, String normalizedName) {
+      m_personId = personId;
+      m_displayName = displayName;
+      m_normalizedName = normalizedName;
+    }
+
+    public String getPersonId() {
+      return m_personId;
+    }
+
+    public String getDisplayName() {
+      return m_displayName;
+    }
+
+    public String getNormalizedName() {
+      return m_normalizedName;
+    }
+  }
+}
@@ -10,19 +10,27 @@
  ******************************************************************************/
 package org.eclipse.scout.contacts.server.person;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 import org.eclipse.scout.contacts.server.sql.SQLs;
+import org.eclipse.scout.contacts.server.sql.SearchPatterns;
+import org.eclipse.scout.contacts.server.sql.SqlTextCache;
 import org.eclipse.scout.contacts.shared.person.CreatePersonPermission;
 import org.eclipse.scout.contacts.shared.person.IPersonService;
 import org.eclipse.scout.contacts.shared.person.PersonFormData;
+import org.eclipse.scout.contacts.shared.person.PersonPageToken;
 import org.eclipse.scout.contacts.shared.person.PersonSearchFormData;
 import org.eclipse.scout.contacts.shared.person.PersonTablePageData;
 import org.eclipse.scout.contacts.shared.person.ReadPersonPermission;
 import org.eclipse.scout.contacts.shared.person.UpdatePersonPermission;
+import org.eclipse.scout.rt.platform.BEANS;
 import org.eclipse.scout.rt.platform.exception.VetoException;
 import org.eclipse.scout.rt.platform.holders.NVPair;
 import org.eclipse.scout.rt.platform.text.TEXTS;
+import org.eclipse.scout.rt.platform.util.Assertions;
 import org.eclipse.scout.rt.platform.util.StringUtility;
 import org.eclipse.scout.rt.server.jdbc.SQL;
 import org.eclipse.scout.rt.shared.services.common.jdbc.SearchFilter;
@@ -33,40 +41,127 @@ import org.eclipse.scout.rt.shared.services.common.security.ACCESS;
 public class PersonService implements IPersonService {
 
   //end::all[]
+  // flags describing the active criteria of a person table query, used as key for the SQL text cache
+  protected static final int CRITERIA_ORGANIZATION_ID = 1;
+  protected static final int CRITERIA_FIRST_NAME = 1 << 1;
+  protected static final int CRITERIA_LAST_NAME = 1 << 2;
+  protected static final int CRITERIA_CITY = 1 << 3;
+  protected static final int CRITERIA_COUNTRY = 1 << 4;
+  protected static final int CRITERIA_ORGANIZATION = 1 << 5;
+  protected static final int CRITERIA_PAGED = 1 << 6;
+  protected static final int CRITERIA_CONTINUED = 1 << 7;
+
+  private final SqlTextCache tableDataSqlCache = new SqlTextCache(1 << 8);
+
   @Override
   public PersonTablePageData getPersonTableData(SearchFilter filter, String organizationId) {
     PersonTablePageData pageData = new PersonTablePageData();
     PersonSearchFormData searchData = (PersonSearchFormData) filter.getFormData();
+    int criteria = getSearchCriteria(organizationId, searchData);
+
+    SQL.selectInto(getTableDataSql(criteria), createSearchBinds(organizationId, searchData, new NVPair("page", pageData)));
+
+    return pageData;
+  }
+  // end::getTableData[]
+
+  @Override
+  public PersonTablePageData getPersonTableData(SearchFilter filter, String organizationId, PersonPageToken token, int pageSize) {
+    Assertions.assertTrue(pageSize > 0, "pageSize must be positive [pageSize={}]", pageSize);
+
+    PersonTablePageData pageData = new PersonTablePageData();
+    PersonSearchFormData searchData = (PersonSearchFormData) filter.getFormData();
+    int criteria = getSearchCriteria(organizationId, searchData) | CRITERIA_PAGED;
+    if (token != null) {
+      criteria |= CRITERIA_CONTINUED;
+    }
+
+    SQL.selectInto(getTableDataSql(criteria), createSearchBinds(organizationId, searchData,
+        new NVPair("tokenLastName", token != null ? token.getLastName() : null),
+        new NVPair("tokenFirstName", token != null ? token.getFirstName() : null),
+        new NVPair("tokenPersonId", token != null ? token.getPersonId() : null),
+        new NVPair("pageSize", pageSize),
+        new NVPair("page", pageData)));
+
+    return pageData;
+  }
+
+  /**
+   * @return cache of the person table SQL texts by combination of active criteria. Exposes hit and miss counters.
+   */
+  public SqlTextCache getTableDataSqlCache() {
+    return tableDataSqlCache;
+  }
+
+  protected String getTableDataSql(int criteria) {
+    return tableDataSqlCache.get(criteria, this::createTableDataSql);
+  }
+
+  protected int getSearchCriteria(String organizationId, PersonSearchFormData searchData) {
+    int criteria = getCriterion(organizationId, CRITERIA_ORGANIZATION_ID);
+    if (searchData != null) {
+      criteria |= getCriterion(searchData.getFirstName().getValue(), CRITERIA_FIRST_NAME);
+      criteria |= getCriterion(searchData.getLastName().getValue(), CRITERIA_LAST_NAME);
+      criteria |= getCriterion(searchData.getLocation().getCity().getValue(), CRITERIA_CITY);
+      criteria |= getCriterion(searchData.getLocation().getCountry().getValue(), CRITERIA_COUNTRY);
+      criteria |= getCriterion(searchData.getOrganization().getValue(), CRITERIA_ORGANIZATION);
+    }
+    return criteria;
+  }
+
+  protected int getCriterion(String fieldValue, int criterion) {
+    return StringUtility.hasText(fieldValue) ? criterion : 0;
+  }
+
+  /**
+   * Text criteria are bound as lower-case prefix patterns matching the <code>*_lc</code> search columns.
+   */
+  protected Object[] createSearchBinds(String organizationId, PersonSearchFormData searchData, NVPair... additionalBinds) {
+    List<Object> binds = new ArrayList<>();
+    binds.add(new NVPair("organizationId", organizationId));
+    if (searchData != null) {
+      binds.add(new NVPair("firstName", SearchPatterns.toLowerCasePrefixPattern(searchData.getFirstName().getValue())));
+      binds.add(new NVPair("lastName", SearchPatterns.toLowerCasePrefixPattern(searchData.getLastName().getValue())));
+      binds.add(new NVPair("city", SearchPatterns.toLowerCasePrefixPattern(searchData.getLocation().getCity().getValue())));
+      binds.add(new NVPair("country", SearchPatterns.toLowerCasePrefixPattern(searchData.getLocation().getCountry().getValue())));
+      binds.add(new NVPair("organization", searchData.getOrganization().getValue()));
+    }
+    binds.addAll(Arrays.asList(additionalBinds));
+    return binds.toArray();
+  }
+
+  protected String createTableDataSql(int criteria) {
     StringBuilder sql = new StringBuilder();
 
     sql.append(SQLs.PERSON_PAGE_SELECT);
-    // end::getTableData[]
     // tag::addOrganizationCriteria[]
     sql.append(" WHERE 1 = 1 ");
-    addToWhere(sql, organizationId, "organization_id", "organizationId");
+    addToWhere(sql, criteria, CRITERIA_ORGANIZATION_ID, SQLs.AND_EQUALS_CAUSE, "organization_id", "organizationId");
     // end::addOrganizationCriteria[]
+    addToWhere(sql, criteria, CRITERIA_FIRST_NAME, SQLs.AND_LIKE_CAUSE, "first_name_lc", "firstName");
+    addToWhere(sql, criteria, CRITERIA_LAST_NAME, SQLs.AND_LIKE_CAUSE, "last_name_lc", "lastName");
+    addToWhere(sql, criteria, CRITERIA_CITY, SQLs.AND_LIKE_CAUSE, "city_lc", "city");
+    addToWhere(sql, criteria, CRITERIA_COUNTRY, SQLs.AND_LIKE_CAUSE, "country_lc", "country");
+    addToWhere(sql, criteria, CRITERIA_ORGANIZATION, SQLs.AND_EQUALS_CAUSE, "organization_id", "organization");
+
+    // continue after the last row of the previous page
+    if ((criteria & CRITERIA_CONTINUED) != 0) {
+      sql.append(SQLs.PERSON_PAGE_KEYSET_WHERE);
+    }
 
-    if (searchData != null) {
-      addToWhere(sql, searchData.getFirstName().getValue(), "first_name", "firstName");
-      addToWhere(sql, searchData.getLastName().getValue(), "last_name", "lastName");
-      addToWhere(sql, searchData.getLocation().getCity().getValue(), "city", "location.city");
-      addToWhere(sql, searchData.getLocation().getCountry().getValue(), "country", "location.country");
-      addToWhere(sql, searchData.getOrganization().getValue(), "organization_id", "organization");
+    if ((criteria & CRITERIA_PAGED) != 0) {
+      sql.append(SQLs.PERSON_PAGE_ORDER_BY);
+      sql.append(SQLs.PERSON_PAGE_FETCH_FIRST);
     }
 
-    // tag::getTableData[]
     sql.append(SQLs.PERSON_PAGE_DATA_SELECT_INTO);
-
-    SQL.selectInto(sql.toString(), searchData, new NVPair("organizationId", organizationId), new NVPair("page", pageData));
-
-    return pageData;
+    return sql.toString();
   }
-  // end::getTableData[]
   // tag::addOrganizationCriteria[]
 
-  protected void addToWhere(StringBuilder sqlWhere, String fieldValue, String sqlAttribute, String searchAttribute) {
-    if (StringUtility.hasText(fieldValue)) {
-      sqlWhere.append(String.format(SQLs.AND_LIKE_CAUSE, sqlAttribute, searchAttribute));
+  protected void addToWhere(StringBuilder sqlWhere, int criteria, int criterion, String clause, String sqlAttribute, String searchAttribute) {
+    if ((criteria & criterion) != 0) {
+      sqlWhere.append(String.format(clause, sqlAttribute, searchAttribute));
     }
   }
   // end::addOrganizationCriteria[]
@@ -106,6 +201,9 @@ public class PersonService implements IPersonService {
     }
 
     SQL.update(SQLs.PERSON_UPDATE, formData); // <4>
+    // end::all[]
+    BEANS.get(PersonNameIndex.class).putTransactional(formData.getPersonId(), formData.getFirstName().getValue(), formData.getLastName().getValue());
+    // tag::all[]
 
     return formData;
   }
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.server.sql;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.eclipse.scout.contacts.server.sql.DatabaseProperties.SampleBatchSizeProperty;
+import org.eclipse.scout.rt.platform.ApplicationScoped;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.platform.config.CONFIG;
+import org.eclipse.scout.rt.platform.exception.PlatformExceptionTranslator;
+import org.eclipse.scout.rt.server.jdbc.SQL;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Inserts generated rows with one prepared statement and JDBC batches, using the connection of the current
+ * transaction.
+ */
+@ApplicationScoped
+public class BatchInserter {
+  private static final Logger LOG = LoggerFactory.getLogger(BatchInserter.class);
+
+  private static final int PROGRESS_LOG_INTERVAL = 100000;
+
+  /**
+   * Binds the values of one row to the insert statement.
+   */
+  @FunctionalInterface
+  public interface IRowBinder {
+
+    /**
+     * @param row
+     *          zero based index of the row to bind
+     */
+    void bind(PreparedStatement statement, int row) throws SQLException;
+  }
+
+  /**
+   * Inserts <code>rowCount</code> rows into the given table.
+   */
+  public void insert(String table, String sql, int rowCount, IRowBinder binder) {
+    if (rowCount <= 0) {
+      return;
+    }
+
+    try (Batch batch = open(table, sql)) {
+      for (int row = 0; row < rowCount; row++) {
+        batch.add(binder);
+      }
+      batch.complete();
+    }
+  }
+
+  /**
+   * Opens a batch for rows that are generated one by one, e.g. if their number is not known in advance. The rows are
+   * sent to the database whenever a JDBC batch is full, so they do not need to be kept in memory.
+   * <p>
+   * Call {@link Batch#complete()} after the last row, then close the batch.
+   */
+  public Batch open(String table, String sql) {
+    try {
+      return new Batch(table, SQL.getConnection().prepareStatement(sql), CONFIG.getPropertyValue(SampleBatchSizeProperty.class));
+    }
+    catch (SQLException e) {
+      throw BEANS.get(PlatformExceptionTranslator.class).translate(e);
+    }
+  }
+
+  /**
+   * Insert statement collecting rows into JDBC batches. {@link #complete()} executes the last batch, {@link #close()}
+   * discards it if the batch was not completed, e.g. because generating the rows failed.
+   */
+  public static class Batch implements AutoCloseable {
+
+    private final String m_table;
+    private final PreparedStatement m_statement;
+    private final int m_batchSize;
+    private final long m_start = System.currentTimeMillis();
+    private int m_rowCount;
+    private boolean m_completed;
+
+    protected Batch(String table, PreparedStatement statement, int batchSize) {
+      m_table = table;
+      m_statement = statement;
+      m_batchSize = batchSize;
+    }
+
+    /**
+     * Binds the next row and adds it to the current batch.
+     */
+    public void add(IRowBinder binder) {
+      try {
+        binder.bind(m_statement, m_rowCount);
+        m_statement.addBatch();
+        m_rowCount++;
+
+        if (m_rowCount % m_batchSize == 0) {
+          m_statement.executeBatch();
+        }
+        if (m_rowCount % PROGRESS_LOG_INTERVAL == 0) {
+          LOG.info("{} rows inserted into '{}'", m_rowCount, m_table);
+        }
+      }
+      catch (SQLException e) {
+        throw BEANS.get(PlatformExceptionTranslator.class).translate(e);
+      }
+    }
+
+    public int getRowCount() {
+      return m_rowCount;
+    }
+
+    /**
+     * Executes the last batch. Must be called after the last row was added.
+     */
+    public void complete() {
+      try {
+        m_statement.executeBatch();
+      }
+      catch (SQLException e) {
+        throw BEANS.get(PlatformExceptionTranslator.class).translate(e);
+      }
+      m_completed = true;
+      LOG.info("{} rows inserted into '{}' in {} ms", m_rowCount, m_table, System.currentTimeMillis() - m_start);
+    }
+
+    @Override
+    public void close() {
+      try (PreparedStatement statement = m_statement) {
+        if (!m_completed) {
+          // the rows were not generated completely, the transaction is rolled back anyway
+          statement.clearBatch();
+        }
+      }
+      catch (SQLException e) {
+        throw BEANS.get(PlatformExceptionTranslator.class).translate(e);
+      }
+    }
+  }
+}
@@ -13,6 +13,9 @@ package org.eclipse.scout.contacts.server.sql;
 import javax.security.auth.Subject;
 
 import org.eclipse.scout.rt.platform.config.AbstractBooleanConfigProperty;
+import org.eclipse.scout.rt.platform.config.AbstractIntegerConfigProperty;
+import org.eclipse.scout.rt.platform.config.AbstractLongConfigProperty;
+import org.eclipse.scout.rt.platform.config.AbstractPositiveIntegerConfigProperty;
 import org.eclipse.scout.rt.platform.config.AbstractStringConfigProperty;
 import org.eclipse.scout.rt.platform.config.AbstractSubjectConfigProperty;
 
@@ -100,5 +103,79 @@ public class DatabaseProperties {
     }
     // tag::structure[]
   }
+  // end::structure[]
+
+  public static class SampleOrganizationCountProperty extends AbstractIntegerConfigProperty {
+
+    @Override
+    public Integer getDefaultValue() {
+      return 0;
+    }
+
+    @Override
+    public String getKey() {
+      return "contacts.database.sample.organizations";
+    }
+
+    @Override
+    public String description() {
+      return "Number of synthetic organizations generated into a newly created contact database. The default value is 0.";
+    }
+  }
+
+  public static class SamplePersonCountProperty extends AbstractIntegerConfigProperty {
+
+    @Override
+    public Integer getDefaultValue() {
+      return 0;
+    }
+
+    @Override
+    public String getKey() {
+      return "contacts.database.sample.persons";
+    }
+
+    @Override
+    public String description() {
+      return "Number of synthetic persons generated into a newly created contact database. The default value is 0.";
+    }
+  }
+
+  public static class SampleSeedProperty extends AbstractLongConfigProperty {
+
+    @Override
+    public Long getDefaultValue() {
+      return 4711L;
+    }
+
+    @Override
+    public String getKey() {
+      return "contacts.database.sample.seed";
+    }
+
+    @Override
+    public String description() {
+      return "Seed of the random generator for synthetic sample data. The same seed always generates the same data. The default value is 4711.";
+    }
+  }
+
+  public static class SampleBatchSizeProperty extends AbstractPositiveIntegerConfigProperty {
+
+    @Override
+    public Integer getDefaultValue() {
+      return 1000;
+    }
+
+    @Override
+    public String getKey() {
+      return "contacts.database.sample.batchSize";
+    }
+
+    @Override
+    public String description() {
+      return "Number of rows inserted with one JDBC batch when generating synthetic sample data. The default value is 1000.";
+    }
+  }
+  // tag::structure[]
 }
 // end::structure[]
@@ -4,6 +4,7 @@ import java.util.Set;
 
 import javax.annotation.PostConstruct;
 
+import org.eclipse.scout.contacts.server.person.PersonNameIndex;
 import org.eclipse.scout.contacts.server.sql.DatabaseProperties.DatabaseAutoCreateProperty;
 import org.eclipse.scout.contacts.server.sql.DatabaseProperties.DatabaseAutoPopulateProperty;
 import org.eclipse.scout.rt.platform.ApplicationScoped;
@@ -34,6 +35,10 @@ public class DatabaseSetupService implements IDataStoreService {
         IRunnable runnable = () -> {
           createOrganizationTable();
           createPersonTable();
+          // end::service[]
+          upgradeTables();
+          BEANS.get(PersonNameIndex.class).rebuild();
+          // tag::service[]
         };
 
         context.run(runnable);
@@ -54,6 +59,11 @@ public class DatabaseSetupService implements IDataStoreService {
         SQL.insert(SQLs.ORGANIZATION_INSERT_SAMPLE + SQLs.ORGANIZATION_VALUES_02);
         LOG.info("Database table 'ORGANIZATION' populated with sample data");
       }
+      // end::service[]
+
+      BEANS.get(SampleDataGenerator.class).generateOrganizations();
+      createIndexes("ORGANIZATION", SQLs.ORGANIZATION_CREATE_INDEXES);
+      // tag::service[]
     }
   }
 
@@ -96,9 +106,56 @@ public class DatabaseSetupService implements IDataStoreService {
         // tag::service[]
         LOG.info("Database table 'PERSON' populated with sample data");
       }
+      // end::service[]
+
+      BEANS.get(SampleDataGenerator.class).generatePersons();
+      createIndexes("PERSON", SQLs.PERSON_CREATE_INDEXES);
+      // tag::service[]
+    }
+  }
+
+  // end::service[]
+  /**
+   * Creates the secondary indexes of a table. Called after the sample and generated data is inserted, so the rows are
+   * indexed in bulk instead of one by one.
+   */
+  protected void createIndexes(String table, String... createIndexStatements) {
+    for (String createIndex : createIndexStatements) {
+      SQL.insert(createIndex);
     }
+    LOG.info("Indexes for database table '{}' created", table);
+  }
+
+  /**
+   * Adds the columns and indexes missing in tables created by an older version of this service.
+   */
+  public void upgradeTables() {
+    upgradeTable("ORGANIZATION", "NAME_LC", SQLs.ORGANIZATION_ADD_SEARCH_COLUMNS);
+    upgradeTable("PERSON", "LAST_NAME_LC", SQLs.PERSON_ADD_SEARCH_COLUMNS);
+    upgradeTable("PERSON", "LAST_NAME_SORT", SQLs.PERSON_ADD_SORT_COLUMNS);
   }
 
+  /**
+   * Runs the given statements if the table exists but does not have the given column yet.
+   */
+  protected void upgradeTable(String table, String column, String... statements) {
+    Set<String> columns = getExistingColumns(table);
+    if (columns.isEmpty() || columns.contains(column)) {
+      return;
+    }
+    for (String statement : statements) {
+      SQL.insert(statement);
+    }
+    LOG.info("Database table '{}' upgraded with column '{}'", table, column);
+  }
+
+  protected Set<String> getExistingColumns(String table) {
+    StringArrayHolder columns = new StringArrayHolder();
+    SQL.selectInto(SQLs.SELECT_COLUMN_NAMES, new NVPair("table", table), new NVPair("result", columns));
+    return CollectionUtility.hashSet(columns.getValue());
+  }
+  // tag::service[]
+
   private Set<String> getExistingTables() {
     StringArrayHolder tables = new StringArrayHolder();
     SQL.selectInto(SQLs.SELECT_TABLE_NAMES, new NVPair("result", tables)); // <1>
@@ -110,12 +167,14 @@ public class DatabaseSetupService implements IDataStoreService {
   public void dropDataStore() {
     SQL.update(SQLs.PERSON_DROP_TABLE);
     SQL.update(SQLs.ORGANIZATION_DROP_TABLE);
+    BEANS.get(PersonNameIndex.class).invalidate();
   }
 
   @Override
   public void createDataStore() {
     createOrganizationTable();
     createPersonTable();
+    BEANS.get(PersonNameIndex.class).invalidate();
   }
   // tag::service[]
 }
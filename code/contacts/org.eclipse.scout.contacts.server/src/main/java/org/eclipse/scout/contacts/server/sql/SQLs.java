@@ -24,6 +24,7 @@ public interface SQLs {
       + "CREATE   TABLE ORGANIZATION "
       + "         (organization_id VARCHAR(64) NOT NULL CONSTRAINT ORGANIZATION_PK PRIMARY KEY,"
       + "          name VARCHAR(64), "
+      + "          name_lc VARCHAR(64) GENERATED ALWAYS AS (LOWER(name)), " // <2>
       + "          logo_url VARCHAR(512), "
       + "          url VARCHAR(64), "
       + "          street VARCHAR(64), "
@@ -38,13 +39,19 @@ public interface SQLs {
       + "CREATE   TABLE PERSON "
       + "         (person_id VARCHAR(64) NOT NULL CONSTRAINT PERSON_PK PRIMARY KEY, "
       + "          first_name VARCHAR(64), "
+      + "          first_name_lc VARCHAR(64) GENERATED ALWAYS AS (LOWER(first_name)), "
       + "          last_name VARCHAR(64), "
+      + "          last_name_lc VARCHAR(64) GENERATED ALWAYS AS (LOWER(last_name)), "
+      + "          first_name_sort VARCHAR(64) GENERATED ALWAYS AS (COALESCE(first_name, '')), "
+      + "          last_name_sort VARCHAR(64) GENERATED ALWAYS AS (COALESCE(last_name, '')), "
       + "          picture_url VARCHAR(512), "
       + "          date_of_birth DATE, "
       + "          gender VARCHAR(1), "
       + "          street VARCHAR(64), "
       + "          city VARCHAR(64), "
+      + "          city_lc VARCHAR(64) GENERATED ALWAYS AS (LOWER(city)), "
       + "          country VARCHAR(2), "
+      + "          country_lc VARCHAR(2) GENERATED ALWAYS AS (LOWER(country)), "
       + "          phone VARCHAR(20), "
       + "          mobile VARCHAR(20), "
       + "          email VARCHAR(64), "
@@ -57,6 +64,54 @@ public interface SQLs {
       + "         )";
 // end::createDB[]
 
+  String[] ORGANIZATION_CREATE_INDEXES = {
+      "CREATE INDEX ORGANIZATION_NAME_IX ON ORGANIZATION (name_lc)"};
+
+  String[] PERSON_CREATE_INDEXES = {
+      "CREATE INDEX PERSON_LAST_NAME_IX ON PERSON (last_name_lc)",
+      "CREATE INDEX PERSON_FIRST_NAME_IX ON PERSON (first_name_lc)",
+      "CREATE INDEX PERSON_CITY_IX ON PERSON (city_lc)",
+      "CREATE INDEX PERSON_COUNTRY_IX ON PERSON (country_lc)",
+      "CREATE INDEX PERSON_ORGANIZATION_IX ON PERSON (organization_id)",
+      "CREATE INDEX PERSON_SORT_IX ON PERSON (last_name_sort, first_name_sort, person_id)"};
+
+  String SELECT_COLUMN_NAMES = ""
+      + "SELECT   UPPER(c.columnname) "
+      + "FROM     sys.syscolumns c, "
+      + "         sys.systables t "
+      + "WHERE    c.referenceid = t.tableid "
+      + "AND      UPPER(t.tablename) = :table "
+      + "INTO     :result";
+
+  /**
+   * Adds the lower-case search column of the organization name to an ORGANIZATION table created by an older version.
+   */
+  String[] ORGANIZATION_ADD_SEARCH_COLUMNS = {
+      "ALTER TABLE ORGANIZATION ADD COLUMN name_lc VARCHAR(64) GENERATED ALWAYS AS (LOWER(name))",
+      "CREATE INDEX ORGANIZATION_NAME_IX ON ORGANIZATION (name_lc)"};
+
+  /**
+   * Adds the lower-case search columns to a PERSON table created by an older version.
+   */
+  String[] PERSON_ADD_SEARCH_COLUMNS = {
+      "ALTER TABLE PERSON ADD COLUMN first_name_lc VARCHAR(64) GENERATED ALWAYS AS (LOWER(first_name))",
+      "ALTER TABLE PERSON ADD COLUMN last_name_lc VARCHAR(64) GENERATED ALWAYS AS (LOWER(last_name))",
+      "ALTER TABLE PERSON ADD COLUMN city_lc VARCHAR(64) GENERATED ALWAYS AS (LOWER(city))",
+      "ALTER TABLE PERSON ADD COLUMN country_lc VARCHAR(2) GENERATED ALWAYS AS (LOWER(country))",
+      "CREATE INDEX PERSON_LAST_NAME_IX ON PERSON (last_name_lc)",
+      "CREATE INDEX PERSON_FIRST_NAME_IX ON PERSON (first_name_lc)",
+      "CREATE INDEX PERSON_CITY_IX ON PERSON (city_lc)",
+      "CREATE INDEX PERSON_COUNTRY_IX ON PERSON (country_lc)",
+      "CREATE INDEX PERSON_ORGANIZATION_IX ON PERSON (organization_id)"};
+
+  /**
+   * Adds the sort columns of the paged person listing to a PERSON table created by an older version.
+   */
+  String[] PERSON_ADD_SORT_COLUMNS = {
+      "ALTER TABLE PERSON ADD COLUMN first_name_sort VARCHAR(64) GENERATED ALWAYS AS (COALESCE(first_name, ''))",
+      "ALTER TABLE PERSON ADD COLUMN last_name_sort VARCHAR(64) GENERATED ALWAYS AS (COALESCE(last_name, ''))",
+      "CREATE INDEX PERSON_SORT_IX ON PERSON (last_name_sort, first_name_sort, person_id)"};
+
   String PERSON_LOOKUP = ""
       + "SELECT   person_id, "
       + "         CASE "
@@ -70,11 +125,17 @@ public interface SQLs {
       + "FROM     PERSON "
       + "WHERE    1 = 1 "
       + "<key>    AND person_id = :key</key> "
-      + "<text>   AND (UPPER(first_name) LIKE UPPER('%'||:text||'%') "
-      + "         OR UPPER(last_name) LIKE UPPER('%'||:text||'%')) "
+      + "<text>   AND (first_name_lc LIKE '%'||:text "
+      + "         OR last_name_lc LIKE '%'||:text) "
       + "</text>"
       + "<all> </all>";
 
+  String PERSON_NAME_INDEX_SELECT = ""
+      + "SELECT   person_id, "
+      + "         first_name, "
+      + "         last_name "
+      + "FROM     PERSON ";
+
   //tag::lookupService[]
   String ORGANIZATION_LOOKUP = ""
       + "SELECT   organization_id, "
@@ -82,11 +143,13 @@ public interface SQLs {
       + "FROM     ORGANIZATION "
       + "WHERE    1 = 1 "
       + "<key>    AND organization_id = :key</key> " // <1>
-      + "<text>   AND UPPER(name) LIKE UPPER(:text||'%') </text> " // <2>
+      + "<text>   AND name_lc LIKE :text </text> " // <2>
       + "<all></all>"; // <3>
   //end::lookupService[]
 
-  String AND_LIKE_CAUSE = "AND LOWER(%s) LIKE LOWER(:%s || '%%') ";
+  String AND_LIKE_CAUSE = "AND %s LIKE :%s ";
+
+  String AND_EQUALS_CAUSE = "AND %s = :%s ";
 
   //tag::organizationListing[]
   String ORGANIZATION_PAGE_SELECT = ""
@@ -168,6 +231,23 @@ public interface SQLs {
       + "         :{page.email}, "
       + "         :{page.organization}";
 
+  // the leading range predicate lets the database seek PERSON_SORT_IX to the start of the page
+  String PERSON_PAGE_KEYSET_WHERE = ""
+      + "AND      last_name_sort >= :tokenLastName "
+      + "AND      (last_name_sort > :tokenLastName "
+      + "         OR (last_name_sort = :tokenLastName "
+      + "             AND (first_name_sort > :tokenFirstName "
+      + "                  OR (first_name_sort = :tokenFirstName "
+      + "                      AND person_id > :tokenPersonId)))) ";
+
+  String PERSON_PAGE_ORDER_BY = ""
+      + "ORDER BY last_name_sort, "
+      + "         first_name_sort, "
+      + "         person_id ";
+
+  String PERSON_PAGE_FETCH_FIRST = ""
+      + "FETCH    FIRST :pageSize ROWS ONLY ";
+
   String PERSON_INSERT = ""
       + "INSERT   INTO "
       + "PERSON  (person_id) "
@@ -645,6 +725,30 @@ public interface SQLs {
       + "          null, "
       + "          'org02')";
 
+  // plain JDBC statements used by the SampleDataGenerator
+  String ORGANIZATION_INSERT_GENERATED = ""
+      + "INSERT   INTO ORGANIZATION "
+      + "        (organization_id, "
+      + "         name, "
+      + "         city, "
+      + "         country, "
+      + "         url) "
+      + "VALUES  (?, ?, ?, ?, ?)";
+
+  String PERSON_INSERT_GENERATED = ""
+      + "INSERT   INTO PERSON "
+      + "         (person_id, "
+      + "          first_name, "
+      + "          last_name, "
+      + "          date_of_birth, "
+      + "          gender, "
+      + "          street, "
+      + "          city, "
+      + "          country, "
+      + "          email, "
+      + "          organization_id) "
+      + "VALUES   (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
   String PERSON_DROP_TABLE = "DROP TABLE PERSON";
   String ORGANIZATION_DROP_TABLE = "DROP TABLE ORGANIZATION";
 
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.server.sql;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Random;
+
+import org.eclipse.scout.contacts.server.sql.DatabaseProperties.SampleOrganizationCountProperty;
+import org.eclipse.scout.contacts.server.sql.DatabaseProperties.SamplePersonCountProperty;
+import org.eclipse.scout.contacts.server.sql.DatabaseProperties.SampleSeedProperty;
+import org.eclipse.scout.rt.platform.ApplicationScoped;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.platform.config.CONFIG;
+
+/**
+ * Generates synthetic organizations and persons to reproduce production-size datasets. The data only depends on the
+ * configured counts and seed, so two databases generated with the same configuration are identical.
+ *
+ * @see SampleOrganizationCountProperty
+ * @see SamplePersonCountProperty
+ * @see SampleSeedProperty
+ */
+@ApplicationScoped
+public class SampleDataGenerator {
+
+  private static final String[] FIRST_NAMES = {
+      "Anna", "Ben", "Clara", "David", "Elena", "Felix", "Greta", "Hugo", "Ines", "Jonas",
+      "Klara", "Lukas", "Mia", "Noah", "Olivia", "Paul", "Quentin", "Rosa", "Simon", "Tara",
+      "Urs", "Vera", "Walter", "Xenia", "Yann", "Zoe"};
+
+  private static final String[] LAST_NAMES = {
+      "Ammann", "Baumann", "Caduff", "Dubois", "Egli", "Frei", "Graf", "Huber", "Imhof", "Jost",
+      "Keller", "Luethi", "Meier", "Neuhaus", "Odermatt", "Pfister", "Quadri", "Roth", "Schmid", "Tanner",
+      "Ulrich", "Vogel", "Weber", "Zbinden"};
+
+  private static final String[] STREETS = {
+      "Bahnhofstrasse", "Hauptstrasse", "Dorfstrasse", "Kirchweg", "Seestrasse", "Bergweg"};
+
+  private static final String[][] CITIES = {
+      {"Zürich", "CH"}, {"Bern", "CH"}, {"Basel", "CH"}, {"Luzern", "CH"}, {"Baden", "CH"},
+      {"München", "DE"}, {"Frankfurt", "DE"}, {"Düsseldorf", "DE"}, {"London", "GB"}, {"Paris", "FR"}};
+
+  private static final String[] ORGANIZATION_KINDS = {"AG", "GmbH", "Ltd", "SA", "Group"};
+
+  public int getOrganizationCount() {
+    return Math.max(0, CONFIG.getPropertyValue(SampleOrganizationCountProperty.class));
+  }
+
+  public int getPersonCount() {
+    return Math.max(0, CONFIG.getPropertyValue(SamplePersonCountProperty.class));
+  }
+
+  /**
+   * @return the id of the n-th generated organization
+   */
+  public static String organizationId(int index) {
+    return String.format("gen-org-%06d", index);
+  }
+
+  /**
+   * @return the id of the n-th generated person
+   */
+  public static String personId(int index) {
+    return String.format("gen-prs-%08d", index);
+  }
+
+  public void generateOrganizations() {
+    Random random = createRandom(1);
+    BEANS.get(BatchInserter.class).insert("ORGANIZATION", SQLs.ORGANIZATION_INSERT_GENERATED, getOrganizationCount(), (statement, row) -> {
+      String[] city = CITIES[random.nextInt(CITIES.length)];
+      String name = LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + ORGANIZATION_KINDS[random.nextInt(ORGANIZATION_KINDS.length)] + " " + row;
+      statement.setString(1, organizationId(row));
+      statement.setString(2, name);
+      statement.setString(3, city[0]);
+      statement.setString(4, city[1]);
+      statement.setString(5, "https://www.example.com/org/" + row);
+    });
+  }
+
+  public void generatePersons() {
+    Random random = createRandom(2);
+    int organizationCount = getOrganizationCount();
+    LocalDate minDateOfBirth = LocalDate.of(1940, 1, 1);
+
+    BEANS.get(BatchInserter.class).insert("PERSON", SQLs.PERSON_INSERT_GENERATED, getPersonCount(), (statement, row) -> {
+      String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+      String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+      String[] city = CITIES[random.nextInt(CITIES.length)];
+
+      statement.setString(1, personId(row));
+      statement.setString(2, firstName);
+      statement.setString(3, lastName);
+      statement.setDate(4, Date.valueOf(minDateOfBirth.plusDays(random.nextInt(60 * 365))));
+      statement.setString(5, random.nextBoolean() ? "F" : "M");
+      statement.setString(6, STREETS[random.nextInt(STREETS.length)] + " " + (1 + random.nextInt(200)));
+      statement.setString(7, city[0]);
+      statement.setString(8, city[1]);
+      statement.setString(9, (firstName + "." + lastName + row + "@example.com").toLowerCase(Locale.ROOT));
+      if (organizationCount > 0) {
+        statement.setString(10, organizationId(random.nextInt(organizationCount)));
+      }
+      else {
+        statement.setNull(10, Types.VARCHAR);
+      }
+    });
+  }
+
+  /**
+   * @return random generator for one kind of data, so the persons do not change if e.g. the number of organizations
+   *         is changed
+   */
+  public Random createRandom(int stream) {
+    return new Random(CONFIG.getPropertyValue(SampleSeedProperty.class) * 31 + stream);
+  }
+}
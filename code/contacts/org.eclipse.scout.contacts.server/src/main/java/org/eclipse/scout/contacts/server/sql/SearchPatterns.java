@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.server.sql;
+
+import java.util.Locale;
+
+import org.eclipse.scout.rt.platform.util.StringUtility;
+
+/**
+ * Creates LIKE patterns for the lower-cased search columns (e.g. <code>last_name_lc</code>). The pattern is normalized
+ * in Java and bound as a whole, so Derby can turn a prefix search into an index range scan.
+ */
+public final class SearchPatterns {
+
+  public static final String SQL_WILDCARD = "%";
+
+  private SearchPatterns() {
+  }
+
+  /**
+   * @return the lower-cased text followed by a SQL wildcard, or <code>null</code> if the text is empty
+   */
+  public static String toLowerCasePrefixPattern(String text) {
+    if (!StringUtility.hasText(text)) {
+      return null;
+    }
+
+    String pattern = text.toLowerCase(Locale.ROOT);
+    if (!pattern.endsWith(SQL_WILDCARD)) {
+      pattern += SQL_WILDCARD;
+    }
+    return pattern;
+  }
+
+  /**
+   * Same as {@link #toLowerCasePrefixPattern(String)} but first replaces the given lookup call wildcard (e.g.
+   * <code>*</code>) with the SQL wildcard.
+   */
+  public static String toLowerCasePrefixPattern(String text, String wildcard) {
+    if (text != null && StringUtility.hasText(wildcard)) {
+      text = text.replace(wildcard, SQL_WILDCARD);
+    }
+    return toLowerCasePrefixPattern(text);
+  }
+}
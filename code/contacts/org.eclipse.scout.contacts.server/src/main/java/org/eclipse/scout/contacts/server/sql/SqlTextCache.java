@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.server.sql;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Bounded cache for SQL statements assembled from a set of optional criteria. The key is a bit set of the active
+ * criteria, so each combination is built once and always yields the identical statement text. Identical texts let
+ * Derby reuse its compiled statement plans instead of compiling a new statement per request.
+ */
+public class SqlTextCache {
+
+  private final int m_maxSize;
+  private final ConcurrentMap<Integer, String> m_statements = new ConcurrentHashMap<>();
+  private final AtomicLong m_hitCount = new AtomicLong();
+  private final AtomicLong m_missCount = new AtomicLong();
+
+  public SqlTextCache(int maxSize) {
+    m_maxSize = maxSize;
+  }
+
+  /**
+   * @return the cached statement for the given criteria. The statement is created by the given builder if not cached
+   *         yet.
+   */
+  public String get(int criteria, IntFunction<String> builder) {
+    String sql = m_statements.get(criteria);
+    if (sql != null) {
+      m_hitCount.incrementAndGet();
+      return sql;
+    }
+
+    m_missCount.incrementAndGet();
+    sql = builder.apply(criteria);
+    if (m_statements.size() < m_maxSize) {
+      m_statements.putIfAbsent(criteria, sql);
+    }
+    return sql;
+  }
+
+  public long getHitCount() {
+    return m_hitCount.get();
+  }
+
+  public long getMissCount() {
+    return m_missCount.get();
+  }
+
+  public int size() {
+    return m_statements.size();
+  }
+
+  public void clear() {
+    m_statements.clear();
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount() + "]";
+  }
+}
@@ -0,0 +1,142 @@
+package org.eclipse.scout.contacts.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.eclipse.scout.contacts.server.person.PersonNameIndex;
+import org.eclipse.scout.contacts.server.person.PersonNameIndex.Entry;
+import org.eclipse.scout.contacts.server.sql.DatabaseSetupService;
+import org.eclipse.scout.contacts.server.sql.DerbySqlService;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.platform.exception.ProcessingException;
+import org.eclipse.scout.rt.platform.transaction.TransactionScope;
+import org.eclipse.scout.rt.server.context.ServerRunContexts;
+import org.eclipse.scout.rt.testing.platform.runner.RunWithSubject;
+import org.eclipse.scout.rt.testing.server.runner.RunWithServerSession;
+import org.eclipse.scout.rt.testing.server.runner.ServerTestRunner;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests for {@link PersonNameIndex}
+ */
+@RunWith(ServerTestRunner.class)
+@RunWithServerSession(ServerSession.class)
+@RunWithSubject("default")
+public class PersonNameIndexTest {
+
+  private PersonNameIndex index;
+
+  @BeforeClass
+  public static void setupDatabase() {
+    BEANS.get(DatabaseSetupService.class).createOrganizationTable();
+    BEANS.get(DatabaseSetupService.class).createPersonTable();
+  }
+
+  @AfterClass
+  public static void destroyDBConnections() {
+    BEANS.get(DerbySqlService.class).dropDB();
+    BEANS.get(DerbySqlService.class).destroySqlConnectionPool();
+  }
+
+  @Before
+  public void before() {
+    index = new PersonNameIndex();
+    index.rebuild();
+  }
+
+  @Test
+  public void testSubstringSearch() {
+    List<Entry> result = index.search("ABB", 10);
+    assertEquals(1, result.size());
+    assertEquals("Rabbit White", result.get(0).getDisplayName());
+  }
+
+  @Test
+  public void testRanking() {
+    // 'Christian Braun', 'Christoph Bräunlich' and 'Christian Frey' start with the text, 'Cédric' does not match
+    List<Entry> result = index.search("chri", 10);
+    assertEquals(3, result.size());
+    for (Entry entry : result) {
+      assertTrue(entry.getNormalizedName().startsWith("chri"));
+    }
+
+    // name start ranks before word start before any other match
+    result = index.search("br", 10);
+    assertEquals("Christian Braun", result.get(0).getDisplayName());
+  }
+
+  @Test
+  public void testResultCap() {
+    assertEquals(2, index.search("e", 2).size());
+  }
+
+  @Test
+  public void testPut() {
+    index.put("prs02", "Rabbit", "Black");
+    assertEquals(0, index.search("white", 10).size());
+    assertEquals("prs02", index.search("black", 10).get(0).getPersonId());
+  }
+
+  @Test
+  public void testPutTransactionalIsAppliedOnCommit() {
+    ServerRunContexts.copyCurrent()
+        .withTransactionScope(TransactionScope.REQUIRES_NEW)
+        .run(() -> {
+          index.putTransactional("prs02", "Rabbit", "Grey");
+          assertEquals(0, index.search("grey", 10).size());
+        });
+    assertEquals("prs02", index.search("grey", 10).get(0).getPersonId());
+  }
+
+  @Test
+  public void testPutTransactionalIsDiscardedOnRollback() {
+    try {
+      ServerRunContexts.copyCurrent()
+          .withTransactionScope(TransactionScope.REQUIRES_NEW)
+          .run(() -> {
+            index.putTransactional("prs02", "Rabbit", "Grey");
+            throw new ProcessingException("rollback");
+          });
+      fail("transaction must be rolled back");
+    }
+    catch (ProcessingException expected) {
+      // expected
+    }
+    assertEquals(0, index.search("grey", 10).size());
+    assertEquals("prs02", index.search("white", 10).get(0).getPersonId());
+  }
+
+  @Test
+  public void testPutDuringRebuildIsKept() {
+    PersonNameIndex rebuildingIndex = new PersonNameIndex() {
+      @Override
+      protected Object[][] loadRows() {
+        Object[][] rows = super.loadRows();
+        // committed by another transaction after the rows were read
+        put("prs02", "Rabbit", "Grey");
+        return rows;
+      }
+    };
+    rebuildingIndex.rebuild();
+
+    assertEquals(0, rebuildingIndex.search("white", 10).size());
+    assertEquals("prs02", rebuildingIndex.search("grey", 10).get(0).getPersonId());
+  }
+
+  @Test
+  public void testResultCapKeepsBestMatches() {
+    List<Entry> all = index.search("e", Integer.MAX_VALUE);
+    List<Entry> best = index.search("e", 5);
+    assertEquals(5, best.size());
+    for (int i = 0; i < best.size(); i++) {
+      assertEquals(all.get(i).getPersonId(), best.get(i).getPersonId());
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package org.eclipse.scout.contacts.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.scout.contacts.server.person.PersonService;
+import org.eclipse.scout.contacts.server.sql.DatabaseSetupService;
+import org.eclipse.scout.contacts.server.sql.DerbySqlService;
+import org.eclipse.scout.contacts.shared.person.PersonPageToken;
+import org.eclipse.scout.contacts.shared.person.PersonSearchFormData;
+import org.eclipse.scout.contacts.shared.person.PersonTablePageData;
+import org.eclipse.scout.contacts.shared.person.PersonTablePageData.PersonTableRowData;
+import org.eclipse.scout.rt.platform.BEANS;
+import org.eclipse.scout.rt.shared.services.common.jdbc.SearchFilter;
+import org.eclipse.scout.rt.testing.platform.runner.RunWithSubject;
+import org.eclipse.scout.rt.testing.server.runner.RunWithServerSession;
+import org.eclipse.scout.rt.testing.server.runner.ServerTestRunner;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests for {@link PersonService}
+ */
+@RunWith(ServerTestRunner.class)
+@RunWithServerSession(ServerSession.class)
+@RunWithSubject("default")
+public class PersonServiceTest {
+
+  @BeforeClass
+  public static void setupDatabase() {
+    BEANS.get(DatabaseSetupService.class).createOrganizationTable();
+    BEANS.get(DatabaseSetupService.class).createPersonTable();
+  }
+
+  @AfterClass
+  public static void destroyDBConnections() {
+    BEANS.get(DerbySqlService.class).dropDB();
+    BEANS.get(DerbySqlService.class).destroySqlConnectionPool();
+  }
+
+  @Test
+  public void testPagedTableDataReturnsAllRowsOnce() {
+    PersonService svc = new PersonService();
+    int total = svc.getPersonTableData(new SearchFilter(), null).getRowCount();
+
+    List<String> pagedIds = new ArrayList<>();
+    PersonPageToken token = null;
+    PersonTablePageData page;
+    do {
+      page = svc.getPersonTableData(new SearchFilter(), null, token, 7);
+      assertTrue(page.getRowCount() <= 7);
+      for (PersonTableRowData row : page.getRows()) {
+        pagedIds.add(row.getPersonId());
+      }
+      if (page.getRowCount() > 0) {
+        token = PersonPageToken.after(page.rowAt(page.getRowCount() - 1));
+      }
+    }
+    while (page.getRowCount() == 7);
+
+    Set<String> uniqueIds = new HashSet<>(pagedIds);
+    assertEquals(total, pagedIds.size());
+    assertEquals(total, uniqueIds.size());
+  }
+
+  @Test
+  public void testPagedTableDataIsSortedByName() {
+    PersonService svc = new PersonService();
+    PersonTablePageData page = svc.getPersonTableData(new SearchFilter(), null, null, 100);
+
+    for (int i = 1; i < page.getRowCount(); i++) {
+      String previous = sortKey(page.rowAt(i - 1));
+      String current = sortKey(page.rowAt(i));
+      assertTrue(previous + " <= " + current, previous.compareTo(current) <= 0);
+    }
+  }
+
+  @Test
+  public void testPagedTableDataForOrganization() {
+    PersonService svc = new PersonService();
+    PersonTablePageData page = svc.getPersonTableData(new SearchFilter(), "org01", null, 100);
+    assertEquals(2, page.getRowCount());
+  }
+
+  @Test
+  public void testTableDataSqlIsCachedPerCriteria() {
+    PersonService svc = new PersonService();
+    PersonSearchFormData searchData = new PersonSearchFormData();
+    searchData.getLastName().setValue("B");
+    SearchFilter filter = new SearchFilter();
+    filter.setFormData(searchData);
+
+    svc.getPersonTableData(filter, null);
+    assertEquals(0, svc.getTableDataSqlCache().getHitCount());
+    assertEquals(1, svc.getTableDataSqlCache().getMissCount());
+
+    searchData.getLastName().setValue("S");
+    PersonTablePageData pageData = svc.getPersonTableData(filter, null);
+    assertEquals(1, svc.getTableDataSqlCache().getHitCount());
+    assertEquals(1, svc.getTableDataSqlCache().getMissCount());
+    for (PersonTableRowData row : pageData.getRows()) {
+      assertTrue(row.getLastName().toLowerCase().startsWith("s"));
+    }
+
+    searchData.getLocation().getCity().setValue("Bern");
+    svc.getPersonTableData(filter, null);
+    assertEquals(2, svc.getTableDataSqlCache().getMissCount());
+  }
+
+  @Test
+  public void testLastNameSearchIsCaseInsensitivePrefix() {
+    PersonService svc = new PersonService();
+
+    Set<String> lowerCaseIds = personIdsByLastName(svc, "sch");
+    Set<String> upperCaseIds = personIdsByLastName(svc, "SCH");
+
+    assertEquals(lowerCaseIds, upperCaseIds);
+    assertTrue(lowerCaseIds.contains("prs04")); // Schroder
+    assertTrue(lowerCaseIds.contains("prs22")); // Schmid
+    assertFalse(lowerCaseIds.contains("prs05")); // Wegmüller, no prefix match
+  }
+
+  @Test
+  public void testLastNameSearchMatchesOnlyPrefix() {
+    PersonService svc = new PersonService();
+    PersonTablePageData pageData = svc.getPersonTableData(createLastNameFilter("mei"), null);
+
+    assertTrue(pageData.getRowCount() > 0);
+    for (PersonTableRowData row : pageData.getRows()) {
+      assertTrue(row.getLastName(), row.getLastName().toLowerCase().startsWith("mei"));
+    }
+  }
+
+  private static Set<String> personIdsByLastName(PersonService svc, String lastName) {
+    Set<String> ids = new HashSet<>();
+    for (PersonTableRowData row : svc.getPersonTableData(createLastNameFilter(lastName), null).getRows()) {
+      ids.add(row.getPersonId());
+    }
+    return ids;
+  }
+
+  private static SearchFilter createLastNameFilter(String lastName) {
+    PersonSearchFormData searchData = new PersonSearchFormData();
+    searchData.getLastName().setValue(lastName);
+    SearchFilter filter = new SearchFilter();
+    filter.setFormData(searchData);
+    return filter;
+  }
+
+  private static String sortKey(PersonTableRowData row) {
+    PersonPageToken token = PersonPageToken.after(row);
+    return token.getLastName() + '\0' + token.getFirstName() + '\0' + token.getPersonId();
+  }
+}
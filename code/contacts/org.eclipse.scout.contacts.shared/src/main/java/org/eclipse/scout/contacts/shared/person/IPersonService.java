@@ -20,6 +20,19 @@ import org.eclipse.scout.rt.shared.services.common.jdbc.SearchFilter;
 public interface IPersonService {
 
   PersonTablePageData getPersonTableData(SearchFilter filter, String organizationId); // <1>
+  //end::all[]
+
+  /**
+   * Keyset paginated variant of {@link #getPersonTableData(SearchFilter, String)}. Rows are ordered by
+   * <code>(last_name, first_name, person_id)</code>.
+   *
+   * @param token
+   *          continuation token of the previous page or <code>null</code> to load the first page
+   * @param pageSize
+   *          maximum number of rows to return. If fewer rows are returned, the last page is reached.
+   */
+  PersonTablePageData getPersonTableData(SearchFilter filter, String organizationId, PersonPageToken token, int pageSize);
+  //tag::all[]
 
   PersonFormData create(PersonFormData formData);
 
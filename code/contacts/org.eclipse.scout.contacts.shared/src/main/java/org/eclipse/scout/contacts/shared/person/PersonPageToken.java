@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) 2015 BSI Business Systems Integration AG.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.html
+ *
+ * Contributors:
+ *     BSI Business Systems Integration AG - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.scout.contacts.shared.person;
+
+import java.io.Serializable;
+
+import org.eclipse.scout.contacts.shared.person.PersonTablePageData.PersonTableRowData;
+import org.eclipse.scout.rt.platform.util.StringUtility;
+
+/**
+ * Continuation token for the keyset paginated person listing. Holds the sort key
+ * <code>(last_name, first_name, person_id)</code> of the last row of the previous page.
+ */
+public class PersonPageToken implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String m_lastName;
+  private final String m_firstName;
+  private final String m_personId;
+
+  public PersonPageToken(String lastName, String firstName, String personId) {
+    // null names are sorted as empty strings, see the *_sort columns of the PERSON table
+    m_lastName = StringUtility.emptyIfNull(lastName);
+    m_firstName = StringUtility.emptyIfNull(firstName);
+    m_personId = personId;
+  }
+
+  /**
+   * @return the token to continue after the given row, or <code>null</code> if there is no row
+   */
+  public static PersonPageToken after(PersonTableRowData row) {
+    if (row == null) {
+      return null;
+    }
+    return new PersonPageToken(row.getLastName(), row.getFirstName(), row.getPersonId());
+  }
+
+  public String getLastName() {
+    return m_lastName;
+  }
+
+  public String getFirstName() {
+    return m_firstName;
+  }
+
+  public String getPersonId() {
+    return m_personId;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[" + m_lastName + ", " + m_firstName + ", " + m_personId + "]";
+  }
+}
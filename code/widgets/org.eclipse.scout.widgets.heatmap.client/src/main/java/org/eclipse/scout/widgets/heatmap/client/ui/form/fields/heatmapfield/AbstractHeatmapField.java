@@ -1,36 +1,133 @@
 package org.eclipse.scout.widgets.heatmap.client.ui.form.fields.heatmapfield;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.eclipse.scout.rt.client.IClientSession;
 import org.eclipse.scout.rt.client.ModelContextProxy;
 import org.eclipse.scout.rt.client.ModelContextProxy.ModelContext;
+import org.eclipse.scout.rt.client.context.ClientRunContexts;
+import org.eclipse.scout.rt.client.job.ModelJobs;
+import org.eclipse.scout.rt.client.session.ClientSessionProvider;
+import org.eclipse.scout.rt.client.ui.form.IForm;
 import org.eclipse.scout.rt.client.ui.form.fields.AbstractFormField;
 import org.eclipse.scout.rt.platform.BEANS;
 import org.eclipse.scout.rt.platform.annotations.ConfigProperty;
+import org.eclipse.scout.rt.platform.job.Jobs;
+import org.eclipse.scout.rt.platform.util.ObjectUtility;
 import org.eclipse.scout.rt.platform.util.event.FastListenerList;
 import org.eclipse.scout.rt.platform.util.event.IFastListenerList;
 
 public class AbstractHeatmapField extends AbstractFormField implements IHeatmapField {
 
+  /**
+   * Used until the UI reports the size of the map
+   */
+  protected static final int DEFAULT_VIEWPORT_WIDTH = 1920;
+  protected static final int DEFAULT_VIEWPORT_HEIGHT = 1080;
+  /**
+   * Pixels around the viewport that are sent as well, so a short pan does not show empty borders
+   */
+  protected static final int VIEWPORT_MARGIN = 256;
+
   private IHeatmapFieldUIFacade m_uiFacade;
 
   private final FastListenerList<IHeatmapListener> m_listenerList = new FastListenerList<>();
 
+  private int m_maxVisibleHeatPoints;
+  private int m_maxAggregationZoom;
+  private int m_viewportWidth = DEFAULT_VIEWPORT_WIDTH;
+  private int m_viewportHeight = DEFAULT_VIEWPORT_HEIGHT;
+  /**
+   * Index of the current heat points, created on demand. Points added later are not indexed until the index is rebuilt
+   * in the background (see {@link #scheduleGridRebuild()}).
+   */
+  private HeatPointGrid m_grid;
+  /**
+   * Incremented whenever the heat points are replaced, so an index built for the replaced points is discarded
+   */
+  private int m_gridGeneration;
+  private boolean m_gridRebuildScheduled;
+  /**
+   * Zoom level and bounds (see {@link HeatPointGrid#getViewportBounds}) covered by the visible heat points of the grid
+   */
+  private int m_visibleZoom;
+  private double[] m_visibleBounds;
+  private IClientSession m_session;
+  private HeatPointStream m_heatPointStream;
+  private long m_streamFlushInterval;
+  private int m_streamMaxPointsPerFlush;
+  private final AtomicBoolean m_streamFlushScheduled = new AtomicBoolean();
+
   @ConfigProperty(ConfigProperty.OBJECT)
   public HeatmapViewParameter getConfiguredViewParameter() {
     return new HeatmapViewParameter(new MapPoint(BigDecimal.valueOf(48.39141), BigDecimal.valueOf(9.51180)), 5);
   }
 
+  /**
+   * Fields with more heat points only send the heat points aggregated per cell within the current viewport to the UI.
+   */
+  @ConfigProperty(ConfigProperty.INTEGER)
+  protected int getConfiguredMaxVisibleHeatPoints() {
+    return 10000;
+  }
+
+  /**
+   * Finest zoom level on which heat points are aggregated. On higher zoom levels the raw heat points within the
+   * viewport are sent.
+   */
+  @ConfigProperty(ConfigProperty.INTEGER)
+  protected int getConfiguredMaxAggregationZoom() {
+    return 15;
+  }
+
+  /**
+   * Interval in milliseconds in which streamed heat points are added as one batch.
+   */
+  @ConfigProperty(ConfigProperty.LONG)
+  protected long getConfiguredStreamFlushInterval() {
+    return 250;
+  }
+
+  /**
+   * Maximum number of streamed heat points added in one batch. The remaining points are added with the next batch.
+   */
+  @ConfigProperty(ConfigProperty.INTEGER)
+  protected int getConfiguredStreamMaxPointsPerFlush() {
+    return 5000;
+  }
+
+  /**
+   * Maximum number of streamed heat points waiting for a batch. See {@link #getConfiguredStreamOverflowPolicy()}.
+   */
+  @ConfigProperty(ConfigProperty.INTEGER)
+  protected int getConfiguredStreamMaxPendingPoints() {
+    return 100000;
+  }
+
+  /**
+   * What happens to streamed heat points while {@link #getConfiguredStreamMaxPendingPoints()} are waiting, i.e. the
+   * points arrive faster than {@link #getConfiguredStreamMaxPointsPerFlush()} per interval.
+   */
+  @ConfigProperty(ConfigProperty.OBJECT)
+  protected HeatPointOverflowPolicy getConfiguredStreamOverflowPolicy() {
+    return HeatPointOverflowPolicy.MERGE;
+  }
+
   @Override
   protected void initConfig() {
     m_uiFacade = BEANS.get(ModelContextProxy.class).newProxy(new P_UIFacade(), ModelContext.copyCurrent());
     super.initConfig();
+    m_maxVisibleHeatPoints = getConfiguredMaxVisibleHeatPoints();
+    m_maxAggregationZoom = getConfiguredMaxAggregationZoom();
+    m_session = ClientSessionProvider.currentSession();
+    m_streamFlushInterval = getConfiguredStreamFlushInterval();
+    m_streamMaxPointsPerFlush = getConfiguredStreamMaxPointsPerFlush();
+    m_heatPointStream = new HeatPointStream(getConfiguredStreamMaxPendingPoints(), getConfiguredStreamOverflowPolicy(), m_maxAggregationZoom);
+    setProperty(PROP_HEAT_POINT_LIST, new HeatPointBuffer());
     setViewParameter(getConfiguredViewParameter());
-    setHeatPoints(Collections.<HeatPoint> emptyList());
   }
 
   @Override
@@ -40,7 +137,145 @@ public class AbstractHeatmapField extends AbstractFormField implements IHeatmapF
 
   @Override
   public void setViewParameter(HeatmapViewParameter parameter) {
+    HeatmapViewParameter oldParameter = getViewParameter();
     setProperty(PROP_VIEW_PARAMETER, parameter);
+    if (!ObjectUtility.equals(oldParameter, parameter)) {
+      updateVisibleHeatPoints();
+    }
+  }
+
+  @Override
+  public HeatPointBuffer getVisibleHeatPoints() {
+    return (HeatPointBuffer) getProperty(PROP_VISIBLE_HEAT_POINTS);
+  }
+
+  @Override
+  public int getMaxVisibleHeatPoints() {
+    return m_maxVisibleHeatPoints;
+  }
+
+  @Override
+  public void setMaxVisibleHeatPoints(int maxVisibleHeatPoints) {
+    m_maxVisibleHeatPoints = maxVisibleHeatPoints;
+    m_visibleBounds = null;
+    updateVisibleHeatPoints();
+  }
+
+  /**
+   * Computes the heat points to render for the current heat points, view parameter and viewport size.
+   */
+  protected void updateVisibleHeatPoints() {
+    HeatPointBuffer heatPoints = getHeatPointBuffer();
+    HeatmapViewParameter viewParameter = getViewParameter();
+    if (heatPoints == null || viewParameter == null) {
+      return;
+    }
+    if (heatPoints.size() <= getMaxVisibleHeatPoints()) {
+      m_grid = null;
+      setProperty(PROP_VISIBLE_HEAT_POINTS, heatPoints);
+      return;
+    }
+    if (m_grid == null) {
+      if (m_gridRebuildScheduled) {
+        // the points exceeded the maximum while they were added, they are shown unaggregated until they are indexed
+        setProperty(PROP_VISIBLE_HEAT_POINTS, heatPoints);
+        return;
+      }
+      m_grid = new HeatPointGrid(heatPoints, m_maxAggregationZoom);
+      m_visibleBounds = null;
+    }
+    else if (isCoveredByVisibleHeatPoints(viewParameter)) {
+      // a short pan within the margin of the last query
+      return;
+    }
+    double[] bounds = HeatPointGrid.getViewportBounds(viewParameter, m_viewportWidth, m_viewportHeight, VIEWPORT_MARGIN);
+    HeatPointBuffer visibleHeatPoints = m_grid.query(viewParameter, m_viewportWidth, m_viewportHeight, VIEWPORT_MARGIN);
+    addUnindexedHeatPoints(visibleHeatPoints, heatPoints, m_grid.size(), bounds);
+    setProperty(PROP_VISIBLE_HEAT_POINTS, visibleHeatPoints);
+    m_visibleZoom = viewParameter.getZoomFactor();
+    m_visibleBounds = bounds;
+  }
+
+  /**
+   * Adds the heat points from <code>fromIndex</code> on that lie within the given bounds (see
+   * {@link HeatPointGrid#getViewportBounds}) unaggregated.
+   */
+  protected void addUnindexedHeatPoints(HeatPointBuffer result, HeatPointBuffer heatPoints, int fromIndex, double[] bounds) {
+    for (int i = fromIndex; i < heatPoints.size(); i++) {
+      double x = HeatPointGrid.projectX(heatPoints.getX(i));
+      double y = HeatPointGrid.projectY(heatPoints.getY(i));
+      if (x >= bounds[0] && x <= bounds[2] && y >= bounds[1] && y <= bounds[3]) {
+        result.add(heatPoints.getX(i), heatPoints.getY(i), heatPoints.getIntensity(i));
+      }
+    }
+  }
+
+  /**
+   * Indexes a copy of the current heat points in a background job and replaces the index in the model thread. Only one
+   * index is built at a time, points added meanwhile are indexed by the next one.
+   */
+  protected void scheduleGridRebuild() {
+    if (m_gridRebuildScheduled) {
+      return;
+    }
+    m_gridRebuildScheduled = true;
+    int generation = m_gridGeneration;
+    HeatPointBuffer heatPoints = getHeatPointBuffer().copy();
+    int maxAggregationZoom = m_maxAggregationZoom;
+    Jobs.schedule(() -> {
+      HeatPointGrid grid = new HeatPointGrid(heatPoints, maxAggregationZoom);
+      ModelJobs.schedule(() -> gridRebuilt(grid, generation), ModelJobs.newInput(ClientRunContexts.empty().withSession(m_session, true))
+          .withName("Updating heat point index"));
+    }, Jobs.newInput()
+        .withName("Indexing heat points"))
+        .whenDone(event -> {
+          if (event.getException() != null) {
+            ModelJobs.schedule(() -> gridRebuildFailed(generation), ModelJobs.newInput(ClientRunContexts.empty().withSession(m_session, true))
+                .withName("Resetting heat point index"));
+          }
+        }, null);
+  }
+
+  /**
+   * Called in the model thread if the index could not be built in the background (e.g. out of memory). Allows the next
+   * update to index the points again instead of showing them unaggregated forever.
+   */
+  protected void gridRebuildFailed(int generation) {
+    if (generation != m_gridGeneration) {
+      // the heat points were replaced meanwhile, the flag belongs to the next index
+      return;
+    }
+    m_gridRebuildScheduled = false;
+  }
+
+  /**
+   * Replaces the index by the one built in the background. Runs in the model thread.
+   */
+  protected void gridRebuilt(HeatPointGrid grid, int generation) {
+    if (generation != m_gridGeneration) {
+      // the heat points were replaced meanwhile
+      return;
+    }
+    m_gridRebuildScheduled = false;
+    IForm form = getForm();
+    if (form != null && form.isFormClosed()) {
+      return;
+    }
+
+    m_grid = grid;
+    m_visibleBounds = null;
+    updateVisibleHeatPoints();
+    if (m_grid != null && m_grid.size() < getHeatPointBuffer().size()) {
+      scheduleGridRebuild();
+    }
+  }
+
+  protected boolean isCoveredByVisibleHeatPoints(HeatmapViewParameter viewParameter) {
+    if (m_visibleBounds == null || viewParameter.getZoomFactor() != m_visibleZoom) {
+      return false;
+    }
+    double[] viewport = HeatPointGrid.getViewportBounds(viewParameter, m_viewportWidth, m_viewportHeight, 0);
+    return viewport[0] >= m_visibleBounds[0] && viewport[1] >= m_visibleBounds[1] && viewport[2] <= m_visibleBounds[2] && viewport[3] <= m_visibleBounds[3];
   }
 
   @Override
@@ -59,17 +294,44 @@ public class AbstractHeatmapField extends AbstractFormField implements IHeatmapF
     public void handleClickFromUI(MapPoint point) {
       handleClick(point);
     }
+
+    @Override
+    public void setViewportSizeFromUI(int width, int height) {
+      if (width <= 0 || height <= 0 || (width == m_viewportWidth && height == m_viewportHeight)) {
+        return;
+      }
+      m_viewportWidth = width;
+      m_viewportHeight = height;
+      updateVisibleHeatPoints();
+    }
   }
 
-  @SuppressWarnings("unchecked")
   @Override
   public Collection<HeatPoint> getHeatPoints() {
-    return Collections.unmodifiableList((List<HeatPoint>) getProperty(PROP_HEAT_POINT_LIST));
+    return getHeatPointBuffer().asList();
+  }
+
+  @Override
+  public HeatPointBuffer getHeatPointBuffer() {
+    return (HeatPointBuffer) getProperty(PROP_HEAT_POINT_LIST);
   }
 
   @Override
   public void setHeatPoints(Collection<HeatPoint> heatPoints) {
-    setProperty(PROP_HEAT_POINT_LIST, new ArrayList<>(heatPoints));
+    setHeatPointsInternal(HeatPointBuffer.of(heatPoints));
+  }
+
+  @Override
+  public void setHeatPoints(HeatPointBuffer heatPoints) {
+    setHeatPointsInternal(heatPoints.copy());
+  }
+
+  protected void setHeatPointsInternal(HeatPointBuffer heatPoints) {
+    m_grid = null;
+    m_gridGeneration++;
+    m_gridRebuildScheduled = false;
+    setProperty(PROP_HEAT_POINT_LIST, heatPoints);
+    updateVisibleHeatPoints();
   }
 
   @Override
@@ -79,24 +341,89 @@ public class AbstractHeatmapField extends AbstractFormField implements IHeatmapF
 
   @Override
   public void addHeatPoint(HeatPoint heatPoint) {
-    ArrayList<HeatPoint> points = new ArrayList<>();
+    HeatPointBuffer points = new HeatPointBuffer(1);
     points.add(heatPoint);
     addHeatPoints(points);
   }
 
   @Override
   public void addHeatPoints(Collection<HeatPoint> heatPoints) {
-    @SuppressWarnings("unchecked")
-    List<HeatPoint> list = (List<HeatPoint>) getProperty(PROP_HEAT_POINT_LIST);
-    list.addAll(heatPoints);
+    addHeatPoints(HeatPointBuffer.of(heatPoints));
+  }
+
+  @Override
+  public void addHeatPoints(HeatPointBuffer heatPoints) {
+    if (heatPoints.isEmpty()) {
+      return;
+    }
+    HeatPointBuffer allHeatPoints = getHeatPointBuffer();
+    HeatPointBuffer visibleHeatPoints = getVisibleHeatPoints();
+    allHeatPoints.addAll(heatPoints);
+    if (visibleHeatPoints != allHeatPoints) {
+      visibleHeatPoints.addAll(heatPoints);
+    }
+    if (m_grid != null || allHeatPoints.size() > getMaxVisibleHeatPoints()) {
+      // until the index is rebuilt, the points are shown unaggregated
+      scheduleGridRebuild();
+    }
     fireHeatPointsAdded(heatPoints);
   }
 
+  @Override
+  public void streamHeatPoint(double x, double y, float intensity) {
+    m_heatPointStream.add(x, y, intensity);
+    scheduleStreamFlush();
+  }
+
+  @Override
+  public void streamHeatPoints(HeatPointBuffer heatPoints) {
+    if (heatPoints.isEmpty()) {
+      return;
+    }
+    m_heatPointStream.addAll(heatPoints);
+    scheduleStreamFlush();
+  }
+
+  @Override
+  public HeatPointStream getHeatPointStream() {
+    return m_heatPointStream;
+  }
+
+  /**
+   * Schedules a model job to add the streamed heat points, unless one is already scheduled.
+   */
+  protected void scheduleStreamFlush() {
+    if (!m_streamFlushScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    ModelJobs.schedule(this::flushHeatPointStream, ModelJobs.newInput(ClientRunContexts.empty().withSession(m_session, true))
+        .withName("Adding streamed heat points")
+        .withExecutionTrigger(Jobs.newExecutionTrigger().withStartIn(m_streamFlushInterval, TimeUnit.MILLISECONDS)));
+  }
+
+  /**
+   * Adds the next batch of streamed heat points. Runs in the model thread.
+   */
+  protected void flushHeatPointStream() {
+    // points streamed from now on schedule the next batch
+    m_streamFlushScheduled.set(false);
+    IForm form = getForm();
+    if (form != null && form.isFormClosed()) {
+      m_heatPointStream.clear();
+      return;
+    }
+
+    addHeatPoints(m_heatPointStream.poll(m_streamMaxPointsPerFlush));
+    if (!m_heatPointStream.isEmpty()) {
+      scheduleStreamFlush();
+    }
+  }
+
   private void fireMapClicked(MapPoint point) {
     heatmapListeners().list().forEach(listener -> listener.mapClicked(point));
   }
 
-  private void fireHeatPointsAdded(Collection<HeatPoint> heatPoints) {
+  private void fireHeatPointsAdded(HeatPointBuffer heatPoints) {
     heatmapListeners().list().forEach(listener -> listener.heatPointsAdded(heatPoints));
   }
 
@@ -0,0 +1,220 @@
+package org.eclipse.scout.widgets.heatmap.client.ui.form.fields.heatmapfield;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Columnar storage of heat points. Coordinates and intensities are kept in primitive arrays, so a heat point costs 20
+ * bytes instead of the four objects of a {@link HeatPoint}. Appending grows the arrays by half of their size and does
+ * not allocate per point.
+ * <p>
+ * A <code>null</code> intensity is stored as {@link Float#NaN}.
+ */
+public class HeatPointBuffer {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private double[] m_x;
+  private double[] m_y;
+  private float[] m_intensity;
+  private int m_size;
+
+  public HeatPointBuffer() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public HeatPointBuffer(int initialCapacity) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException("initialCapacity must not be negative");
+    }
+    m_x = new double[initialCapacity];
+    m_y = new double[initialCapacity];
+    m_intensity = new float[initialCapacity];
+  }
+
+  /**
+   * Creates a buffer with the first <code>length</code> values of the given columns. The arrays are copied.
+   */
+  public static HeatPointBuffer of(double[] x, double[] y, float[] intensity, int length) {
+    checkColumns(x, y, intensity, length);
+    HeatPointBuffer buffer = new HeatPointBuffer(0);
+    buffer.m_x = Arrays.copyOf(x, length);
+    buffer.m_y = Arrays.copyOf(y, length);
+    buffer.m_intensity = Arrays.copyOf(intensity, length);
+    buffer.m_size = length;
+    return buffer;
+  }
+
+  public static HeatPointBuffer of(Collection<HeatPoint> heatPoints) {
+    HeatPointBuffer buffer = new HeatPointBuffer(heatPoints.size());
+    buffer.addAll(heatPoints);
+    return buffer;
+  }
+
+  public int size() {
+    return m_size;
+  }
+
+  public boolean isEmpty() {
+    return m_size == 0;
+  }
+
+  public double getX(int index) {
+    checkIndex(index);
+    return m_x[index];
+  }
+
+  public double getY(int index) {
+    checkIndex(index);
+    return m_y[index];
+  }
+
+  /**
+   * @return the intensity or {@link Float#NaN} if the point has none
+   */
+  public float getIntensity(int index) {
+    checkIndex(index);
+    return m_intensity[index];
+  }
+
+  public void add(double x, double y, float intensity) {
+    ensureCapacity(m_size + 1);
+    m_x[m_size] = x;
+    m_y[m_size] = y;
+    m_intensity[m_size] = intensity;
+    m_size++;
+  }
+
+  public void add(HeatPoint heatPoint) {
+    add(heatPoint.getX().doubleValue(), heatPoint.getY().doubleValue(), toPrimitive(heatPoint.getIntensity()));
+  }
+
+  public void addAll(Collection<HeatPoint> heatPoints) {
+    ensureCapacity(m_size + heatPoints.size());
+    for (HeatPoint heatPoint : heatPoints) {
+      add(heatPoint);
+    }
+  }
+
+  public void addAll(HeatPointBuffer other) {
+    addAll(other.m_x, other.m_y, other.m_intensity, other.m_size);
+  }
+
+  /**
+   * Appends the points of the other buffer from <code>fromIndex</code> (inclusive) to <code>toIndex</code>
+   * (exclusive).
+   */
+  public void addAll(HeatPointBuffer other, int fromIndex, int toIndex) {
+    if (fromIndex < 0 || toIndex > other.m_size || fromIndex > toIndex) {
+      throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", Size: " + other.m_size);
+    }
+    int length = toIndex - fromIndex;
+    ensureCapacity(m_size + length);
+    System.arraycopy(other.m_x, fromIndex, m_x, m_size, length);
+    System.arraycopy(other.m_y, fromIndex, m_y, m_size, length);
+    System.arraycopy(other.m_intensity, fromIndex, m_intensity, m_size, length);
+    m_size += length;
+  }
+
+  /**
+   * Removes the first <code>count</code> points.
+   */
+  public void removeFirst(int count) {
+    if (count < 0 || count > m_size) {
+      throw new IndexOutOfBoundsException("count: " + count + ", Size: " + m_size);
+    }
+    int remaining = m_size - count;
+    System.arraycopy(m_x, count, m_x, 0, remaining);
+    System.arraycopy(m_y, count, m_y, 0, remaining);
+    System.arraycopy(m_intensity, count, m_intensity, 0, remaining);
+    m_size = remaining;
+  }
+
+  /**
+   * Appends the first <code>length</code> values of the given columns.
+   */
+  public void addAll(double[] x, double[] y, float[] intensity, int length) {
+    checkColumns(x, y, intensity, length);
+    ensureCapacity(m_size + length);
+    System.arraycopy(x, 0, m_x, m_size, length);
+    System.arraycopy(y, 0, m_y, m_size, length);
+    System.arraycopy(intensity, 0, m_intensity, m_size, length);
+    m_size += length;
+  }
+
+  public void clear() {
+    m_size = 0;
+  }
+
+  public void ensureCapacity(int minCapacity) {
+    if (minCapacity <= m_x.length) {
+      return;
+    }
+    int newCapacity = Math.max(minCapacity, m_x.length + (m_x.length >> 1));
+    m_x = Arrays.copyOf(m_x, newCapacity);
+    m_y = Arrays.copyOf(m_y, newCapacity);
+    m_intensity = Arrays.copyOf(m_intensity, newCapacity);
+  }
+
+  /**
+   * Releases the capacity not used by the stored points.
+   */
+  public void trimToSize() {
+    if (m_size < m_x.length) {
+      m_x = Arrays.copyOf(m_x, m_size);
+      m_y = Arrays.copyOf(m_y, m_size);
+      m_intensity = Arrays.copyOf(m_intensity, m_size);
+    }
+  }
+
+  public HeatPointBuffer copy() {
+    return of(m_x, m_y, m_intensity, m_size);
+  }
+
+  /**
+   * @return read-only view of the points in this buffer. Each access creates a new {@link HeatPoint}, so bulk
+   *         consumers should use the primitive accessors instead.
+   */
+  public List<HeatPoint> asList() {
+    return new AbstractList<HeatPoint>() {
+
+      @Override
+      public HeatPoint get(int index) {
+        return new HeatPoint(BigDecimal.valueOf(getX(index)), BigDecimal.valueOf(getY(index)), toObject(getIntensity(index)));
+      }
+
+      @Override
+      public int size() {
+        return m_size;
+      }
+    };
+  }
+
+  public static float toPrimitive(Float intensity) {
+    return intensity == null ? Float.NaN : intensity.floatValue();
+  }
+
+  public static Float toObject(float intensity) {
+    return Float.isNaN(intensity) ? null : Float.valueOf(intensity);
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= m_size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + m_size);
+    }
+  }
+
+  private static void checkColumns(double[] x, double[] y, float[] intensity, int length) {
+    if (length < 0 || x.length < length || y.length < length || intensity.length < length) {
+      throw new IllegalArgumentException("All columns must contain at least " + length + " values");
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "HeatPointBuffer [m_size=" + m_size + "]";
+  }
+}
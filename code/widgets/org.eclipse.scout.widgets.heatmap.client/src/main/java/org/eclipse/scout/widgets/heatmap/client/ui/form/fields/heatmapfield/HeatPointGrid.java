@@ -0,0 +1,295 @@
+package org.eclipse.scout.widgets.heatmap.client.ui.form.fields.heatmapfield;
+
+import java.util.Arrays;
+
+/**
+ * Immutable spatial index of heat points for the zoom levels of a web mercator map (as used by leaflet).
+ * <p>
+ * For each zoom level up to {@link #getMaxZoom()} the points are aggregated into square cells of {@link #CELL_SIZE}
+ * screen pixels. A cell holds the sum of the intensities of its points and is rendered at its center, which is close
+ * to what leaflet.heat does when it draws the points. Each level is derived from the next finer one by merging 2x2
+ * cells. Zoom levels above the finest level return the raw points of the visible cells.
+ * <p>
+ * Cells of a level are sorted by row and column, so the cells of a viewport are found with one binary search per row.
+ */
+public class HeatPointGrid {
+
+  /**
+   * Edge length of a cell in pixels. leaflet.heat itself merges points closer than half the point radius.
+   */
+  public static final int CELL_SIZE = 16;
+  public static final int TILE_SIZE = 256;
+  public static final int MAX_SUPPORTED_ZOOM = 24;
+
+  private static final double MAX_LATITUDE = 85.0511287798;
+
+  private final HeatPointBuffer m_points;
+  private final int m_size;
+  private final int m_maxZoom;
+  private final Level[] m_levels;
+  /**
+   * Indexes of the points, ordered by their cell on the finest level
+   */
+  private final int[] m_pointOrder;
+  /**
+   * Start of the points of each cell of the finest level in {@link #m_pointOrder}
+   */
+  private final int[] m_cellStart;
+
+  /**
+   * @param points
+   *          the points to index. Points appended later are not indexed, the indexed ones must not be modified while
+   *          this grid is in use.
+   * @param maxZoom
+   *          finest zoom level that is aggregated
+   */
+  public HeatPointGrid(HeatPointBuffer points, int maxZoom) {
+    if (maxZoom < 0 || maxZoom > MAX_SUPPORTED_ZOOM) {
+      throw new IllegalArgumentException("maxZoom must be between 0 and " + MAX_SUPPORTED_ZOOM);
+    }
+    m_points = points;
+    m_size = points.size();
+    m_maxZoom = maxZoom;
+    m_levels = new Level[maxZoom + 1];
+
+    int count = m_size;
+    long cellsPerAxis = cellsPerAxis(maxZoom);
+    long[] pointKeys = new long[count];
+    for (int i = 0; i < count; i++) {
+      long cx = toCell(projectX(points.getX(i)), cellsPerAxis);
+      long cy = toCell(projectY(points.getY(i)), cellsPerAxis);
+      pointKeys[i] = cy * cellsPerAxis + cx;
+    }
+
+    long[] cellKeys = distinctSorted(pointKeys, count);
+    float[] intensities = new float[cellKeys.length];
+    int[] cellOfPoint = new int[count];
+    m_cellStart = new int[cellKeys.length + 1];
+    for (int i = 0; i < count; i++) {
+      int cell = Arrays.binarySearch(cellKeys, pointKeys[i]);
+      cellOfPoint[i] = cell;
+      intensities[cell] += weight(points.getIntensity(i));
+      m_cellStart[cell + 1]++;
+    }
+
+    // counting sort of the points by cell
+    for (int cell = 0; cell < cellKeys.length; cell++) {
+      m_cellStart[cell + 1] += m_cellStart[cell];
+    }
+    m_pointOrder = new int[count];
+    int[] next = Arrays.copyOf(m_cellStart, cellKeys.length);
+    for (int i = 0; i < count; i++) {
+      m_pointOrder[next[cellOfPoint[i]]++] = i;
+    }
+
+    m_levels[maxZoom] = new Level(maxZoom, cellKeys, intensities);
+    for (int zoom = maxZoom - 1; zoom >= 0; zoom--) {
+      m_levels[zoom] = m_levels[zoom + 1].createParent();
+    }
+  }
+
+  public int getMaxZoom() {
+    return m_maxZoom;
+  }
+
+  /**
+   * @return number of indexed points
+   */
+  public int size() {
+    return m_size;
+  }
+
+  /**
+   * @return number of cells of the given zoom level
+   */
+  public int getCellCount(int zoom) {
+    return m_levels[Math.max(0, Math.min(zoom, m_maxZoom))].m_keys.length;
+  }
+
+  /**
+   * Returns the heat to render for a viewport. Above {@link #getMaxZoom()} these are the raw points, otherwise one
+   * point per non empty cell at the center of the cell.
+   *
+   * @param width
+   *          width of the viewport in pixels
+   * @param height
+   *          height of the viewport in pixels
+   * @param margin
+   *          additional pixels on every side of the viewport, so small pans do not show empty borders
+   */
+  public HeatPointBuffer query(HeatmapViewParameter viewParameter, int width, int height, int margin) {
+    int zoom = Math.max(0, viewParameter.getZoomFactor());
+    double[] bounds = getViewportBounds(viewParameter, width, height, margin);
+    double minX = bounds[0];
+    double minY = bounds[1];
+    double maxX = bounds[2];
+    double maxY = bounds[3];
+
+    Level level = m_levels[Math.min(zoom, m_maxZoom)];
+    HeatPointBuffer result = new HeatPointBuffer();
+    long cellsPerAxis = cellsPerAxis(level.m_zoom);
+    long cx0 = toCell(minX, cellsPerAxis);
+    long cx1 = toCell(maxX, cellsPerAxis);
+    long cy0 = toCell(minY, cellsPerAxis);
+    long cy1 = toCell(maxY, cellsPerAxis);
+    for (long cy = cy0; cy <= cy1; cy++) {
+      long lastKey = cy * cellsPerAxis + cx1;
+      for (int cell = level.lowerBound(cy * cellsPerAxis + cx0); cell < level.m_keys.length && level.m_keys[cell] <= lastKey; cell++) {
+        if (zoom > m_maxZoom) {
+          addPoints(result, cell, minX, maxX, minY, maxY);
+        }
+        else {
+          addCell(result, level, cell, cellsPerAxis);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return one point per non empty cell of the given zoom level at the center of the cell
+   */
+  public HeatPointBuffer getCells(int zoom) {
+    Level level = m_levels[Math.max(0, Math.min(zoom, m_maxZoom))];
+    long cellsPerAxis = cellsPerAxis(level.m_zoom);
+    HeatPointBuffer result = new HeatPointBuffer(level.m_keys.length);
+    for (int cell = 0; cell < level.m_keys.length; cell++) {
+      addCell(result, level, cell, cellsPerAxis);
+    }
+    return result;
+  }
+
+  private static void addCell(HeatPointBuffer result, Level level, int cell, long cellsPerAxis) {
+    long key = level.m_keys[cell];
+    result.add(unprojectX(((key % cellsPerAxis) + 0.5) / cellsPerAxis), unprojectY(((key / cellsPerAxis) + 0.5) / cellsPerAxis), level.m_intensities[cell]);
+  }
+
+  private void addPoints(HeatPointBuffer result, int cell, double minX, double maxX, double minY, double maxY) {
+    for (int i = m_cellStart[cell]; i < m_cellStart[cell + 1]; i++) {
+      int point = m_pointOrder[i];
+      double x = projectX(m_points.getX(point));
+      double y = projectY(m_points.getY(point));
+      if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+        result.add(m_points.getX(point), m_points.getY(point), m_points.getIntensity(point));
+      }
+    }
+  }
+
+  /**
+   * @return the viewport in normalized web mercator coordinates as <code>{minX, minY, maxX, maxY}</code>
+   */
+  public static double[] getViewportBounds(HeatmapViewParameter viewParameter, int width, int height, int margin) {
+    double worldSize = worldSize(Math.max(0, viewParameter.getZoomFactor()));
+    double centerX = projectX(viewParameter.getCenter().getX().doubleValue()) * worldSize;
+    double centerY = projectY(viewParameter.getCenter().getY().doubleValue()) * worldSize;
+    return new double[]{
+        (centerX - width / 2.0 - margin) / worldSize,
+        (centerY - height / 2.0 - margin) / worldSize,
+        (centerX + width / 2.0 + margin) / worldSize,
+        (centerY + height / 2.0 + margin) / worldSize};
+  }
+
+  /**
+   * @return width and height of the world in pixels at the given zoom level
+   */
+  public static double worldSize(int zoom) {
+    return TILE_SIZE * Math.pow(2, zoom);
+  }
+
+  /**
+   * @return web mercator x of a longitude, normalized to [0, 1]
+   */
+  public static double projectX(double longitude) {
+    return (longitude + 180.0) / 360.0;
+  }
+
+  /**
+   * @return web mercator y of a latitude, normalized to [0, 1] from north to south
+   */
+  public static double projectY(double latitude) {
+    double sin = Math.sin(Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude))));
+    return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+  }
+
+  public static double unprojectX(double x) {
+    return x * 360.0 - 180.0;
+  }
+
+  public static double unprojectY(double y) {
+    return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y))));
+  }
+
+  private static long cellsPerAxis(int zoom) {
+    return (TILE_SIZE / CELL_SIZE) * (1L << zoom);
+  }
+
+  private static long toCell(double normalized, long cellsPerAxis) {
+    long cell = (long) Math.floor(normalized * cellsPerAxis);
+    return Math.max(0, Math.min(cellsPerAxis - 1, cell));
+  }
+
+  /**
+   * leaflet.heat renders a point without intensity with an intensity of 1.
+   */
+  private static float weight(float intensity) {
+    return Float.isNaN(intensity) ? 1f : intensity;
+  }
+
+  private static long[] distinctSorted(long[] values, int length) {
+    long[] sorted = Arrays.copyOf(values, length);
+    Arrays.sort(sorted);
+    int distinct = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      if (i == 0 || sorted[i] != sorted[distinct - 1]) {
+        sorted[distinct++] = sorted[i];
+      }
+    }
+    return Arrays.copyOf(sorted, distinct);
+  }
+
+  private static final class Level {
+
+    private final int m_zoom;
+    private final long[] m_keys;
+    private final float[] m_intensities;
+
+    private Level(int zoom, long[] keys, float[] intensities) {
+      m_zoom = zoom;
+      m_keys = keys;
+      m_intensities = intensities;
+    }
+
+    private Level createParent() {
+      long cellsPerAxis = cellsPerAxis(m_zoom);
+      long parentCellsPerAxis = cellsPerAxis / 2;
+      long[] parentKeys = new long[m_keys.length];
+      for (int i = 0; i < m_keys.length; i++) {
+        parentKeys[i] = (m_keys[i] / cellsPerAxis / 2) * parentCellsPerAxis + (m_keys[i] % cellsPerAxis / 2);
+      }
+      long[] keys = distinctSorted(parentKeys, parentKeys.length);
+      float[] intensities = new float[keys.length];
+      for (int i = 0; i < m_keys.length; i++) {
+        intensities[Arrays.binarySearch(keys, parentKeys[i])] += m_intensities[i];
+      }
+      return new Level(m_zoom - 1, keys, intensities);
+    }
+
+    /**
+     * @return index of the first cell with a key >= the given key
+     */
+    private int lowerBound(long key) {
+      int low = 0;
+      int high = m_keys.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (m_keys[mid] < key) {
+          low = mid + 1;
+        }
+        else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+}
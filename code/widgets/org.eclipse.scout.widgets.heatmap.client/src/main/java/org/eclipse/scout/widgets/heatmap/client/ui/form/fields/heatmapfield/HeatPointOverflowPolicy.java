@@ -0,0 +1,21 @@
+package org.eclipse.scout.widgets.heatmap.client.ui.form.fields.heatmapfield;
+
+/**
+ * What a {@link HeatPointStream} does with incoming heat points while it already holds its maximum number of pending
+ * points.
+ */
+public enum HeatPointOverflowPolicy {
+  /**
+   * Pending points are dropped, starting with the oldest one.
+   */
+  DROP_OLDEST,
+  /**
+   * Incoming points are dropped.
+   */
+  DROP_NEWEST,
+  /**
+   * Pending points close to each other are merged into one point with the sum of their intensities (see
+   * {@link HeatPointGrid}). The heat stays complete, only its resolution is reduced.
+   */
+  MERGE
+}
@@ -0,0 +1,341 @@
+package org.eclipse.scout.widgets.heatmap.client.ui.form.fields.heatmapfield;
+
+import org.eclipse.scout.rt.platform.util.concurrent.ThreadInterruptedError;
+
+/**
+ * Thread safe queue of heat points that are streamed into a heatmap field. Producers add points from any thread, the
+ * field takes them in batches from the model thread.
+ * <p>
+ * The queue holds at most <code>maxPendingPoints</code>. If producers are faster than the batches are taken, the
+ * {@link HeatPointOverflowPolicy} decides which heat is lost.
+ * <p>
+ * The points are kept in a ring buffer, so dropping or taking the oldest points does not move the remaining ones.
+ */
+public class HeatPointStream {
+
+  /**
+   * Smallest capacity supported by {@link HeatPointOverflowPolicy#MERGE}. Twice the number of cells of zoom level 0,
+   * so a merge always frees at least half of the capacity.
+   */
+  public static final int MIN_MERGE_PENDING_POINTS = 2 * (HeatPointGrid.TILE_SIZE / HeatPointGrid.CELL_SIZE) * (HeatPointGrid.TILE_SIZE / HeatPointGrid.CELL_SIZE);
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final int m_maxPendingPoints;
+  private final HeatPointOverflowPolicy m_overflowPolicy;
+  private final int m_mergeZoom;
+
+  private double[] m_x = new double[0];
+  private double[] m_y = new double[0];
+  private float[] m_intensity = new float[0];
+  /**
+   * Position of the oldest pending point in the arrays
+   */
+  private int m_head;
+  private int m_size;
+
+  /**
+   * <code>true</code> while the points taken by {@link #beginMerge()} are merged outside of the lock
+   */
+  private boolean m_merging;
+  /**
+   * Incremented by {@link #clear()}, so a merge running meanwhile does not bring the cleared points back
+   */
+  private long m_clearCount;
+  private long m_mergeClearCount;
+
+  private long m_droppedCount;
+  private long m_mergedCount;
+
+  /**
+   * @param mergeZoom
+   *          finest zoom level on which pending points are merged by {@link HeatPointOverflowPolicy#MERGE}
+   */
+  public HeatPointStream(int maxPendingPoints, HeatPointOverflowPolicy overflowPolicy, int mergeZoom) {
+    if (maxPendingPoints <= 0) {
+      throw new IllegalArgumentException("maxPendingPoints must be positive");
+    }
+    if (overflowPolicy == HeatPointOverflowPolicy.MERGE && maxPendingPoints < MIN_MERGE_PENDING_POINTS) {
+      throw new IllegalArgumentException("maxPendingPoints must be at least " + MIN_MERGE_PENDING_POINTS + " to merge pending points");
+    }
+    m_maxPendingPoints = maxPendingPoints;
+    m_overflowPolicy = overflowPolicy;
+    m_mergeZoom = mergeZoom;
+  }
+
+  public void add(double x, double y, float intensity) {
+    while (true) {
+      HeatPointBuffer points;
+      synchronized (this) {
+        if (tryAdd(x, y, intensity)) {
+          return;
+        }
+        points = beginMerge();
+      }
+      if (points != null) {
+        merge(points);
+      }
+    }
+  }
+
+  public void addAll(HeatPointBuffer points) {
+    int fromIndex = 0;
+    while (true) {
+      HeatPointBuffer merging;
+      synchronized (this) {
+        fromIndex += tryAddAll(points, fromIndex);
+        if (fromIndex >= points.size()) {
+          return;
+        }
+        merging = beginMerge();
+      }
+      if (merging != null) {
+        merge(merging);
+      }
+    }
+  }
+
+  /**
+   * Removes and returns the oldest pending points.
+   *
+   * @param maxPoints
+   *          maximum number of returned points
+   */
+  public synchronized HeatPointBuffer poll(int maxPoints) {
+    int count = Math.max(0, Math.min(maxPoints, m_size));
+    HeatPointBuffer points = new HeatPointBuffer(count);
+    for (int i = 0; i < count; i++) {
+      int index = toArrayIndex(i);
+      points.add(m_x[index], m_y[index], m_intensity[index]);
+    }
+    removeFirst(count);
+    if (m_merging) {
+      // producers waiting for the merge can use the freed capacity
+      notifyAll();
+    }
+    return points;
+  }
+
+  public synchronized void clear() {
+    m_head = 0;
+    m_size = 0;
+    m_clearCount++;
+    notifyAll();
+  }
+
+  public synchronized int size() {
+    return m_size;
+  }
+
+  public synchronized boolean isEmpty() {
+    return m_size == 0;
+  }
+
+  /**
+   * @return number of points lost by {@link HeatPointOverflowPolicy#DROP_OLDEST} or
+   *         {@link HeatPointOverflowPolicy#DROP_NEWEST}
+   */
+  public synchronized long getDroppedCount() {
+    return m_droppedCount;
+  }
+
+  /**
+   * @return number of points removed by {@link HeatPointOverflowPolicy#MERGE}
+   */
+  public synchronized long getMergedCount() {
+    return m_mergedCount;
+  }
+
+  /**
+   * Must be called holding the lock.
+   *
+   * @return <code>false</code> if the point must wait for a merge
+   */
+  private boolean tryAdd(double x, double y, float intensity) {
+    if (m_size >= getCapacityLimit()) {
+      switch (m_overflowPolicy) {
+        case DROP_OLDEST:
+          removeFirst(1);
+          m_droppedCount++;
+          break;
+        case DROP_NEWEST:
+          m_droppedCount++;
+          return true;
+        default:
+          return false;
+      }
+    }
+    addLast(x, y, intensity);
+    return true;
+  }
+
+  /**
+   * Must be called holding the lock.
+   *
+   * @return number of points from <code>fromIndex</code> on that were added or dropped. The remaining points must wait
+   *         for a merge.
+   */
+  private int tryAddAll(HeatPointBuffer points, int fromIndex) {
+    int remaining = points.size() - fromIndex;
+    int free = Math.max(0, getCapacityLimit() - m_size);
+    switch (m_overflowPolicy) {
+      case DROP_OLDEST: {
+        // only the newest points that fit are copied
+        int skipped = Math.max(0, remaining - m_maxPendingPoints);
+        int overflow = Math.min(m_size, Math.max(0, remaining - skipped - free));
+        removeFirst(overflow);
+        m_droppedCount += skipped + overflow;
+        addLast(points, fromIndex + skipped, remaining - skipped);
+        return remaining;
+      }
+      case DROP_NEWEST: {
+        int accepted = Math.min(remaining, free);
+        addLast(points, fromIndex, accepted);
+        m_droppedCount += remaining - accepted;
+        return remaining;
+      }
+      default: {
+        int accepted = Math.min(remaining, free);
+        addLast(points, fromIndex, accepted);
+        return accepted;
+      }
+    }
+  }
+
+  /**
+   * While pending points are merged, only half of the capacity may be filled, so the merged points fit in front of
+   * them.
+   */
+  private int getCapacityLimit() {
+    return m_merging ? m_maxPendingPoints - m_maxPendingPoints / 2 : m_maxPendingPoints;
+  }
+
+  /**
+   * Must be called holding the lock. Takes all pending points to merge them, or waits if another merge is running.
+   *
+   * @return the points to merge or <code>null</code> if the caller must try again
+   */
+  private HeatPointBuffer beginMerge() {
+    if (m_merging) {
+      try {
+        wait();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ThreadInterruptedError("Interrupted while waiting for heat points to be merged", e);
+      }
+      return null;
+    }
+    m_merging = true;
+    m_mergeClearCount = m_clearCount;
+    return poll(m_size);
+  }
+
+  /**
+   * Merges the points per cell outside of the lock, on coarser zoom levels until they take at most half of the
+   * capacity, and puts them in front of the points added meanwhile. Merging loses the order of the points.
+   */
+  private void merge(HeatPointBuffer points) {
+    HeatPointBuffer merged = null;
+    try {
+      HeatPointGrid grid = new HeatPointGrid(points, m_mergeZoom);
+      int zoom = m_mergeZoom;
+      // zoom 0 has at most half of MIN_MERGE_PENDING_POINTS cells
+      while (zoom > 0 && grid.getCellCount(zoom) > m_maxPendingPoints / 2) {
+        zoom--;
+      }
+      merged = grid.getCells(zoom);
+    }
+    finally {
+      synchronized (this) {
+        if (m_mergeClearCount == m_clearCount) {
+          if (merged != null) {
+            addFirst(merged);
+            m_mergedCount += points.size() - merged.size();
+          }
+          else {
+            m_droppedCount += points.size();
+          }
+        }
+        m_merging = false;
+        notifyAll();
+      }
+    }
+  }
+
+  private int toArrayIndex(int i) {
+    return (m_head + i) % m_x.length;
+  }
+
+  private void addLast(double x, double y, float intensity) {
+    ensureCapacity(m_size + 1);
+    int index = toArrayIndex(m_size);
+    m_x[index] = x;
+    m_y[index] = y;
+    m_intensity[index] = intensity;
+    m_size++;
+  }
+
+  private void addLast(HeatPointBuffer points, int fromIndex, int count) {
+    ensureCapacity(m_size + count);
+    for (int i = 0; i < count; i++) {
+      int index = toArrayIndex(m_size);
+      m_x[index] = points.getX(fromIndex + i);
+      m_y[index] = points.getY(fromIndex + i);
+      m_intensity[index] = points.getIntensity(fromIndex + i);
+      m_size++;
+    }
+  }
+
+  private void addFirst(HeatPointBuffer points) {
+    int count = points.size();
+    if (count == 0) {
+      return;
+    }
+    ensureCapacity(m_size + count);
+    m_head = (m_head - count + m_x.length) % m_x.length;
+    m_size += count;
+    for (int i = 0; i < count; i++) {
+      int index = toArrayIndex(i);
+      m_x[index] = points.getX(i);
+      m_y[index] = points.getY(i);
+      m_intensity[index] = points.getIntensity(i);
+    }
+  }
+
+  private void removeFirst(int count) {
+    if (count == 0) {
+      return;
+    }
+    m_size -= count;
+    m_head = m_size == 0 ? 0 : toArrayIndex(count);
+  }
+
+  /**
+   * Grows the arrays by half of their size, up to the maximum number of pending points. The pending points are moved
+   * to the start of the new arrays.
+   */
+  private void ensureCapacity(int minCapacity) {
+    int capacity = m_x.length;
+    if (minCapacity <= capacity) {
+      return;
+    }
+    int newCapacity = Math.max(minCapacity, Math.min(m_maxPendingPoints, Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1))));
+    double[] x = new double[newCapacity];
+    double[] y = new double[newCapacity];
+    float[] intensity = new float[newCapacity];
+    int firstPart = Math.min(m_size, capacity - m_head);
+    if (firstPart > 0) {
+      System.arraycopy(m_x, m_head, x, 0, firstPart);
+      System.arraycopy(m_y, m_head, y, 0, firstPart);
+      System.arraycopy(m_intensity, m_head, intensity, 0, firstPart);
+    }
+    System.arraycopy(m_x, 0, x, firstPart, m_size - firstPart);
+    System.arraycopy(m_y, 0, y, firstPart, m_size - firstPart);
+    System.arraycopy(m_intensity, 0, intensity, firstPart, m_size - firstPart);
+    m_x = x;
+    m_y = y;
+    m_intensity = intensity;
+    m_head = 0;
+  }
+}
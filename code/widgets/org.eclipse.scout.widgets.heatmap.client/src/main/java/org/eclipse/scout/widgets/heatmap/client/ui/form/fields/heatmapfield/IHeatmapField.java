@@ -9,11 +9,32 @@ public interface IHeatmapField extends IFormField {
 
   String PROP_VIEW_PARAMETER = "viewParameter";
   String PROP_HEAT_POINT_LIST = "heatPointList";
+  String PROP_VISIBLE_HEAT_POINTS = "visibleHeatPoints";
 
   HeatmapViewParameter getViewParameter();
 
+  /**
+   * @return read-only view of the heat points. Creates a {@link HeatPoint} per accessed point, use
+   *         {@link #getHeatPointBuffer()} for large heatmaps.
+   */
   Collection<HeatPoint> getHeatPoints();
 
+  /**
+   * @return the heat points of this field. The buffer is owned by the field and must not be modified.
+   */
+  HeatPointBuffer getHeatPointBuffer();
+
+  /**
+   * @return the heat to render in the current viewport. All heat points if there are not more than
+   *         {@link #getMaxVisibleHeatPoints()}, otherwise the points aggregated per cell of the current zoom level (see
+   *         {@link HeatPointGrid}). Must not be modified.
+   */
+  HeatPointBuffer getVisibleHeatPoints();
+
+  int getMaxVisibleHeatPoints();
+
+  void setMaxVisibleHeatPoints(int maxVisibleHeatPoints);
+
   void handleClick(MapPoint point);
 
   void addHeatPoint(HeatPoint heatPoint);
@@ -22,6 +43,34 @@ public interface IHeatmapField extends IFormField {
 
   void setHeatPoints(Collection<HeatPoint> heatPoints);
 
+  /**
+   * Appends the given points without creating a {@link HeatPoint} per point. The buffer is not retained.
+   */
+  void addHeatPoints(HeatPointBuffer heatPoints);
+
+  /**
+   * Replaces all heat points. The buffer is copied.
+   */
+  void setHeatPoints(HeatPointBuffer heatPoints);
+
+  /**
+   * Queues a heat point to be added with the next batch. May be called from any thread, e.g. by a background job
+   * receiving a live feed. The queued points are added by a model job every
+   * {@link AbstractHeatmapField#getConfiguredStreamFlushInterval()} milliseconds, so listeners and the UI receive one
+   * {@link IHeatmapListener#heatPointsAdded(HeatPointBuffer)} per batch instead of one per call.
+   */
+  void streamHeatPoint(double x, double y, float intensity);
+
+  /**
+   * Same as {@link #streamHeatPoint(double, double, float)} for many points. The buffer is copied.
+   */
+  void streamHeatPoints(HeatPointBuffer heatPoints);
+
+  /**
+   * @return the queue of streamed heat points that are not added yet
+   */
+  HeatPointStream getHeatPointStream();
+
   void setViewParameter(HeatmapViewParameter parameter);
 
   IHeatmapFieldUIFacade getUIFacade();
@@ -5,4 +5,6 @@ public interface IHeatmapFieldUIFacade {
   void setViewParameterFromUI(HeatmapViewParameter parameter);
 
   void handleClickFromUI(MapPoint point);
+
+  void setViewportSizeFromUI(int width, int height);
 }
@@ -24,4 +24,15 @@ public interface IHeatmapListener extends EventListener {
    */
   void heatPointsAdded(Collection<HeatPoint> points);
 
+  /**
+   * Function is called when heat points are added to the heatmap field. Override this method to read the added points
+   * without creating a {@link HeatPoint} per point.
+   *
+   * @param points
+   *          buffer with the points that have been added. Only valid during this call.
+   */
+  default void heatPointsAdded(HeatPointBuffer points) {
+    heatPointsAdded(points.asList());
+  }
+
 }
@@ -1,15 +1,21 @@
 package org.eclipse.scout.widgets.heatmap.ui.html;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Collection;
+import java.util.List;
 
+import org.eclipse.scout.rt.platform.util.Base64Utility;
 import org.eclipse.scout.rt.platform.util.NumberUtility;
 import org.eclipse.scout.rt.ui.html.IUiSession;
 import org.eclipse.scout.rt.ui.html.json.IJsonAdapter;
 import org.eclipse.scout.rt.ui.html.json.JsonEvent;
 import org.eclipse.scout.rt.ui.html.json.JsonProperty;
+import org.eclipse.scout.rt.ui.html.json.JsonRequest;
 import org.eclipse.scout.rt.ui.html.json.form.fields.JsonFormField;
 import org.eclipse.scout.widgets.heatmap.client.ui.form.fields.heatmapfield.HeatPoint;
+import org.eclipse.scout.widgets.heatmap.client.ui.form.fields.heatmapfield.HeatPointBuffer;
 import org.eclipse.scout.widgets.heatmap.client.ui.form.fields.heatmapfield.HeatmapViewParameter;
 import org.eclipse.scout.widgets.heatmap.client.ui.form.fields.heatmapfield.IHeatmapField;
 import org.eclipse.scout.widgets.heatmap.client.ui.form.fields.heatmapfield.IHeatmapListener;
@@ -19,8 +25,21 @@ import org.json.JSONObject;
 
 public class JsonHeatmapField extends JsonFormField<IHeatmapField> {
 
+  /**
+   * Coordinates are sent with 6 decimal places (about 0.1m at the equator).
+   */
+  public static final int COORDINATE_SCALE = 1000000;
+
   private static final String EVENT_HEAT_POINTS_ADDED = "heatPointsAdded";
   private static final String EVENT_MAP_CLICKED = "mapClicked";
+  private static final String EVENT_VIEW_PARAMETER_CHANGE = "viewParameterChange";
+
+  private static final String PACKED_ENCODING = "packed";
+  private static final int PACKED_POINT_BYTES = 2 * Integer.BYTES + Float.BYTES;
+  /**
+   * Smaller updates, e.g. a single clicked point, are sent as readable JSON.
+   */
+  private static final int PACKED_ENCODING_MIN_POINTS = 16;
 
   public JsonHeatmapField(IHeatmapField model, IUiSession uiSession, String id, IJsonAdapter<?> parent) {
     super(model, uiSession, id, parent);
@@ -30,6 +49,11 @@ public class JsonHeatmapField extends JsonFormField<IHeatmapField> {
 
     @Override
     public void heatPointsAdded(Collection<HeatPoint> points) {
+      heatPointsAdded(HeatPointBuffer.of(points));
+    }
+
+    @Override
+    public void heatPointsAdded(HeatPointBuffer points) {
       JSONObject json = new JSONObject();
       putProperty(json, "points", heatPointsToJson(points));
       addActionEvent(EVENT_HEAT_POINTS_ADDED, json);
@@ -63,16 +87,16 @@ public class JsonHeatmapField extends JsonFormField<IHeatmapField> {
       }
 
     });
-    putJsonProperty(new JsonProperty<IHeatmapField>(IHeatmapField.PROP_HEAT_POINT_LIST, model) {
+    // only the heat of the current viewport is sent, not all heat points
+    putJsonProperty(new JsonProperty<IHeatmapField>(IHeatmapField.PROP_VISIBLE_HEAT_POINTS, model) {
       @Override
-      protected Collection<HeatPoint> modelValue() {
-        return getModel().getHeatPoints();
+      protected HeatPointBuffer modelValue() {
+        return getModel().getVisibleHeatPoints();
       }
 
-      @SuppressWarnings("unchecked")
       @Override
       public Object prepareValueForToJson(Object value) {
-        return heatPointsToJson((Collection<HeatPoint>) value);
+        return heatPointsToJson((HeatPointBuffer) value);
       }
 
     });
@@ -97,25 +121,73 @@ public class JsonHeatmapField extends JsonFormField<IHeatmapField> {
     return json;
   }
 
-  protected JSONArray heatPointsToJson(Collection<HeatPoint> points) {
+  /**
+   * @return the points as packed columns (see {@link #heatPointsToPackedJson(HeatPointBuffer)}) or, for few points or
+   *         coordinates that cannot be quantized, as an array of point objects
+   */
+  protected Object heatPointsToJson(HeatPointBuffer points) {
     if (points == null) {
       return null;
     }
+    if (points.size() >= PACKED_ENCODING_MIN_POINTS && canQuantize(points)) {
+      return heatPointsToPackedJson(points);
+    }
     JSONArray jsonArray = new JSONArray();
-    for (HeatPoint point : points) {
-      jsonArray.put(heatPointToJson(point));
+    for (int i = 0; i < points.size(); i++) {
+      jsonArray.put(heatPointToJson(points, i));
     }
     return jsonArray;
   }
 
-  protected JSONObject heatPointToJson(HeatPoint heatPoint) {
-    if (heatPoint == null) {
-      return null;
+  /**
+   * Encodes the points as one base64 string of three little endian columns: the x and y coordinates as
+   * <code>Int32</code> multiplied by {@link #COORDINATE_SCALE} followed by the intensities as <code>Float32</code>
+   * (<code>NaN</code> if a point has none). A point costs 12 bytes (16 in base64) instead of about 60 characters of
+   * JSON and no JSON object is created per point.
+   */
+  protected JSONObject heatPointsToPackedJson(HeatPointBuffer points) {
+    int count = points.size();
+    ByteBuffer data = ByteBuffer.allocate(count * PACKED_POINT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = 0; i < count; i++) {
+      data.putInt(quantize(points.getX(i)));
+    }
+    for (int i = 0; i < count; i++) {
+      data.putInt(quantize(points.getY(i)));
+    }
+    for (int i = 0; i < count; i++) {
+      data.putFloat(points.getIntensity(i));
+    }
+
+    JSONObject json = new JSONObject();
+    json.put("encoding", PACKED_ENCODING);
+    json.put("count", count);
+    json.put("scale", COORDINATE_SCALE);
+    json.put("data", Base64Utility.encode(data.array()));
+    return json;
+  }
+
+  protected boolean canQuantize(HeatPointBuffer points) {
+    for (int i = 0; i < points.size(); i++) {
+      if (!canQuantize(points.getX(i)) || !canQuantize(points.getY(i))) {
+        return false;
+      }
     }
+    return true;
+  }
+
+  private static boolean canQuantize(double coordinate) {
+    return Math.abs(coordinate * COORDINATE_SCALE) <= Integer.MAX_VALUE;
+  }
+
+  private static int quantize(double coordinate) {
+    return (int) Math.round(coordinate * COORDINATE_SCALE);
+  }
+
+  protected JSONObject heatPointToJson(HeatPointBuffer points, int index) {
     JSONObject json = new JSONObject();
-    json.put("x", heatPoint.getX());
-    json.put("y", heatPoint.getY());
-    json.put("intensity", heatPoint.getIntensity());
+    json.put("x", points.getX(index));
+    json.put("y", points.getY(index));
+    json.put("intensity", HeatPointBuffer.toObject(points.getIntensity(index)));
     return json;
   }
 
@@ -137,7 +209,7 @@ public class JsonHeatmapField extends JsonFormField<IHeatmapField> {
 
   @Override
   public void handleUiEvent(JsonEvent event) {
-    if ("viewParameterChange".equals(event.getType())) {
+    if (EVENT_VIEW_PARAMETER_CHANGE.equals(event.getType())) {
       handleUiViewParameterChange(event);
     }
     else if ("click".equals(event.getType())) {
@@ -155,11 +227,40 @@ public class JsonHeatmapField extends JsonFormField<IHeatmapField> {
   }
 
   private void handleUiViewParameterChange(JsonEvent event) {
+    if (isViewParameterChangeSuperseded(event)) {
+      // only the latest viewport of a request is applied
+      return;
+    }
     JSONObject data = event.getData();
+    JSONObject viewportSize = data.optJSONObject("viewportSize");
+    if (viewportSize != null) {
+      getModel().getUIFacade().setViewportSizeFromUI(viewportSize.getInt("width"), viewportSize.getInt("height"));
+    }
     HeatmapViewParameter parameter = new HeatmapViewParameter(
         jsonToMapPoint(data.optJSONObject("center")),
         data.getInt("zoomFactor"));
     addPropertyEventFilterCondition(IHeatmapField.PROP_VIEW_PARAMETER, parameter);
     getModel().getUIFacade().setViewParameterFromUI(parameter);
   }
+
+  /**
+   * @return <code>true</code> if the current request contains a later view parameter change of this field
+   */
+  protected boolean isViewParameterChangeSuperseded(JsonEvent event) {
+    JsonRequest request = getUiSession().currentJsonRequest();
+    if (request == null) {
+      return false;
+    }
+    List<JsonEvent> events = request.getEvents();
+    int index = events.indexOf(event);
+    if (index < 0) {
+      return false;
+    }
+    for (JsonEvent laterEvent : events.subList(index + 1, events.size())) {
+      if (getId().equals(laterEvent.getTarget()) && EVENT_VIEW_PARAMETER_CHANGE.equals(laterEvent.getType())) {
+        return true;
+      }
+    }
+    return false;
+  }
 }
@@ -3,6 +3,11 @@ scout.HeatmapField = function() {
 };
 scout.inherits(scout.HeatmapField, scout.FormField);
 
+/**
+ * Milliseconds of calm before a view parameter change is triggered, e.g. zooming fires 'zoomend' and 'moveend'
+ */
+scout.HeatmapField.VIEW_PARAMETER_CHANGE_DEBOUNCE = 100;
+
 scout.HeatmapField.prototype._render = function() {
   this.addContainer(this.$parent, 'heatmap-field');
   this.addLabel();
@@ -37,24 +42,44 @@ scout.HeatmapField.prototype._render = function() {
 scout.HeatmapField.prototype._renderProperties = function() {
   scout.HeatmapField.parent.prototype._renderProperties.call(this);
   this._renderViewParameter();
-  this._renderHeatPointList();
+  this._renderVisibleHeatPoints();
 };
 
 scout.HeatmapField.prototype._remove = function() {
   scout.HeatmapField.parent.prototype._remove.call(this);
 
+  clearTimeout(this._viewParameterChangeTimeoutId);
+  this._viewParameterChangeTimeoutId = null;
+
   this.heatmap.remove();
   this.heatmap = null;
   this._heatLayer = null;
+  this._heatLatLngs = null;
 };
 
 scout.HeatmapField.prototype._onViewParameterChange = function() {
+  clearTimeout(this._viewParameterChangeTimeoutId);
+  this._viewParameterChangeTimeoutId = setTimeout(this._triggerViewParameterChange.bind(this),
+    scout.HeatmapField.VIEW_PARAMETER_CHANGE_DEBOUNCE);
+};
+
+scout.HeatmapField.prototype._triggerViewParameterChange = function() {
+  this._viewParameterChangeTimeoutId = null;
+  if (!this.heatmap) {
+    return;
+  }
+  var size = this.heatmap.getSize();
   this.trigger('viewParameterChange', {
     center: {
       x: this.heatmap.getCenter().lng,
       y: this.heatmap.getCenter().lat
     },
-    zoomFactor: this.heatmap.getZoom()
+    zoomFactor: this.heatmap.getZoom(),
+    // the model only sends the heat points within the viewport
+    viewportSize: {
+      width: size.x,
+      height: size.y
+    }
   });
 };
 
@@ -74,21 +99,12 @@ scout.HeatmapField.prototype._renderViewParameter = function() {
   ], this.viewParameter.zoomFactor);
 };
 
-scout.HeatmapField.prototype._renderHeatPointList = function() {
+scout.HeatmapField.prototype._renderVisibleHeatPoints = function() {
   if (this._heatLayer) {
     this.heatmap.removeLayer(this._heatLayer);
   }
-  var heatPoints = [];
-  if (this.heatPointList) {
-    this.heatPointList.forEach(function(point) {
-      heatPoints.push([
-        point.y,
-        point.x,
-        point.intensity
-      ]);
-    });
-  }
-  this._heatLayer = L.heatLayer(heatPoints, {
+  this._heatLatLngs = this._toLatLngs(this.visibleHeatPoints);
+  this._heatLayer = L.heatLayer(this._heatLatLngs, {
     // TODO [7.0] bsh: make this parameter list configurable from the model!
     // parameters to control the appearance of heat points
     // see leaflet.heat docu for full spec
@@ -100,11 +116,66 @@ scout.HeatmapField.prototype._renderHeatPointList = function() {
 };
 
 scout.HeatmapField.prototype.addHeatPoint = function(point) {
-  if (this._heatLayer) {
-    this._heatLayer.addLatLng([
+  this.addHeatPoints([point]);
+};
+
+/**
+ * @param heatPoints either an array of points or packed points, see _decodePackedHeatPoints
+ */
+scout.HeatmapField.prototype.addHeatPoints = function(heatPoints) {
+  if (!this._heatLayer) {
+    return;
+  }
+  // addLatLng() would redraw the layer for every point
+  this._toLatLngs(heatPoints).forEach(function(latLng) {
+    this._heatLatLngs.push(latLng);
+  }, this);
+  this._heatLayer.setLatLngs(this._heatLatLngs);
+};
+
+/**
+ * @returns the heat points as [lat, lng, intensity] arrays as expected by leaflet.heat
+ */
+scout.HeatmapField.prototype._toLatLngs = function(heatPoints) {
+  if (!heatPoints) {
+    return [];
+  }
+  if (heatPoints.encoding === 'packed') {
+    return this._decodePackedHeatPoints(heatPoints);
+  }
+  return heatPoints.map(function(point) {
+    return [
       point.y,
       point.x,
       point.intensity
-    ]);
+    ];
+  });
+};
+
+/**
+ * Decodes the packed form created by JsonHeatmapField.heatPointsToPackedJson: a base64 string of three little endian
+ * columns, the x and y coordinates as Int32 multiplied by 'scale' followed by the intensities as Float32.
+ */
+scout.HeatmapField.prototype._decodePackedHeatPoints = function(packed) {
+  var i, intensity,
+    count = packed.count,
+    scale = packed.scale,
+    binary = atob(packed.data),
+    bytes = new Uint8Array(binary.length),
+    latLngs = new Array(count);
+
+  for (i = 0; i < binary.length; i++) {
+    bytes[i] = binary.charCodeAt(i);
+  }
+  var view = new DataView(bytes.buffer);
+  for (i = 0; i < count; i++) {
+    intensity = view.getFloat32((2 * count + i) * 4, true);
+    latLngs[i] = [
+      view.getInt32((count + i) * 4, true) / scale,
+      view.getInt32(i * 4, true) / scale,
+      // a point without intensity gets the default of leaflet.heat
+      isNaN(intensity) ? undefined : intensity
+    ];
   }
+  return latLngs;
 };
@@ -13,6 +13,11 @@ scout.HeatmapFieldAdapter = function() {
 };
 scout.inherits(scout.HeatmapFieldAdapter, scout.FormFieldAdapter);
 
+/**
+ * Milliseconds a view parameter change waits for a later one before it is sent
+ */
+scout.HeatmapFieldAdapter.VIEW_PARAMETER_CHANGE_DELAY = 250;
+
 scout.HeatmapFieldAdapter.prototype._onWidgetEvent = function(event) {
   if (event.type === 'viewParameterChange') {
     this._onWidgetViewParameterChange(event);
@@ -24,9 +29,17 @@ scout.HeatmapFieldAdapter.prototype._onWidgetEvent = function(event) {
 };
 
 scout.HeatmapFieldAdapter.prototype._onWidgetViewParameterChange = function(event) {
+  // A pan or zoom gesture triggers many changes. They are sent delayed and a pending change is replaced by the
+  // next one, so the server only applies the latest viewport.
   this._send('viewParameterChange', {
     center: event.center,
-    zoomFactor: event.zoomFactor
+    zoomFactor: event.zoomFactor,
+    viewportSize: event.viewportSize
+  }, {
+    delay: scout.HeatmapFieldAdapter.VIEW_PARAMETER_CHANGE_DELAY,
+    coalesce: function(previous) {
+      return this.target === previous.target && this.type === previous.type;
+    }
   });
 };
 
@@ -45,7 +58,5 @@ scout.HeatmapFieldAdapter.prototype.onModelAction = function(event) {
 };
 
 scout.HeatmapFieldAdapter.prototype._onHeatPointsAdded = function(event) {
-  event.points.forEach(function(point) {
-    this.widget.addHeatPoint(point);
-  }, this);
+  this.widget.addHeatPoints(event.points);
 };